@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.asto.AuthTokensMaid;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of {@link AuthTokensMaid#removeExpired()} on large `.tokens.json` with
+ * {@link #tokens} tokens, {@link #expired} percent of them are expired. `first` method measures
+ * the first clean of the new maid: tokens json is read to build expiry index and rewritten if
+ * there are expired tokens. `next` method measures subsequent cleans with the index already
+ * built, which only read the tokens json until indexed tokens expire.
+ * @since 0.6
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class AuthTokensMaidBench {
+
+    /**
+     * Count of tokens in `.tokens.json`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "10000", "100000"})
+    public int tokens;
+
+    /**
+     * Percent of expired tokens.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"0", "10"})
+    public int expired;
+
+    /**
+     * Tokens json bytes.
+     */
+    private byte[] json;
+
+    /**
+     * Maid of the storage with the tokens json, new for each invocation of `first`.
+     */
+    private AuthTokensMaid fresh;
+
+    /**
+     * Maid with the index already built.
+     */
+    private AuthTokensMaid synced;
+
+    @Setup
+    public void setup() {
+        this.json = new SyntheticTokens(this.tokens, this.expired).bytes();
+        this.synced = new AuthTokensMaid(this.storage());
+        this.synced.clean().toCompletableFuture().join();
+        System.out.printf("%n.tokens.json: %d bytes%n", this.json.length);
+    }
+
+    @Setup(Level.Invocation)
+    public void maid() {
+        this.fresh = new AuthTokensMaid(this.storage());
+    }
+
+    @Benchmark
+    public int first() {
+        return this.fresh.removeExpired().toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public int next() {
+        return this.synced.removeExpired().toCompletableFuture().join();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(AuthTokensMaidBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * New storage with tokens json.
+     * @return Storage
+     */
+    private Storage storage() {
+        final Storage res = new InMemoryStorage();
+        res.save(new Key.From(".tokens.json"), new Content.From(this.json)).join();
+        return res;
+    }
+}
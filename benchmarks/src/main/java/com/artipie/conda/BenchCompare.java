@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compares benchmark results of the version to the baseline version, both recorded by
+ * {@link BenchRun} into `RESULTS_DIR` (`benchmarks/results` by default) subdirectories.
+ * Throughput, latency (score and p99) and allocation per operation worse than the baseline
+ * by more than the threshold are reported as regressions. The report is printed and saved to
+ * `compare-${baseline}.txt` file of the version results, exit status is 1 if there are
+ * regressions.
+ * <p>
+ * Usage: `java -cp benchmarks/target/benchmarks.jar com.artipie.conda.BenchCompare
+ * ${baseline} ${version} [threshold percent, 10 by default]`.
+ * @since 0.6
+ */
+public final class BenchCompare {
+
+    /**
+     * Default threshold, percent.
+     */
+    private static final double THRESHOLD = 10;
+
+    /**
+     * Baseline results.
+     */
+    private final Map<String, List<JmhResults.Metric>> baseline;
+
+    /**
+     * Compared results.
+     */
+    private final Map<String, List<JmhResults.Metric>> current;
+
+    /**
+     * Threshold, relative change.
+     */
+    private final double threshold;
+
+    /**
+     * Ctor.
+     * @param baseline Baseline results
+     * @param current Compared results
+     * @param threshold Threshold, relative change, for example `0.1` for 10%
+     */
+    public BenchCompare(final Map<String, List<JmhResults.Metric>> baseline,
+        final Map<String, List<JmhResults.Metric>> current, final double threshold) {
+        this.baseline = baseline;
+        this.current = current;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Main.
+     * @param args Baseline version, version and optional threshold percent
+     * @throws IOException On error
+     */
+    @SuppressWarnings("PMD.DoNotCallSystemExit")
+    public static void main(final String... args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                "Usage: BenchCompare ${baseline} ${version} [threshold percent]"
+            );
+        }
+        double percent = BenchCompare.THRESHOLD;
+        if (args.length > 2) {
+            percent = Double.parseDouble(args[2]);
+        }
+        final Path dir = BenchRun.results().resolve(args[1]);
+        final BenchCompare compare = new BenchCompare(
+            new JmhResults(BenchRun.results().resolve(args[0])).metrics(),
+            new JmhResults(dir).metrics(), percent / 100
+        );
+        final String report = String.format(
+            Locale.US, "Results of %s compared to %s, threshold %.1f%%%n%s",
+            args[1], args[0], percent, compare.report()
+        );
+        System.out.print(report);
+        Files.write(
+            dir.resolve(String.format("compare-%s.txt", args[0])),
+            report.getBytes(StandardCharsets.UTF_8)
+        );
+        if (compare.regressions() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Human-readable report: line per result metric with the baseline and the new value,
+     * regressions go first, results found in one version only go last.
+     * @return Report
+     */
+    public String report() {
+        final StringBuilder regressed = new StringBuilder();
+        final StringBuilder improved = new StringBuilder();
+        final StringBuilder same = new StringBuilder();
+        final StringBuilder unmatched = new StringBuilder();
+        for (final Map.Entry<String, List<JmhResults.Metric>> result : this.current.entrySet()) {
+            if (!this.baseline.containsKey(result.getKey())) {
+                unmatched.append(String.format("NEW         %s%n", result.getKey()));
+                continue;
+            }
+            for (final JmhResults.Metric metric : result.getValue()) {
+                final Optional<JmhResults.Metric> base = this.base(result.getKey(), metric);
+                if (!base.isPresent()) {
+                    continue;
+                }
+                final double worse = metric.worse(base.get());
+                StringBuilder target = same;
+                String label = "ok";
+                if (worse > this.threshold) {
+                    target = regressed;
+                    label = "REGRESSION";
+                } else if (-worse > this.threshold) {
+                    target = improved;
+                    label = "improved";
+                }
+                String change = "worse";
+                if (worse < 0) {
+                    change = "better";
+                }
+                target.append(
+                    String.format(
+                        Locale.US, "%-11s %s %s: %s -> %s (%.1f%% %s)%n",
+                        label, result.getKey(), metric.name(), base.get().formatted(),
+                        metric.formatted(), Math.abs(worse) * 100, change
+                    )
+                );
+            }
+        }
+        for (final String key : this.baseline.keySet()) {
+            if (!this.current.containsKey(key)) {
+                unmatched.append(String.format("MISSING     %s%n", key));
+            }
+        }
+        return new StringBuilder()
+            .append(regressed).append(improved).append(same).append(unmatched)
+            .append(
+                String.format(
+                    "%d regressions, %d improvements%n",
+                    BenchCompare.lines(regressed), BenchCompare.lines(improved)
+                )
+            ).toString();
+    }
+
+    /**
+     * Count of metrics worse than the baseline by more than the threshold.
+     * @return Regressions count
+     */
+    public long regressions() {
+        return this.current.entrySet().stream()
+            .filter(result -> this.baseline.containsKey(result.getKey()))
+            .flatMap(
+                result -> result.getValue().stream().filter(
+                    metric -> this.base(result.getKey(), metric)
+                        .map(base -> metric.worse(base) > this.threshold)
+                        .orElse(false)
+                )
+            ).count();
+    }
+
+    /**
+     * Baseline metric of the result with the same name, if both have values.
+     * @param key Result key
+     * @param metric Compared metric
+     * @return Baseline metric if present
+     */
+    private Optional<JmhResults.Metric> base(final String key, final JmhResults.Metric metric) {
+        return this.baseline.get(key).stream()
+            .filter(base -> base.name().equals(metric.name()))
+            .filter(base -> base.present() && metric.present())
+            .findFirst();
+    }
+
+    /**
+     * Count of lines.
+     * @param text Text
+     * @return Lines count
+     */
+    private static long lines(final CharSequence text) {
+        return text.chars().filter(chr -> chr == '\n').count();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmark suites and records results in JMH JSON format into `${version}` subdirectory
+ * of `RESULTS_DIR` (`benchmarks/results` by default), one file per suite. GC profiler is
+ * always enabled to record allocation per operation. Results of two versions are compared by
+ * {@link BenchCompare}.
+ * <p>
+ * Usage: `java -cp benchmarks/target/benchmarks.jar com.artipie.conda.BenchRun ${version}
+ * [suite...] [JMH options]`, for example `BenchRun 0.6.0 CondaUploadBench InfoIndexBench
+ * -p size=10240`. All suites are run into `all.json` file if none are given.
+ * @since 0.6
+ */
+public final class BenchRun {
+
+    /**
+     * Ctor.
+     */
+    private BenchRun() {
+    }
+
+    /**
+     * Main.
+     * @param args Version, suites and JMH options
+     * @throws IOException On error
+     * @throws RunnerException On benchmark failure
+     * @throws CommandLineOptionException On invalid JMH options
+     */
+    public static void main(final String... args)
+        throws IOException, RunnerException, CommandLineOptionException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException(
+                "Usage: BenchRun ${version} [suite...] [JMH options]"
+            );
+        }
+        final Path dir = BenchRun.results().resolve(args[0]);
+        Files.createDirectories(dir);
+        int first = 1;
+        while (first < args.length && !args[first].startsWith("-")) {
+            first = first + 1;
+        }
+        final CommandLineOptions cli = new CommandLineOptions(
+            Arrays.copyOfRange(args, first, args.length)
+        );
+        List<String> suites = Arrays.asList(args).subList(1, first);
+        if (suites.isEmpty()) {
+            suites = Collections.singletonList("all");
+        }
+        for (final String suite : suites) {
+            final OptionsBuilder opts = new OptionsBuilder();
+            opts.parent(cli);
+            if (!"all".equals(suite)) {
+                opts.include(suite);
+            }
+            new Runner(
+                opts.addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(
+                        dir.resolve(
+                            String.format("%s.json", suite.replaceAll("[^A-Za-z0-9.]", "_"))
+                        ).toString()
+                    )
+                    .build()
+            ).run();
+        }
+    }
+
+    /**
+     * Results directory from `RESULTS_DIR` environment variable.
+     * @return Results directory
+     */
+    static Path results() {
+        return Paths.get(
+            Optional.ofNullable(System.getenv("RESULTS_DIR")).orElse("benchmarks/results")
+        );
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.asto.AstoAuthTokens;
+import com.artipie.conda.asto.AstoMergedJson;
+import com.artipie.conda.http.CondaSlice;
+import com.artipie.http.Headers;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Concurrent read benchmark: `repodata.json` and package downloads through
+ * {@link CondaSlice} with anonymous, basic and token authentication, {@link #auth}.
+ * Throughput methods report operations per second, latency methods report latency
+ * distribution with p99. If {@link #rewrite} is set, background thread rewrites
+ * `repodata.json` with {@link #entries} packages in a loop, as uploads do, to show
+ * interference of reads and writes. {@link #main(String...)} runs the benchmark with
+ * 1, 4, 16 and 64 threads, use `-t` option to set threads count when running
+ * it from `benchmarks.jar`.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class CondaReadBench {
+
+    /**
+     * Threads counts to run the benchmark with.
+     */
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    /**
+     * Subdir.
+     */
+    private static final String SUBDIR = "linux-64";
+
+    /**
+     * User name.
+     */
+    private static final String USER = "alice";
+
+    /**
+     * User password.
+     */
+    private static final String PSWD = "secret";
+
+    /**
+     * Count of downloadable packages.
+     */
+    private static final int PACKAGES = 16;
+
+    /**
+     * Count of entries in `repodata.json`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    public int entries;
+
+    /**
+     * Authentication: `anonymous`, `basic` or `token`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"anonymous", "basic", "token"})
+    public String auth;
+
+    /**
+     * Whether to rewrite `repodata.json` in background.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"false", "true"})
+    public boolean rewrite;
+
+    /**
+     * Downloaded packages payload size in bytes.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param("1048576")
+    public int size;
+
+    /**
+     * Slice to call.
+     */
+    private SliceCall slice;
+
+    /**
+     * Request headers.
+     */
+    private Headers headers;
+
+    /**
+     * Repodata request line.
+     */
+    private RequestLine repodata;
+
+    /**
+     * Packages request lines.
+     */
+    private RequestLine[] packages;
+
+    /**
+     * Next package to download.
+     */
+    private AtomicLong next;
+
+    /**
+     * Whether background rewrite should run.
+     */
+    private AtomicBoolean running;
+
+    /**
+     * Background rewrite thread.
+     */
+    private Thread rewriter;
+
+    /**
+     * Count of background rewrites.
+     */
+    private AtomicLong rewrites;
+
+    @Setup
+    public void setup() {
+        final Storage asto = new InMemoryStorage();
+        final SyntheticRepodata synthetic = new SyntheticRepodata(this.entries);
+        final Key key = new Key.From(CondaReadBench.SUBDIR, "repodata.json");
+        asto.save(key, new Content.From(synthetic.bytes())).join();
+        final String[] names = new String[CondaReadBench.PACKAGES];
+        for (int idx = 0; idx < names.length; idx = idx + 1) {
+            names[idx] = synthetic.filename(idx);
+            asto.save(
+                new Key.From(CondaReadBench.SUBDIR, names[idx]),
+                new Content.From(new SyntheticPackage(names[idx], this.size).bytes())
+            ).join();
+        }
+        String prefix = "";
+        if ("anonymous".equals(this.auth)) {
+            this.slice = new SliceCall(new CondaSlice(asto, "http://localhost"));
+            this.headers = Headers.EMPTY;
+        } else {
+            final AuthTokens tokens = new CachedAuthTokens(new AstoAuthTokens(asto));
+            this.slice = new SliceCall(
+                new CondaSlice(
+                    asto, new Permissions.Single(CondaReadBench.USER, "read"),
+                    new Authentication.Single(CondaReadBench.USER, CondaReadBench.PSWD),
+                    tokens, "http://localhost", Duration.ofDays(1)
+                )
+            );
+            if ("basic".equals(this.auth)) {
+                this.headers = new Headers.From(
+                    "Authorization",
+                    String.format(
+                        "Basic %s",
+                        Base64.getEncoder().encodeToString(
+                            String.format("%s:%s", CondaReadBench.USER, CondaReadBench.PSWD)
+                                .getBytes(StandardCharsets.UTF_8)
+                        )
+                    )
+                );
+            } else {
+                this.headers = Headers.EMPTY;
+                prefix = String.format(
+                    "/t/%s",
+                    tokens.generate(CondaReadBench.USER, Duration.ofDays(1))
+                        .toCompletableFuture().join().token()
+                );
+            }
+        }
+        this.repodata = new RequestLine(
+            RqMethod.GET, String.format("%s/%s/repodata.json", prefix, CondaReadBench.SUBDIR)
+        );
+        this.packages = new RequestLine[names.length];
+        for (int idx = 0; idx < names.length; idx = idx + 1) {
+            this.packages[idx] = new RequestLine(
+                RqMethod.GET, String.format("%s/%s/%s", prefix, CondaReadBench.SUBDIR, names[idx])
+            );
+        }
+        this.next = new AtomicLong();
+        this.rewrites = new AtomicLong();
+        this.running = new AtomicBoolean(this.rewrite);
+        this.rewriter = new Thread(
+            () -> {
+                while (this.running.get()) {
+                    new AstoMergedJson(asto, key).merge(
+                        Collections.singletonMap(
+                            names[0],
+                            Json.createObjectBuilder()
+                                .add("size", this.size)
+                                .add("timestamp", System.currentTimeMillis())
+                                .build()
+                        )
+                    ).toCompletableFuture().join();
+                    this.rewrites.incrementAndGet();
+                }
+            },
+            "repodata-rewriter"
+        );
+        this.rewriter.setDaemon(true);
+        this.rewriter.start();
+    }
+
+    @TearDown
+    public void stop() throws InterruptedException {
+        this.running.set(false);
+        this.rewriter.join();
+        if (this.rewrite) {
+            System.out.printf("%nrepodata rewrites: %d%n", this.rewrites.get());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void repodata() {
+        this.get(this.repodata);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void pkg() {
+        this.get(this.nextPackage());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void repodataLatency() {
+        this.get(this.repodata);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void pkgLatency() {
+        this.get(this.nextPackage());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        for (final int threads : CondaReadBench.THREADS) {
+            new Runner(
+                new OptionsBuilder()
+                    .include(CondaReadBench.class.getSimpleName())
+                    .threads(threads)
+                    .forks(1)
+                    .build()
+            ).run();
+        }
+    }
+
+    /**
+     * Next package request line, packages are requested in turn.
+     * @return Request line
+     */
+    private RequestLine nextPackage() {
+        return this.packages[(int) (this.next.getAndIncrement() % this.packages.length)];
+    }
+
+    /**
+     * Performs GET request.
+     * @param line Request line
+     */
+    private void get(final RequestLine line) {
+        final RsStatus status = this.slice.status(line, this.headers, new byte[0]);
+        if (status != RsStatus.OK) {
+            throw new IllegalStateException(String.format("%s failed: %s", line, status));
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -31,7 +32,10 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmark for {@link CondaRepodata.Append}.
+ * Benchmark for {@link CondaRepodata.Append}. Appends packages found in `BENCH_DIR` directory
+ * to `repodata.json` from the same directory, or, if `BENCH_DIR` is not set, appends
+ * {@link SyntheticPackage}s of {@link #size} bytes to {@link SyntheticRepodata} with
+ * {@link #entries} packages, one of the appended packages replaces existing entry.
  * @since 0.2
  */
 @BenchmarkMode(Mode.AverageTime)
@@ -46,6 +50,25 @@ public class CondaRepodataAppendBench {
      */
     private static final String BENCH_DIR = System.getenv("BENCH_DIR");
 
+    /**
+     * Count of synthetic packages to append.
+     */
+    private static final int APPENDED = 6;
+
+    /**
+     * Count of synthetic repodata entries, not used when `BENCH_DIR` is set.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    public int entries;
+
+    /**
+     * Synthetic packages payload size in bytes, not used when `BENCH_DIR` is set.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"10240", "1048576"})
+    public int size;
+
     /**
      * Benchmark repodata.json.
      */
@@ -58,24 +81,11 @@ public class CondaRepodataAppendBench {
 
     @Setup
     public void setup() throws IOException {
+        this.pckg = new ArrayList<>(CondaRepodataAppendBench.APPENDED);
         if (CondaRepodataAppendBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
-        }
-        this.pckg = new ArrayList<>();
-        try (Stream<Path> stream = Files.list(Paths.get(CondaRepodataAppendBench.BENCH_DIR))) {
-            for (final Path file : stream.collect(Collectors.toList())) {
-                final byte[] bytes = Files.readAllBytes(file);
-                final String name = file.getFileName().toString();
-                if (name.endsWith("repodata.json")) {
-                    this.repodata = bytes;
-                } else if (name.endsWith(".tar.bz2") || name.endsWith(".conda")) {
-                    this.pckg.add(
-                        new TestPackage(
-                            bytes, name, DigestUtils.sha256Hex(bytes), DigestUtils.md5Hex(bytes)
-                        )
-                    );
-                }
-            }
+            this.synthetic();
+        } else {
+            this.fromDir();
         }
     }
 
@@ -107,6 +117,50 @@ public class CondaRepodataAppendBench {
         ).run();
     }
 
+    /**
+     * Generates synthetic repodata and packages: the first package replaces existing entry,
+     * others are new.
+     */
+    private void synthetic() {
+        final SyntheticRepodata synthetic = new SyntheticRepodata(this.entries);
+        this.repodata = synthetic.bytes();
+        for (int idx = 0; idx < CondaRepodataAppendBench.APPENDED; idx = idx + 1) {
+            int num = this.entries + idx;
+            if (idx == 0) {
+                num = this.entries / 2;
+            }
+            final String name = synthetic.filename(num);
+            final byte[] bytes = new SyntheticPackage(name, this.size).bytes();
+            this.pckg.add(
+                new TestPackage(
+                    bytes, name, DigestUtils.sha256Hex(bytes), DigestUtils.md5Hex(bytes)
+                )
+            );
+        }
+    }
+
+    /**
+     * Reads repodata and packages from benchmark directory.
+     * @throws IOException On error
+     */
+    private void fromDir() throws IOException {
+        try (Stream<Path> stream = Files.list(Paths.get(CondaRepodataAppendBench.BENCH_DIR))) {
+            for (final Path file : stream.collect(Collectors.toList())) {
+                final byte[] bytes = Files.readAllBytes(file);
+                final String name = file.getFileName().toString();
+                if (name.endsWith("repodata.json")) {
+                    this.repodata = bytes;
+                } else if (name.endsWith(".tar.bz2") || name.endsWith(".conda")) {
+                    this.pckg.add(
+                        new TestPackage(
+                            bytes, name, DigestUtils.sha256Hex(bytes), DigestUtils.md5Hex(bytes)
+                        )
+                    );
+                }
+            }
+        }
+    }
+
     /**
      * Package item: .conda or tar.bz2 package as bytes, file name and checksums.
      * @since 0.2
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.asto.AstoAuthTokens;
+import com.artipie.conda.http.auth.TokenAuth;
+import com.artipie.conda.http.auth.TokenAuthScheme;
+import com.artipie.http.Headers;
+import com.artipie.http.auth.AuthScheme;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Token authentication benchmark: requests with `Authorization: token` header are
+ * authenticated by {@link TokenAuthScheme} with {@link CachedAuthTokens} on top of
+ * {@link AstoAuthTokens}, `.tokens.json` contains {@link #tokens} tokens, tenth of them are
+ * expired. Lookups follow {@link #mix}:
+ * `hit` looks up valid tokens which are already cached,
+ * `miss` looks up valid tokens through the cache which is too small to keep them, so almost
+ * every lookup reads tokens json,
+ * `expired` looks up expired tokens, which are remembered in the unknown tokens cache after
+ * the first lookup,
+ * `unknown` looks up a new token every time, as brute force would, every lookup reads tokens
+ * json.
+ * `churn` group runs lookups along with the thread which generates and removes tokens, each
+ * of those rewrites tokens json.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CondaTokensBench {
+
+    /**
+     * Count of distinct tokens looked up.
+     */
+    private static final int LOOKED_UP = 1024;
+
+    /**
+     * Tokens cache size for `miss` mix.
+     */
+    private static final int SMALL_CACHE = 8;
+
+    /**
+     * Request line.
+     */
+    private static final String LINE = new RequestLine(
+        RqMethod.GET, "/linux-64/repodata.json"
+    ).toString();
+
+    /**
+     * Count of tokens in `.tokens.json`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "10000", "100000"})
+    public int tokens;
+
+    /**
+     * Looked up tokens: `hit`, `miss`, `expired` or `unknown`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"hit", "miss", "expired", "unknown"})
+    public String mix;
+
+    /**
+     * Authentication scheme.
+     */
+    private AuthScheme scheme;
+
+    /**
+     * Cached tokens.
+     */
+    private CachedAuthTokens cached;
+
+    /**
+     * Headers with looked up tokens, empty for `unknown` mix.
+     */
+    private Headers[] headers;
+
+    @Setup
+    public void setup() {
+        final SyntheticTokens synthetic = new SyntheticTokens(this.tokens, 10);
+        final Storage asto = new InMemoryStorage();
+        asto.save(new Key.From(".tokens.json"), new Content.From(synthetic.bytes())).join();
+        final boolean expired = "expired".equals(this.mix);
+        long size = this.tokens;
+        if ("miss".equals(this.mix)) {
+            size = CondaTokensBench.SMALL_CACHE;
+        }
+        final Cache<String, AuthTokens.TokenItem> cache = Caffeine.newBuilder()
+            .maximumSize(size).executor(Runnable::run).build();
+        this.headers = new Headers[0];
+        if (!"unknown".equals(this.mix)) {
+            this.headers = new Headers[Math.min(CondaTokensBench.LOOKED_UP, this.tokens / 10)];
+        }
+        int found = 0;
+        for (int idx = 0; found < this.headers.length; idx = idx + 1) {
+            if (synthetic.isExpired(idx) == expired) {
+                final String token = SyntheticTokens.token(idx);
+                this.headers[found] = CondaTokensBench.header(token);
+                found = found + 1;
+                if ("hit".equals(this.mix)) {
+                    cache.put(
+                        token,
+                        new AuthTokens.TokenItem(
+                            token, SyntheticTokens.user(idx),
+                            Instant.now().plus(Duration.ofDays(1))
+                        )
+                    );
+                }
+            }
+        }
+        this.cached = new CachedAuthTokens(cache, new AstoAuthTokens(asto));
+        this.scheme = new TokenAuthScheme(new TokenAuth(this.cached));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean lookup() {
+        return this.authenticate();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public boolean churnLookup() {
+        return this.authenticate();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean churnWrite() {
+        return this.cached.remove(
+            this.cached.generate("churn", Duration.ofDays(1)).toCompletableFuture().join().token()
+        ).toCompletableFuture().join();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(CondaTokensBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Authenticates request with the next token.
+     * @return True if authenticated
+     */
+    private boolean authenticate() {
+        final Headers hdrs;
+        if (this.headers.length == 0) {
+            hdrs = CondaTokensBench.header(
+                SyntheticTokens.token(this.tokens + ThreadLocalRandom.current().nextInt())
+            );
+        } else {
+            hdrs = this.headers[ThreadLocalRandom.current().nextInt(this.headers.length)];
+        }
+        return this.scheme.authenticate(hdrs, CondaTokensBench.LINE)
+            .toCompletableFuture().join().user().isPresent();
+    }
+
+    /**
+     * Authorization header with the token.
+     * @param token Token
+     * @return Headers
+     */
+    private static Headers header(final String token) {
+        return new Headers.From(
+            "Authorization", String.format("%s %s", TokenAuthScheme.NAME, token)
+        );
+    }
+}
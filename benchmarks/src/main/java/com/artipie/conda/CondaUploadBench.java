@@ -0,0 +1,255 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.asto.AccountingStorage;
+import com.artipie.conda.asto.StorageAccount;
+import com.artipie.conda.http.CondaSlice;
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.http.Headers;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * End-to-end benchmark of package upload through {@link CondaSlice}: multipart request body
+ * is parsed, package is saved to the storage, read three times to extract `info/index.json`
+ * and to calculate checksums, then it is merged into `repodata.json` with {@link #entries}
+ * packages. Storage is {@link InMemoryStorage}, each operation is delayed by
+ * {@link #latency} milliseconds to simulate network storage. Every upload adds new
+ * {@link SyntheticPackage} with {@link #size} bytes payload, storage is recreated for
+ * each iteration. Average stages durations and storage operations per upload are printed
+ * after each iteration.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class CondaUploadBench {
+
+    /**
+     * Multipart boundary.
+     */
+    private static final String BOUNDARY = "bench-boundary";
+
+    /**
+     * Request headers.
+     */
+    private static final Headers HEADERS = new Headers.From(
+        new Headers.From(
+            "Content-Type",
+            String.format("multipart/form-data; boundary=\"%s\"", CondaUploadBench.BOUNDARY)
+        ),
+        "Authorization", "token any"
+    );
+
+    /**
+     * Count of entries in `repodata.json` before the upload.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    public int entries;
+
+    /**
+     * Uploaded package payload size in bytes.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"10240", "1048576"})
+    public int size;
+
+    /**
+     * Delay of each storage operation in milliseconds.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"0", "2"})
+    public int latency;
+
+    /**
+     * Synthetic repodata.
+     */
+    private SyntheticRepodata synthetic;
+
+    /**
+     * Synthetic `repodata.json` bytes.
+     */
+    private byte[] repodata;
+
+    /**
+     * Multipart body with `.tar.bz2` package.
+     */
+    private byte[] tarbz;
+
+    /**
+     * Multipart body with `.conda` package.
+     */
+    private byte[] conda;
+
+    /**
+     * Index of the next uploaded package.
+     */
+    private AtomicInteger next;
+
+    /**
+     * Upload stages breakdown.
+     */
+    private StagesBreakdown stages;
+
+    /**
+     * Storage operations account.
+     */
+    private StorageAccount.InMemory account;
+
+    /**
+     * Slice to call.
+     */
+    private SliceCall slice;
+
+    @Setup
+    public void setup() throws IOException {
+        this.synthetic = new SyntheticRepodata(this.entries);
+        this.repodata = this.synthetic.bytes();
+        this.tarbz = CondaUploadBench.body(
+            new SyntheticPackage("bench-1.0-py38_0.tar.bz2", this.size).bytes()
+        );
+        this.conda = CondaUploadBench.body(
+            new SyntheticPackage("bench-1.0-py38_0.conda", this.size).bytes()
+        );
+        this.stages = new StagesBreakdown();
+    }
+
+    @Setup(Level.Iteration)
+    public void storage() {
+        final Storage asto = new InMemoryStorage();
+        asto.save(new Key.From("linux-64", "repodata.json"), new Content.From(this.repodata))
+            .join();
+        this.account = new StorageAccount.InMemory();
+        this.stages.reset();
+        this.next = new AtomicInteger(this.entries);
+        this.slice = new SliceCall(
+            new CondaSlice(
+                new AccountingStorage(
+                    new LatencyStorage(asto, Duration.ofMillis(this.latency)), this.account
+                ),
+                Permissions.FREE, Authentication.ANONYMOUS, AuthTokens.ANONYMOUS,
+                "http://localhost", Duration.ofDays(1), Metrics.NOP, this.stages
+            )
+        );
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf(
+            "%n%s%nstorage: %s%n", this.stages, this.account
+        );
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void latency() {
+        this.upload();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput() {
+        this.upload();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(CondaUploadBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Uploads next package.
+     */
+    private void upload() {
+        final String name = this.synthetic.filename(this.next.getAndIncrement());
+        byte[] body = this.tarbz;
+        if (name.endsWith(".conda")) {
+            body = this.conda;
+        }
+        final RsStatus status = this.slice.status(
+            new RequestLine(RqMethod.POST, String.format("/linux-64/%s", name)),
+            CondaUploadBench.HEADERS, body
+        );
+        if (status != RsStatus.CREATED) {
+            throw new IllegalStateException(String.format("Upload failed: %s", status));
+        }
+    }
+
+    /**
+     * Multipart upload body as conda client sends it.
+     * @param pkg Package bytes
+     * @return Body bytes
+     * @throws IOException On error
+     */
+    private static byte[] body(final byte[] pkg) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        res.write(
+            String.join(
+                "\r\n",
+                String.format("--%s", CondaUploadBench.BOUNDARY),
+                "Content-Disposition: form-data; name=\"Content-Length\"",
+                "",
+                String.valueOf(pkg.length),
+                String.format("--%s", CondaUploadBench.BOUNDARY),
+                "Content-Disposition: form-data; name=\"file\"; filename=\"package\"",
+                "",
+                ""
+            ).getBytes(StandardCharsets.US_ASCII)
+        );
+        res.write(pkg);
+        res.write(
+            String.format("\r\n--%s--\r\n", CondaUploadBench.BOUNDARY)
+                .getBytes(StandardCharsets.US_ASCII)
+        );
+        return res.toByteArray();
+    }
+}
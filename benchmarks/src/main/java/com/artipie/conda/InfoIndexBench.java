@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.conda.meta.InfoIndex;
+import com.artipie.conda.meta.PackageMeta;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.input.CountingInputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of package metadata extraction by {@link InfoIndex.TarBz} and
+ * {@link InfoIndex.Conda} from generated {@link SyntheticPackage} of {@link #format} format
+ * with {@link #size} bytes payload, `info/` is placed at the start or at the end of the
+ * archive, {@link #info}. Packages up to 128 MB are kept in memory, larger packages are written
+ * to temporary files, generation of 2 GB packages takes minutes, use `-p size=...` option to
+ * skip them. Besides extractions per second, `bytesRead` counter reports how many package
+ * bytes per second extraction reads, divided by the score it gives bytes read per extraction.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class InfoIndexBench {
+
+    /**
+     * The largest package kept in memory.
+     */
+    private static final long IN_MEMORY = 128L * 1024 * 1024;
+
+    /**
+     * Package payload size in bytes.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"10240", "1048576", "104857600", "2147483648"})
+    public long size;
+
+    /**
+     * Package format: `tar.bz2` or `conda`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"tar.bz2", "conda"})
+    public String format;
+
+    /**
+     * Where `info/` is placed: `first` or `last`.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"first", "last"})
+    public String info;
+
+    /**
+     * Package bytes, null if the package is in the file.
+     */
+    private byte[] bytes;
+
+    /**
+     * Package file, null if the package is in memory.
+     */
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        final SyntheticPackage pkg = new SyntheticPackage(
+            String.format("bench-1.0-py38_0.%s", this.format), this.size,
+            "first".equals(this.info)
+        );
+        if (this.size > InfoIndexBench.IN_MEMORY) {
+            this.file = Files.createTempFile("bench", String.format(".%s", this.format));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(this.file))) {
+                pkg.writeTo(out);
+            }
+        } else {
+            this.bytes = pkg.bytes();
+        }
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        if (this.file != null) {
+            Files.delete(this.file);
+        }
+    }
+
+    @Benchmark
+    public PackageMeta extract(final ReadBytes read) throws IOException {
+        final CountingInputStream input = new CountingInputStream(this.open());
+        final PackageMeta res;
+        try {
+            if ("conda".equals(this.format)) {
+                res = new InfoIndex.Conda(input).meta();
+            } else {
+                res = new InfoIndex.TarBz(input).meta();
+            }
+        } finally {
+            input.close();
+            read.bytesRead = read.bytesRead + input.getByteCount();
+        }
+        return res;
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(InfoIndexBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Opens package stream.
+     * @return Package input stream
+     * @throws IOException On error
+     */
+    private InputStream open() throws IOException {
+        final InputStream res;
+        if (this.file == null) {
+            res = new ByteArrayInputStream(this.bytes);
+        } else {
+            res = new BufferedInputStream(Files.newInputStream(this.file));
+        }
+        return res;
+    }
+
+    /**
+     * Bytes read by extraction, reported as a rate along with the score.
+     * @since 0.6
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ReadBytes {
+
+        /**
+         * Count of package bytes read.
+         * @checkstyle VisibilityModifierCheck (3 lines)
+         */
+        public long bytesRead;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytesRead = 0;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * JMH results in JSON format recorded for one version: all `*.json` files of the directory.
+ * Each result is identified by the benchmark name without package, parameters, mode and
+ * threads count, and has up to three compared metrics: the score, p99 latency for sample
+ * time mode and normalized allocation rate when GC profiler was enabled. If the same
+ * result is found in several files, the file which goes later by name wins.
+ * @since 0.6
+ */
+public final class JmhResults {
+
+    /**
+     * Package prefix removed from benchmark names.
+     */
+    private static final String PACKAGE = "com.artipie.conda.";
+
+    /**
+     * Normalized allocation rate secondary metric name suffix.
+     */
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    /**
+     * Allocation difference in bytes per operation which is not taken into account.
+     */
+    private static final double ALLOC_NOISE = 64.0;
+
+    /**
+     * Results directory.
+     */
+    private final Path dir;
+
+    /**
+     * Ctor.
+     * @param dir Results directory
+     */
+    public JmhResults(final Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Reads metrics of all the results.
+     * @return Metrics by result, sorted by result
+     * @throws IOException On error
+     */
+    public Map<String, List<Metric>> metrics() throws IOException {
+        final Map<String, List<Metric>> res = new TreeMap<>();
+        final List<Path> files = new ArrayList<>(10);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir, "*.json")) {
+            stream.forEach(files::add);
+        }
+        files.sort(Path::compareTo);
+        for (final Path file : files) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                final JsonArray results = Json.createReader(reader).readArray();
+                for (final JsonValue result : results) {
+                    final JsonObject obj = result.asJsonObject();
+                    res.put(JmhResults.key(obj), JmhResults.metrics(obj));
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Result key: benchmark, parameters, mode and threads, for example
+     * `CondaReadBench.repodata {auth=basic, entries=1000} thrpt x4`.
+     * @param result JMH result
+     * @return Key
+     */
+    private static String key(final JsonObject result) {
+        String name = result.getString("benchmark");
+        if (name.startsWith(JmhResults.PACKAGE)) {
+            name = name.substring(JmhResults.PACKAGE.length());
+        }
+        final StringBuilder res = new StringBuilder(name);
+        final JsonObject params = result.getJsonObject("params");
+        if (params != null) {
+            res.append(
+                new TreeMap<>(params).entrySet().stream()
+                    .map(
+                        param -> String.format(
+                            "%s=%s", param.getKey(), JmhResults.text(param.getValue())
+                        )
+                    )
+                    .collect(Collectors.joining(", ", " {", "}"))
+            );
+        }
+        return res.append(' ').append(result.getString("mode"))
+            .append(" x").append(result.getInt("threads")).toString();
+    }
+
+    /**
+     * Compared metrics of the result.
+     * @param result JMH result
+     * @return Metrics
+     */
+    private static List<Metric> metrics(final JsonObject result) {
+        final List<Metric> res = new ArrayList<>(3);
+        final String mode = result.getString("mode");
+        final JsonObject primary = result.getJsonObject("primaryMetric");
+        final String unit = primary.getString("scoreUnit");
+        res.add(
+            new Metric(
+                "score", unit, JmhResults.number(primary.get("score")),
+                !"thrpt".equals(mode), 0
+            )
+        );
+        final JsonObject percentiles = primary.getJsonObject("scorePercentiles");
+        if ("sample".equals(mode) && percentiles != null) {
+            res.add(
+                new Metric("p99", unit, JmhResults.number(percentiles.get("99.0")), true, 0)
+            );
+        }
+        final JsonObject secondary = result.getJsonObject("secondaryMetrics");
+        if (secondary != null) {
+            for (final Map.Entry<String, JsonValue> metric : secondary.entrySet()) {
+                if (metric.getKey().endsWith(JmhResults.ALLOC)) {
+                    final JsonObject alloc = metric.getValue().asJsonObject();
+                    res.add(
+                        new Metric(
+                            "alloc", alloc.getString("scoreUnit"),
+                            JmhResults.number(alloc.get("score")), true, JmhResults.ALLOC_NOISE
+                        )
+                    );
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Number value, JMH writes `NaN` as a string.
+     * @param value Json value
+     * @return Number or NaN
+     */
+    private static double number(final JsonValue value) {
+        double res = Double.NaN;
+        if (value != null && value.getValueType() == JsonValue.ValueType.NUMBER) {
+            res = ((JsonNumber) value).doubleValue();
+        }
+        return res;
+    }
+
+    /**
+     * Parameter value as text.
+     * @param value Json value
+     * @return Text
+     */
+    private static String text(final JsonValue value) {
+        String res = value.toString();
+        if (value.getValueType() == JsonValue.ValueType.STRING) {
+            res = ((JsonString) value).getString();
+        }
+        return res;
+    }
+
+    /**
+     * Compared metric of the result.
+     * @since 0.6
+     */
+    public static final class Metric {
+
+        /**
+         * Metric name: `score`, `p99` or `alloc`.
+         */
+        private final String name;
+
+        /**
+         * Unit.
+         */
+        private final String unit;
+
+        /**
+         * Value.
+         */
+        private final double value;
+
+        /**
+         * Whether lower value is better.
+         */
+        private final boolean lower;
+
+        /**
+         * Absolute difference which is not taken into account.
+         */
+        private final double noise;
+
+        /**
+         * Ctor.
+         * @param name Metric name
+         * @param unit Unit
+         * @param value Value
+         * @param lower Whether lower value is better
+         * @param noise Absolute difference which is not taken into account
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Metric(final String name, final String unit, final double value,
+            final boolean lower, final double noise) {
+            this.name = name;
+            this.unit = unit;
+            this.value = value;
+            this.lower = lower;
+            this.noise = noise;
+        }
+
+        /**
+         * Metric name.
+         * @return Name
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * Relative change of this metric against the baseline: positive if the metric
+         * got worse, negative if it got better, zero if the difference is noise.
+         * @param baseline Baseline metric
+         * @return Change, for example `0.15` if the metric is 15% worse
+         */
+        public double worse(final Metric baseline) {
+            double res = 0;
+            final double diff = this.value - baseline.value;
+            if (Math.abs(diff) > this.noise && baseline.value != 0) {
+                res = diff / baseline.value;
+                if (!this.lower) {
+                    res = -res;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Whether metric has the value.
+         * @return True if value is a number
+         */
+        public boolean present() {
+            return !Double.isNaN(this.value);
+        }
+
+        /**
+         * Value with the unit.
+         * @return Formatted value
+         */
+        public String formatted() {
+            return String.format(Locale.US, "%.3f %s", this.value, this.unit);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage which starts every operation after the delay, to simulate network storage
+ * round trip on top of {@link com.artipie.asto.memory.InMemoryStorage}. Operation result is
+ * completed on the timer thread, as it would be completed on the network client thread.
+ * @since 0.6
+ */
+public final class LatencyStorage implements Storage {
+
+    /**
+     * Timer to start delayed operations.
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        runnable -> {
+            final Thread thread = new Thread(runnable, "latency-storage");
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Delay of each operation in nanoseconds.
+     */
+    private final long delay;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param delay Delay of each operation
+     */
+    public LatencyStorage(final Storage origin, final Duration delay) {
+        this(origin, delay.toNanos());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param delay Delay of each operation in nanoseconds
+     */
+    private LatencyStorage(final Storage origin, final long delay) {
+        this.origin = origin;
+        this.delay = delay;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.delayed(() -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.delayed(() -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.delayed(() -> this.origin.save(key, content));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.delayed(() -> this.origin.move(source, destination));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Long> size(final Key key) {
+        return this.delayed(() -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<? extends Meta> metadata(final Key key) {
+        return this.delayed(() -> this.origin.metadata(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.delayed(() -> this.origin.value(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.delayed(() -> this.origin.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(final Key prefix) {
+        return this.delayed(() -> this.origin.deleteAll(prefix));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.origin.exclusively(
+            key, storage -> operation.apply(new LatencyStorage(storage, this.delay))
+        );
+    }
+
+    /**
+     * Starts operation after the delay.
+     * @param action Operation
+     * @param <T> Result type
+     * @return Operation result
+     */
+    private <T> CompletableFuture<T> delayed(final Supplier<CompletableFuture<T>> action) {
+        final CompletableFuture<T> res;
+        if (this.delay == 0) {
+            res = action.get();
+        } else {
+            res = new CompletableFuture<>();
+            LatencyStorage.TIMER.schedule(
+                () -> action.get().whenComplete(
+                    (val, err) -> {
+                        if (err == null) {
+                            res.complete(val);
+                        } else {
+                            res.completeExceptionally(err);
+                        }
+                    }
+                ),
+                this.delay, TimeUnit.NANOSECONDS
+            );
+        }
+        return res;
+    }
+}
@@ -5,21 +5,26 @@
 package com.artipie.conda;
 
 import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.conda.meta.SortedJson;
+import com.fasterxml.jackson.core.JsonFactory;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -30,7 +35,11 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmark for {@link com.artipie.conda.MultiRepodata.Unique}.
+ * Benchmark for {@link MultiRepodata} implementations. Merges `repodata.json` files
+ * found in `BENCH_DIR` directory, or, if `BENCH_DIR` is not set, {@link #inputs} synthetic
+ * files with {@link #entries} packages each, every file shares half of its packages with the
+ * next one. For `sorted` {@link #engine} the files are sorted with {@link SortedJson} on
+ * setup.
  * @since 0.3
  */
 @BenchmarkMode(Mode.AverageTime)
@@ -45,6 +54,28 @@ public class MultiRepodataBench {
      */
     private static final String BENCH_DIR = System.getenv("BENCH_DIR");
 
+    /**
+     * Count of entries in each synthetic repodata, not used when `BENCH_DIR` is set.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    public int entries;
+
+    /**
+     * Count of synthetic repodata files, not used when `BENCH_DIR` is set.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"2", "5"})
+    public int inputs;
+
+    /**
+     * Merge engine: `unique` for {@link MultiRepodata.Unique}, `streaming` or `sorted` for
+     * {@link MultiRepodata.Streaming} of unsorted or sorted inputs.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"unique", "streaming", "sorted"})
+    public String engine;
+
     /**
      * Benchmark data.
      */
@@ -53,22 +84,51 @@ public class MultiRepodataBench {
     @Setup
     public void setup() throws IOException {
         if (MultiRepodataBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+            this.data = IntStream.range(0, this.inputs).mapToObj(
+                idx -> new SyntheticRepodata(idx * this.entries / 2, this.entries, 50).bytes()
+            ).collect(Collectors.toList());
+        } else {
+            try (Stream<Path> files = Files.list(Paths.get(MultiRepodataBench.BENCH_DIR))) {
+                this.data = files.map(new UncheckedIOFunc<>(Files::readAllBytes))
+                    .collect(Collectors.toList());
+            }
         }
-        try (Stream<Path> files = Files.list(Paths.get(MultiRepodataBench.BENCH_DIR))) {
-            this.data = files.map(new UncheckedIOFunc<>(Files::readAllBytes))
+        if ("sorted".equals(this.engine)) {
+            this.data = this.data.stream().map(MultiRepodataBench::sorted)
                 .collect(Collectors.toList());
         }
     }
 
     @Benchmark
     public void run(final Blackhole bhl) {
-        new MultiRepodata.Unique().merge(
+        final MultiRepodata merge;
+        if ("unique".equals(this.engine)) {
+            merge = new MultiRepodata.Unique();
+        } else {
+            merge = new MultiRepodata.Streaming("sorted".equals(this.engine));
+        }
+        merge.merge(
             data.stream().map(ByteArrayInputStream::new).collect(Collectors.toList()),
             new ByteArrayOutputStream()
         );
     }
 
+    /**
+     * Sorts repodata packages by file name.
+     * @param repodata Repodata bytes
+     * @return Sorted repodata bytes
+     */
+    private static byte[] sorted(final byte[] repodata) {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final JsonFactory factory = new JsonFactory();
+        try {
+            new SortedJson(factory.createGenerator(res), factory.createParser(repodata)).sort();
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
     /**
      * Main.
      * @param args CLI args
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rs.RsStatus;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Request to the slice for benchmarks: sends the request, reads the whole response body as
+ * the HTTP server would and waits for the response to complete.
+ * @since 0.6
+ */
+public final class SliceCall {
+
+    /**
+     * Slice.
+     */
+    private final Slice slice;
+
+    /**
+     * Ctor.
+     * @param slice Slice
+     */
+    public SliceCall(final Slice slice) {
+        this.slice = slice;
+    }
+
+    /**
+     * Performs request.
+     * @param line Request line
+     * @param headers Request headers
+     * @param body Request body
+     * @return Response status
+     */
+    public RsStatus status(final RequestLine line, final Headers headers, final byte[] body) {
+        final CompletableFuture<RsStatus> res = new CompletableFuture<>();
+        this.slice.response(line.toString(), headers, new Content.From(body)).send(
+            (status, rsheaders, rsbody) -> new PublisherAs(rsbody).bytes().whenComplete(
+                (bytes, err) -> {
+                    if (err == null) {
+                        res.complete(status);
+                    } else {
+                        res.completeExceptionally(err);
+                    }
+                }
+            ).thenAccept(bytes -> { })
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    res.completeExceptionally(err);
+                }
+            }
+        );
+        return res.join();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.conda.trace.Span;
+import com.artipie.conda.trace.Trace;
+import com.artipie.conda.trace.TraceExporter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Traces exporter which sums up stages durations of all the requests to show where
+ * request time goes, for example
+ * `upload: 120 requests, 5.10ms avg: save=1.20ms, info=0.90ms, merge=2.50ms`.
+ * @since 0.6
+ */
+public final class StagesBreakdown implements TraceExporter {
+
+    /**
+     * Nanoseconds in millisecond.
+     */
+    private static final double MILLI = 1_000_000.0;
+
+    /**
+     * Total duration of each stage in nanoseconds, in order of the first appearance.
+     */
+    private final Map<String, Long> stages;
+
+    /**
+     * Count of requests.
+     */
+    private long count;
+
+    /**
+     * Total duration of requests in nanoseconds.
+     */
+    private long total;
+
+    /**
+     * Request name.
+     */
+    private String name;
+
+    /**
+     * Ctor.
+     */
+    public StagesBreakdown() {
+        this.stages = new LinkedHashMap<>();
+        this.name = "";
+    }
+
+    @Override
+    public synchronized void export(final Trace trace) {
+        this.name = trace.name();
+        this.count = this.count + 1;
+        this.total = this.total + trace.duration();
+        for (final Span span : trace.spans()) {
+            this.stages.merge(span.name(), span.duration(), Long::sum);
+        }
+    }
+
+    /**
+     * Forgets all the requests.
+     */
+    public synchronized void reset() {
+        this.stages.clear();
+        this.count = 0;
+        this.total = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder res = new StringBuilder(128).append(this.name).append(": ")
+            .append(this.count).append(" requests");
+        if (this.count > 0) {
+            res.append(", ").append(this.avg(this.total)).append(" avg:");
+            String sep = " ";
+            for (final Map.Entry<String, Long> stage : this.stages.entrySet()) {
+                res.append(sep).append(stage.getKey()).append('=')
+                    .append(this.avg(stage.getValue()));
+                sep = ", ";
+            }
+        }
+        return res.toString();
+    }
+
+    /**
+     * Average duration per request.
+     * @param nanos Total duration in nanoseconds
+     * @return Formatted average in milliseconds
+     */
+    private String avg(final long nanos) {
+        return String.format(
+            Locale.US, "%.2fms", nanos / StagesBreakdown.MILLI / this.count
+        );
+    }
+}
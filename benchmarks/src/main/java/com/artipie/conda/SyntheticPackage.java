@@ -0,0 +1,317 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import javax.json.Json;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Synthetic conda package for benchmarks: valid `.tar.bz2` or `.conda` archive, format is
+ * chosen by the file name extension. The package contains `info/index.json` built from the
+ * file name and `lib/payload.bin` file of the configured size filled with incompressible
+ * seeded random bytes, so archive size is close to the payload size and the same file name
+ * always gives the same package. `info/` is placed either at the start or at the end of the
+ * archive. The package is generated while it is written, so any size fits the memory.
+ * @since 0.6
+ */
+public final class SyntheticPackage {
+
+    /**
+     * Payload write chunk size.
+     */
+    private static final int CHUNK = 64 * 1024;
+
+    /**
+     * Conda package extension.
+     */
+    private static final String CONDA = ".conda";
+
+    /**
+     * Package build and files modification timestamp, milliseconds.
+     */
+    private static final long TIMESTAMP = 1_600_000_000_000L;
+
+    /**
+     * Package file name, for example `numpy-1.2.3-py38_0.conda`.
+     */
+    private final String filename;
+
+    /**
+     * Payload size in bytes.
+     */
+    private final long size;
+
+    /**
+     * Whether `info/` goes at the start of the archive.
+     */
+    private final boolean first;
+
+    /**
+     * Ctor.
+     * @param filename Package file name, for example `numpy-1.2.3-py38_0.conda`
+     * @param size Payload size in bytes
+     */
+    public SyntheticPackage(final String filename, final long size) {
+        this(filename, size, true);
+    }
+
+    /**
+     * Ctor.
+     * @param filename Package file name, for example `numpy-1.2.3-py38_0.conda`
+     * @param size Payload size in bytes
+     * @param first Whether `info/` goes at the start of the archive
+     */
+    public SyntheticPackage(final String filename, final long size, final boolean first) {
+        this.filename = filename;
+        this.size = size;
+        this.first = first;
+    }
+
+    /**
+     * Package file name.
+     * @return File name
+     */
+    public String filename() {
+        return this.filename;
+    }
+
+    /**
+     * Writes package to the output, the output is not closed.
+     * @param out Where to write
+     * @throws IOException On error
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        if (this.filename.endsWith(SyntheticPackage.CONDA)) {
+            this.conda(out);
+        } else {
+            this.tarBz(out);
+        }
+    }
+
+    /**
+     * Package as bytes.
+     * @return Package bytes
+     */
+    public byte[] bytes() {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try {
+            this.writeTo(res);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Writes `.tar.bz2` package: one tar with `info/` and payload, compressed with bzip2.
+     * @param out Where to write
+     * @throws IOException On error
+     */
+    private void tarBz(final OutputStream out) throws IOException {
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(
+            new BZip2CompressorOutputStream(new Unclosed(out))
+        );
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        if (this.first) {
+            this.info(tar);
+            this.payload(tar);
+        } else {
+            this.payload(tar);
+            this.info(tar);
+        }
+        tar.close();
+    }
+
+    /**
+     * Writes `.conda` package: stored zip with `metadata.json`, `info-*.tar.zst` with `info/`
+     * and `pkg-*.tar.zst` with payload. Stored zip entries need size and crc before the data
+     * when zip is streamed, so each inner archive is generated twice: to measure it and
+     * to write it.
+     * @param out Where to write
+     * @throws IOException On error
+     */
+    private void conda(final OutputStream out) throws IOException {
+        final String base = this.filename.substring(
+            0, this.filename.length() - SyntheticPackage.CONDA.length()
+        );
+        final ZipArchiveOutputStream zip = new ZipArchiveOutputStream(new Unclosed(out));
+        zip.setMethod(ZipArchiveOutputStream.STORED);
+        final byte[] meta = "{\"conda_pkg_format_version\": 2}"
+            .getBytes(StandardCharsets.UTF_8);
+        final CRC32 crc = new CRC32();
+        crc.update(meta);
+        final ZipArchiveEntry entry = new ZipArchiveEntry("metadata.json");
+        entry.setSize(meta.length);
+        entry.setTime(SyntheticPackage.TIMESTAMP);
+        entry.setCrc(crc.getValue());
+        zip.putArchiveEntry(entry);
+        zip.write(meta);
+        zip.closeArchiveEntry();
+        if (this.first) {
+            this.component(zip, String.format("info-%s.tar.zst", base), true);
+            this.component(zip, String.format("pkg-%s.tar.zst", base), false);
+        } else {
+            this.component(zip, String.format("pkg-%s.tar.zst", base), false);
+            this.component(zip, String.format("info-%s.tar.zst", base), true);
+        }
+        zip.close();
+    }
+
+    /**
+     * Writes `.conda` package component: zstd compressed tar.
+     * @param zip Zip to write to
+     * @param name Component name
+     * @param info True for `info/` component, false for payload component
+     * @throws IOException On error
+     */
+    private void component(final ZipArchiveOutputStream zip, final String name,
+        final boolean info) throws IOException {
+        final CountingOutputStream counter = new CountingOutputStream(
+            NullOutputStream.NULL_OUTPUT_STREAM
+        );
+        final CheckedOutputStream checked = new CheckedOutputStream(counter, new CRC32());
+        this.tarZst(checked, info);
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setSize(counter.getByteCount());
+        entry.setTime(SyntheticPackage.TIMESTAMP);
+        entry.setCrc(checked.getChecksum().getValue());
+        zip.putArchiveEntry(entry);
+        this.tarZst(new Unclosed(zip), info);
+        zip.closeArchiveEntry();
+    }
+
+    /**
+     * Writes zstd compressed tar.
+     * @param out Where to write
+     * @param info True to write `info/`, false to write payload
+     * @throws IOException On error
+     */
+    private void tarZst(final OutputStream out, final boolean info) throws IOException {
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(
+            new ZstdCompressorOutputStream(out)
+        );
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        if (info) {
+            this.info(tar);
+        } else {
+            this.payload(tar);
+        }
+        tar.close();
+    }
+
+    /**
+     * Writes `info/index.json` built from the file name.
+     * @param tar Tar to write to
+     * @throws IOException On error
+     */
+    private void info(final TarArchiveOutputStream tar) throws IOException {
+        final String base = this.filename.replaceAll("(\\.tar\\.bz2|\\.conda)$", "");
+        final int last = base.lastIndexOf('-');
+        final int prev = base.lastIndexOf('-', last - 1);
+        final String build = base.substring(last + 1);
+        int number = 0;
+        final String suffix = build.substring(build.lastIndexOf('_') + 1);
+        if (suffix.matches("\\d+")) {
+            number = Integer.parseInt(suffix);
+        }
+        final byte[] index = Json.createObjectBuilder()
+            .add("arch", "x86_64")
+            .add("build", build)
+            .add("build_number", number)
+            .add("depends", Json.createArrayBuilder().add("python >=3.8,<3.9.0a0"))
+            .add("license", "MIT")
+            .add("name", base.substring(0, prev))
+            .add("platform", "linux")
+            .add("subdir", "linux-64")
+            .add("timestamp", SyntheticPackage.TIMESTAMP)
+            .add("version", base.substring(prev + 1, last))
+            .build().toString().getBytes(StandardCharsets.UTF_8);
+        final TarArchiveEntry entry = new TarArchiveEntry("info/index.json");
+        entry.setSize(index.length);
+        entry.setModTime(SyntheticPackage.TIMESTAMP);
+        tar.putArchiveEntry(entry);
+        tar.write(index);
+        tar.closeArchiveEntry();
+    }
+
+    /**
+     * Writes `lib/payload.bin` with random bytes seeded with the file name.
+     * @param tar Tar to write to
+     * @throws IOException On error
+     */
+    private void payload(final TarArchiveOutputStream tar) throws IOException {
+        final TarArchiveEntry entry = new TarArchiveEntry("lib/payload.bin");
+        entry.setSize(this.size);
+        entry.setModTime(SyntheticPackage.TIMESTAMP);
+        tar.putArchiveEntry(entry);
+        final Random rnd = new Random(this.filename.hashCode());
+        final byte[] chunk = new byte[SyntheticPackage.CHUNK];
+        long left = this.size;
+        while (left > 0) {
+            rnd.nextBytes(chunk);
+            final int len = (int) Math.min(left, chunk.length);
+            tar.write(chunk, 0, len);
+            left = left - len;
+        }
+        tar.closeArchiveEntry();
+    }
+
+    /**
+     * Output stream which is not closed with the archive stream wrapping it.
+     * @since 0.6
+     */
+    private static final class Unclosed extends OutputStream {
+
+        /**
+         * Origin stream.
+         */
+        private final OutputStream origin;
+
+        /**
+         * Ctor.
+         * @param origin Origin stream
+         */
+        Unclosed(final OutputStream origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public void write(final int value) throws IOException {
+            this.origin.write(value);
+        }
+
+        @Override
+        public void write(final byte[] buf, final int off, final int len) throws IOException {
+            this.origin.write(buf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.origin.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.origin.flush();
+        }
+    }
+}
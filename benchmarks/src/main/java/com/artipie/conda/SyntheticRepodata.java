@@ -0,0 +1,353 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Synthetic `repodata.json` for benchmarks. Each package entry is generated from its index
+ * only: files generated for overlapping ranges of indexes share the entries of the overlap,
+ * and checksums and file names of any entry are known without parsing the file. Entries
+ * look like real conda channel entries: several versions and python builds of every
+ * package name, from zero to a dozen of dependencies with version constraints, `.tar.bz2`
+ * and `.conda` packages mixed in the configured proportion.
+ * @since 0.6
+ */
+public final class SyntheticRepodata {
+
+    /**
+     * Json factory.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Package names, suffixed with a number to get as many distinct names as needed.
+     */
+    private static final String[] NAMES = {
+        "numpy", "scipy", "pandas", "requests", "six", "attrs", "pyyaml", "jinja2", "click",
+        "urllib3", "idna", "certifi", "setuptools", "wheel", "pip", "cryptography", "cffi",
+        "pycparser", "lxml", "pillow", "matplotlib", "sqlalchemy", "psutil", "tornado", "zeromq",
+        "libxml2", "openblas", "hdf5", "protobuf", "grpcio",
+    };
+
+    /**
+     * Dependencies with version constraints.
+     */
+    private static final String[] DEPENDS = {
+        "_libgcc_mutex 0.1 main", "_openmp_mutex >=4.5", "bzip2 >=1.0.8,<2.0a0",
+        "ca-certificates", "certifi >=2016.9.26", "chardet >=3.0.2,<5", "click >=7.0",
+        "idna >=2.5,<4", "jinja2 >=2.10", "libblas >=3.8.0,<4.0a0", "libffi >=3.3,<3.4.0a0",
+        "libgcc-ng >=7.5.0", "libstdcxx-ng >=7.5.0", "libuuid >=1.0.3,<2.0a0",
+        "mkl >=2021.2.0,<2022.0a0", "ncurses >=6.2,<7.0a0", "numpy >=1.16.6,<2.0a0",
+        "openssl >=1.1.1k,<1.1.2a", "python-dateutil >=2.7.3", "pytz >=2017.3", "pyyaml >=5.1",
+        "readline >=8.0,<9.0a0", "requests >=2.20", "setuptools", "six",
+        "sqlite >=3.35.4,<4.0a0", "tk >=8.6.10,<8.7.0a0", "typing_extensions",
+        "urllib3 >=1.21.1,<1.27", "xz >=5.2.5,<6.0a0", "zlib >=1.2.11,<1.3.0a0",
+    };
+
+    /**
+     * Python versions.
+     */
+    private static final String[] PYTHONS = {"27", "36", "37", "38", "39"};
+
+    /**
+     * Licenses.
+     */
+    private static final String[] LICENSES = {
+        "MIT", "BSD-3-Clause", "Apache-2.0", "GPL-3.0", "LGPL-2.1", "PSF-2.0", "MPL-2.0",
+    };
+
+    /**
+     * Entries per package name: versions and builds of the same package.
+     */
+    private static final int BUILDS = 8;
+
+    /**
+     * Maximum count of dependencies besides python.
+     */
+    private static final int MAX_DEPENDS = 12;
+
+    /**
+     * Timestamp of the oldest entry, milliseconds.
+     */
+    private static final long EPOCH = 1_500_000_000_000L;
+
+    /**
+     * Index of the first entry.
+     */
+    private final int first;
+
+    /**
+     * Count of entries.
+     */
+    private final int entries;
+
+    /**
+     * Percent of `.conda` packages.
+     */
+    private final int conda;
+
+    /**
+     * Ctor.
+     * @param entries Count of entries
+     */
+    public SyntheticRepodata(final int entries) {
+        this(0, entries, 50);
+    }
+
+    /**
+     * Ctor.
+     * @param first Index of the first entry
+     * @param entries Count of entries
+     * @param conda Percent of `.conda` packages, from 0 to 100
+     */
+    public SyntheticRepodata(final int first, final int entries, final int conda) {
+        this.first = first;
+        this.entries = entries;
+        this.conda = conda;
+    }
+
+    /**
+     * Writes repodata to the output, the output is not closed.
+     * @param out Where to write
+     * @throws IOException On error
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        final JsonGenerator gen = SyntheticRepodata.FACTORY.createGenerator(out)
+            .useDefaultPrettyPrinter();
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("info");
+        gen.writeStringField("subdir", "linux-64");
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("packages");
+        this.section(gen, false);
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("packages.conda");
+        this.section(gen, true);
+        gen.writeEndObject();
+        gen.writeArrayFieldStart("removed");
+        gen.writeEndArray();
+        gen.writeNumberField("repodata_version", 1);
+        gen.writeEndObject();
+        gen.flush();
+    }
+
+    /**
+     * Repodata as bytes.
+     * @return Bytes of `repodata.json`
+     */
+    public byte[] bytes() {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try {
+            this.writeTo(res);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * File name of the entry, the entry does not have to be in the range of this repodata.
+     * @param idx Entry index
+     * @return File name, for example `numpy-1.2.3-py38h000001f_0.conda`
+     */
+    public String filename(final int idx) {
+        String ext = ".tar.bz2";
+        if (this.isConda(idx)) {
+            ext = ".conda";
+        }
+        return new Entry(idx).filename(ext);
+    }
+
+    /**
+     * Sha256 checksum of the entry.
+     * @param idx Entry index
+     * @return Checksum hex
+     */
+    public static String sha256(final int idx) {
+        return DigestUtils.sha256Hex(String.valueOf(idx));
+    }
+
+    /**
+     * Md5 checksum of the entry.
+     * @param idx Entry index
+     * @return Checksum hex
+     */
+    public static String md5(final int idx) {
+        return DigestUtils.md5Hex(String.valueOf(idx));
+    }
+
+    /**
+     * Writes entries of one packages section.
+     * @param gen Json generator
+     * @param section True for `packages.conda` section
+     * @throws IOException On error
+     */
+    private void section(final JsonGenerator gen, final boolean section) throws IOException {
+        String ext = ".tar.bz2";
+        if (section) {
+            ext = ".conda";
+        }
+        for (int idx = this.first; idx < this.first + this.entries; idx = idx + 1) {
+            if (this.isConda(idx) == section) {
+                new Entry(idx).write(gen, ext);
+            }
+        }
+    }
+
+    /**
+     * Is the entry `.conda` package?
+     * @param idx Entry index
+     * @return True for `.conda`
+     */
+    private boolean isConda(final int idx) {
+        // @checkstyle MagicNumberCheck (1 line)
+        return Math.floorMod(idx * 0x9E3779B1, 100) < this.conda;
+    }
+
+    /**
+     * Package entry.
+     * @since 0.6
+     */
+    private static final class Entry {
+
+        /**
+         * Entry index.
+         */
+        private final int idx;
+
+        /**
+         * Package name.
+         */
+        private final String name;
+
+        /**
+         * Package version.
+         */
+        private final String version;
+
+        /**
+         * Python version.
+         */
+        private final String python;
+
+        /**
+         * Build number.
+         */
+        private final int number;
+
+        /**
+         * Random generator seeded with the index.
+         */
+        private final Random rnd;
+
+        /**
+         * Ctor.
+         * @param idx Entry index
+         */
+        Entry(final int idx) {
+            this.idx = idx;
+            this.rnd = new Random(idx);
+            final int pkg = idx / SyntheticRepodata.BUILDS;
+            final int suffix = pkg / SyntheticRepodata.NAMES.length;
+            String base = SyntheticRepodata.NAMES[pkg % SyntheticRepodata.NAMES.length];
+            if (suffix > 0) {
+                base = String.format("%s-ext%d", base, suffix);
+            }
+            this.name = base;
+            // @checkstyle MagicNumberCheck (3 lines)
+            this.version = String.format(
+                "%d.%d.%d", this.rnd.nextInt(5), this.rnd.nextInt(30), this.rnd.nextInt(10)
+            );
+            this.python = SyntheticRepodata.PYTHONS[
+                this.rnd.nextInt(SyntheticRepodata.PYTHONS.length)
+            ];
+            this.number = this.rnd.nextInt(3);
+        }
+
+        /**
+         * File name.
+         * @param ext File extension
+         * @return File name
+         */
+        String filename(final String ext) {
+            return String.format("%s-%s-%s%s", this.name, this.version, this.build(), ext);
+        }
+
+        /**
+         * Writes entry.
+         * @param gen Json generator
+         * @param ext File extension
+         * @throws IOException On error
+         */
+        void write(final JsonGenerator gen, final String ext) throws IOException {
+            gen.writeObjectFieldStart(this.filename(ext));
+            gen.writeStringField("build", this.build());
+            gen.writeNumberField("build_number", this.number);
+            gen.writeArrayFieldStart("depends");
+            for (final String dep : this.depends()) {
+                gen.writeString(dep);
+            }
+            gen.writeEndArray();
+            gen.writeStringField(
+                "license",
+                SyntheticRepodata.LICENSES[this.rnd.nextInt(SyntheticRepodata.LICENSES.length)]
+            );
+            gen.writeStringField("md5", SyntheticRepodata.md5(this.idx));
+            gen.writeStringField("name", this.name);
+            gen.writeStringField("sha256", SyntheticRepodata.sha256(this.idx));
+            // @checkstyle MagicNumberCheck (1 line)
+            gen.writeNumberField("size", 10_000 + this.rnd.nextInt(5_000_000));
+            gen.writeStringField("subdir", "linux-64");
+            // @checkstyle MagicNumberCheck (1 line)
+            gen.writeNumberField("timestamp", SyntheticRepodata.EPOCH + this.idx * 60_000L);
+            gen.writeStringField("version", this.version);
+            gen.writeEndObject();
+        }
+
+        /**
+         * Build string, unique for the index.
+         * @return Build
+         */
+        private String build() {
+            return String.format("py%sh%07x_%d", this.python, this.idx, this.number);
+        }
+
+        /**
+         * Dependencies sorted alphabetically, including python and python abi.
+         * @return Dependencies
+         */
+        private Set<String> depends() {
+            final Set<String> res = new TreeSet<>();
+            final int count = this.rnd.nextInt(SyntheticRepodata.MAX_DEPENDS + 1);
+            for (int cnt = 0; cnt < count; cnt = cnt + 1) {
+                res.add(
+                    SyntheticRepodata.DEPENDS[
+                        this.rnd.nextInt(SyntheticRepodata.DEPENDS.length)
+                    ]
+                );
+            }
+            final String major = this.python.substring(0, 1);
+            final String minor = this.python.substring(1);
+            res.add(
+                String.format(
+                    "python >=%s.%s,<%s.%d.0a0",
+                    major, minor, major, Integer.parseInt(minor) + 1
+                )
+            );
+            res.add(String.format("python_abi %s.%s.* *_cp%s", major, minor, this.python));
+            return res;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Synthetic `.tokens.json` for benchmarks in the format of
+ * {@link com.artipie.conda.asto.AstoAuthTokens}. Each token is generated from its index only,
+ * so token string, owner and expiration of any token are known without parsing the file.
+ * Configured percent of the tokens are expired, the others are valid for a year, every user
+ * owns ten tokens.
+ * @since 0.6
+ */
+public final class SyntheticTokens {
+
+    /**
+     * Json factory.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Token length, as generated by {@link com.artipie.conda.asto.AstoAuthTokens}.
+     */
+    private static final int LEN = 30;
+
+    /**
+     * Tokens per user.
+     */
+    private static final int PER_USER = 10;
+
+    /**
+     * Count of tokens.
+     */
+    private final int count;
+
+    /**
+     * Percent of expired tokens.
+     */
+    private final int expired;
+
+    /**
+     * Expiration of valid tokens.
+     */
+    private final Instant valid;
+
+    /**
+     * Ctor.
+     * @param count Count of tokens
+     * @param expired Percent of expired tokens, from 0 to 100
+     */
+    public SyntheticTokens(final int count, final int expired) {
+        this.count = count;
+        this.expired = expired;
+        this.valid = Instant.now().plus(Duration.ofDays(365));
+    }
+
+    /**
+     * Tokens json as bytes.
+     * @return Bytes of `.tokens.json`
+     */
+    public byte[] bytes() {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (JsonGenerator gen = SyntheticTokens.FACTORY.createGenerator(res)) {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("tokens");
+            for (int idx = 0; idx < this.count; idx = idx + 1) {
+                gen.writeObjectFieldStart(SyntheticTokens.token(idx));
+                gen.writeStringField("name", SyntheticTokens.user(idx));
+                gen.writeNumberField("expire", this.expire(idx).toEpochMilli());
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Token string, the token does not have to be in the range of this tokens file.
+     * @param idx Token index
+     * @return Token
+     */
+    public static String token(final int idx) {
+        return DigestUtils.sha256Hex(String.format("token-%d", idx))
+            .substring(0, SyntheticTokens.LEN);
+    }
+
+    /**
+     * Token owner.
+     * @param idx Token index
+     * @return User name
+     */
+    public static String user(final int idx) {
+        return String.format("user%d", idx / SyntheticTokens.PER_USER);
+    }
+
+    /**
+     * Is the token expired?
+     * @param idx Token index
+     * @return True if expired
+     */
+    public boolean isExpired(final int idx) {
+        // @checkstyle MagicNumberCheck (1 line)
+        return Math.floorMod(idx * 0x9E3779B1, 100) < this.expired;
+    }
+
+    /**
+     * Token expiration.
+     * @param idx Token index
+     * @return Expiration instant
+     */
+    private Instant expire(final int idx) {
+        Instant res = this.valid;
+        if (this.isExpired(idx)) {
+            res = Instant.ofEpochMilli(1_500_000_000_000L + idx);
+        }
+        return res;
+    }
+}
@@ -5,39 +5,151 @@
 package com.artipie.conda;
 
 import com.artipie.asto.misc.UncheckedScalar;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.artipie.conda.metrics.Metrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
- * Cached authentication tokens.
+ * Cached authentication tokens. By default, tokens cache is bounded by size and cached token
+ * expires exactly when the token expires. Token read from cache within the refresh-ahead
+ * period before its expiry is reloaded from origin in background once, so that the token
+ * renewed or removed in origin is updated in cache before it expires.
+ * Along with default tokens cache, index of the cached tokens by user name is maintained and
+ * updated on cache evictions, so that tokens are found by user name without cache scan.
+ * Evictions from the caches passed to constructors can not be observed, so tokens are found
+ * by user name with the scan of such caches. Unknown,
+ * expired and removed tokens are remembered for a short time in a bounded negative cache,
+ * so that repeated requests with such tokens do not reach origin. Concurrent cache misses
+ * for the same token share single origin request.
  * @since 0.5
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
+@SuppressWarnings("PMD.TooManyMethods")
 public final class CachedAuthTokens implements AuthTokens {
 
+    /**
+     * Tokens default cache size.
+     */
+    private static final long SIZE = 100_000;
+
+    /**
+     * Default refresh-ahead period.
+     */
+    private static final Duration AHEAD = Duration.ofMinutes(10);
+
+    /**
+     * Unknown tokens default time to live in seconds.
+     */
+    private static final long UNKNOWN_TTL = 30;
+
+    /**
+     * Unknown tokens default cache size.
+     */
+    private static final long UNKNOWN_SIZE = 10_000;
+
     /**
      * Tokens cache.
      */
-    private final Cache<String, TokenItem> cache;
+    private final Store<TokenItem> cache;
+
+    /**
+     * Unknown tokens cache.
+     */
+    private final Store<Boolean> unknown;
+
+    /**
+     * Tokens reloaded within the refresh-ahead period.
+     */
+    private final Cache<String, Boolean> refreshed;
+
+    /**
+     * Cached tokens by user name.
+     */
+    private final Users users;
 
     /**
      * Origin.
      */
     private final AuthTokens origin;
 
+    /**
+     * Refresh-ahead period: cached token is reloaded when read in this period before it
+     * expires.
+     */
+    private final Duration ahead;
+
+    /**
+     * Origin requests in flight by token.
+     */
+    private final SingleFlight<String, Optional<TokenItem>> flight;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param cache Tokens cache
+     * @param unknown Unknown tokens cache
+     * @param origin Origin AuthTokens
+     * @deprecated Use Caffeine caches or {@link #CachedAuthTokens(AuthTokens)}
+     */
+    @Deprecated
+    public CachedAuthTokens(final com.google.common.cache.Cache<String, TokenItem> cache,
+        final com.google.common.cache.Cache<String, Boolean> unknown, final AuthTokens origin) {
+        this(new GuavaStore<>(cache), new GuavaStore<>(unknown), origin);
+    }
+
     /**
      * Ctor.
      * @param cache Tokens cache
      * @param origin Origin AuthTokens
+     * @deprecated Use Caffeine cache or {@link #CachedAuthTokens(AuthTokens)}
+     */
+    @Deprecated
+    public CachedAuthTokens(final com.google.common.cache.Cache<String, TokenItem> cache,
+        final AuthTokens origin) {
+        this(new GuavaStore<>(cache), CachedAuthTokens.unknownCache(), origin);
+    }
+
+    /**
+     * Ctor, tokens are found by user name with the cache scan.
+     * @param cache Tokens cache
+     * @param unknown Unknown tokens cache
+     * @param origin Origin AuthTokens
+     */
+    public CachedAuthTokens(final Cache<String, TokenItem> cache,
+        final Cache<String, Boolean> unknown, final AuthTokens origin) {
+        this(new CaffeineStore<>(cache), new CaffeineStore<>(unknown), origin);
+    }
+
+    /**
+     * Ctor, tokens are found by user name with the cache scan.
+     * @param cache Tokens cache
+     * @param origin Origin AuthTokens
      */
     public CachedAuthTokens(final Cache<String, TokenItem> cache, final AuthTokens origin) {
-        this.cache = cache;
-        this.origin = origin;
+        this(new CaffeineStore<>(cache), CachedAuthTokens.unknownCache(), origin);
     }
 
     /**
@@ -45,25 +157,128 @@ public final class CachedAuthTokens implements AuthTokens {
      * @param origin Origin AuthTokens
      */
     public CachedAuthTokens(final AuthTokens origin) {
+        this(origin, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin AuthTokens
+     * @param metrics Metrics to record cache hits and misses to
+     */
+    public CachedAuthTokens(final AuthTokens origin, final Metrics metrics) {
+        this(origin, CachedAuthTokens.AHEAD, metrics);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin AuthTokens
+     * @param ahead Refresh-ahead period
+     * @param metrics Metrics to record cache hits and misses to
+     */
+    public CachedAuthTokens(final AuthTokens origin, final Duration ahead,
+        final Metrics metrics) {
+        this(new UsersIndex(), origin, ahead, metrics);
+    }
+
+    /**
+     * Ctor.
+     * @param cache Tokens cache
+     * @param unknown Unknown tokens cache
+     * @param origin Origin AuthTokens
+     */
+    private CachedAuthTokens(final Store<TokenItem> cache, final Store<Boolean> unknown,
+        final AuthTokens origin) {
         this(
-            CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).softValues().build(),
-            origin
+            cache, unknown, new CacheScan(cache), origin, CachedAuthTokens.AHEAD, Metrics.NOP
         );
     }
 
+    /**
+     * Ctor.
+     * @param users Cached tokens by user name index
+     * @param origin Origin AuthTokens
+     * @param ahead Refresh-ahead period
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private CachedAuthTokens(final UsersIndex users, final AuthTokens origin,
+        final Duration ahead, final Metrics metrics) {
+        this(
+            new CaffeineStore<>(
+                Caffeine.newBuilder()
+                    .maximumSize(CachedAuthTokens.SIZE)
+                    .recordStats()
+                    .executor(Runnable::run)
+                    .expireAfter(new TokenExpiry())
+                    .removalListener(users)
+                    .build()
+            ),
+            CachedAuthTokens.unknownCache(), users, origin, ahead, metrics
+        );
+    }
+
+    /**
+     * Primary ctor.
+     * @param cache Tokens cache
+     * @param unknown Unknown tokens cache
+     * @param users Cached tokens by user name
+     * @param origin Origin AuthTokens
+     * @param ahead Refresh-ahead period
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CachedAuthTokens(final Store<TokenItem> cache, final Store<Boolean> unknown,
+        final Users users, final AuthTokens origin, final Duration ahead,
+        final Metrics metrics) {
+        this.cache = cache;
+        this.unknown = unknown;
+        this.refreshed = Caffeine.newBuilder()
+            .maximumSize(CachedAuthTokens.SIZE)
+            .expireAfterWrite(ahead)
+            .build();
+        this.users = users;
+        this.origin = origin;
+        this.ahead = ahead;
+        this.flight = new SingleFlight<>();
+        this.metrics = metrics;
+    }
+
     @Override
     public CompletionStage<Optional<TokenItem>> get(final String token) {
-        return this.checkAndCompute(
-            Optional.ofNullable(this.cache.getIfPresent(token)),
-            () -> this.origin.get(token)
-        );
+        CompletionStage<Optional<TokenItem>> res =
+            CompletableFuture.completedFuture(Optional.empty());
+        if (this.unknown.get(token) == null) {
+            final Optional<TokenItem> cached = Optional.ofNullable(this.cache.get(token));
+            if (cached.isPresent()) {
+                this.lookup("hit");
+                this.refreshAhead(cached.get());
+            } else {
+                this.lookup("miss");
+            }
+            res = this.checkAndCompute(
+                cached,
+                () -> this.flight.call(token, () -> this.origin.get(token))
+            ).thenApply(
+                tkn -> {
+                    if (!tkn.isPresent()) {
+                        this.unknown.put(token, true);
+                    }
+                    return tkn;
+                }
+            );
+        } else {
+            this.lookup("negative_hit");
+        }
+        return res;
     }
 
     @Override
     public CompletionStage<Optional<TokenItem>> find(final String username) {
         return this.checkAndCompute(
-            this.cache.asMap().values().stream()
-                .filter(item -> item.userName().equals(username)).findFirst(),
+            this.users.tokens(username).stream()
+                .map(token -> this.cached(username, token))
+                .filter(Objects::nonNull)
+                .max(Comparator.comparing(TokenItem::validUntil)),
             () -> this.origin.find(username)
         );
     }
@@ -72,7 +287,8 @@ public final class CachedAuthTokens implements AuthTokens {
     public CompletionStage<TokenItem> generate(final String name, final Duration ttl) {
         return this.origin.generate(name, ttl).thenApply(
             tkn -> {
-                this.cache.put(tkn.token(), tkn);
+                this.unknown.invalidate(tkn.token());
+                this.put(tkn);
                 return tkn;
             }
         );
@@ -80,10 +296,19 @@ public final class CachedAuthTokens implements AuthTokens {
 
     @Override
     public CompletionStage<Boolean> remove(final String token) {
-        return CompletableFuture.runAsync(() -> this.cache.invalidate(token))
+        return CompletableFuture.runAsync(() -> this.invalidate(token))
             .thenCompose(nothing -> this.origin.remove(token));
     }
 
+    /**
+     * Tokens cache statistics: hit rate, evictions, loads. Statistics are recorded
+     * if the cache was built with stats recording, which is the case for default cache.
+     * @return Cache statistics
+     */
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
     /**
      * Checks if
      *  a) the token from cache is absent, calls provided compute and ads value to cache
@@ -103,7 +328,7 @@ public final class CachedAuthTokens implements AuthTokens {
         if (!item.isPresent()) {
             res = new UncheckedScalar<>(compute::call).value().thenApply(
                 tkn -> {
-                    tkn.ifPresent(present -> this.cache.put(present.token(), present));
+                    tkn.ifPresent(this::put);
                     return tkn;
                 }
             );
@@ -112,4 +337,396 @@ public final class CachedAuthTokens implements AuthTokens {
         }
         return res;
     }
+
+    /**
+     * Reloads cached token from origin in background if it is read within the refresh-ahead
+     * period before its expiry and was not reloaded in this period yet.
+     * @param item Cached token item
+     */
+    private void refreshAhead(final TokenItem item) {
+        if (!item.expired()
+            && item.validUntil().minus(this.ahead).isBefore(Instant.now())
+            && this.refreshed.asMap().putIfAbsent(item.token(), true) == null) {
+            this.flight.call(item.token(), () -> this.origin.get(item.token())).thenAccept(
+                tkn -> {
+                    if (tkn.isPresent()) {
+                        this.put(tkn.get());
+                    } else {
+                        this.invalidate(item.token());
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Counts token lookup in `conda_token_cache_requests_total` counter.
+     * @param result Lookup result: hit, negative hit or miss
+     */
+    private void lookup(final String result) {
+        this.metrics.counter("conda_token_cache_requests_total", "result", result).inc();
+    }
+
+    /**
+     * Obtains token item of the user from cache, drops the token from users if it's
+     * not cached anymore.
+     * @param username User name
+     * @param token Token
+     * @return Token item or null if absent
+     */
+    private TokenItem cached(final String username, final String token) {
+        final TokenItem item = this.cache.get(token);
+        if (item == null) {
+            this.users.remove(username, token);
+        }
+        return item;
+    }
+
+    /**
+     * Adds token item to cache and users.
+     * @param item Token item
+     */
+    private void put(final TokenItem item) {
+        this.cache.put(item.token(), item);
+        this.users.add(item);
+    }
+
+    /**
+     * Removes token from cache and users, marks it as unknown.
+     * @param token Token
+     */
+    private void invalidate(final String token) {
+        final TokenItem item = this.cache.get(token);
+        this.cache.invalidate(token);
+        this.unknown.put(token, true);
+        if (item != null) {
+            this.users.remove(item.userName(), token);
+        }
+    }
+
+    /**
+     * Default unknown tokens cache: short time to live and bounded size.
+     * @return Unknown tokens cache
+     */
+    private static Store<Boolean> unknownCache() {
+        return new CaffeineStore<>(
+            Caffeine.newBuilder()
+                .expireAfterWrite(CachedAuthTokens.UNKNOWN_TTL, TimeUnit.SECONDS)
+                .maximumSize(CachedAuthTokens.UNKNOWN_SIZE)
+                .build()
+        );
+    }
+
+    /**
+     * Cached token expires when the token expires.
+     * @since 0.6
+     * @checkstyle ParameterNumberCheck (30 lines)
+     */
+    static final class TokenExpiry implements Expiry<String, TokenItem> {
+
+        /**
+         * The longest time to keep the token in cache.
+         */
+        private static final Duration LONGEST = Duration.ofDays(30);
+
+        @Override
+        public long expireAfterCreate(final String key, final TokenItem value,
+            final long current) {
+            return TokenExpiry.nanos(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final TokenItem value,
+            final long current, final long duration) {
+            return TokenExpiry.nanos(value);
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final TokenItem value,
+            final long current, final long duration) {
+            return duration;
+        }
+
+        /**
+         * Nanoseconds left until token expiration.
+         * @param item Token item
+         * @return Nanoseconds
+         */
+        private static long nanos(final TokenItem item) {
+            final Instant now = Instant.now();
+            final long res;
+            if (item.validUntil().isAfter(now.plus(TokenExpiry.LONGEST))) {
+                res = TokenExpiry.LONGEST.toNanos();
+            } else if (item.validUntil().isAfter(now)) {
+                res = Duration.between(now, item.validUntil()).toNanos();
+            } else {
+                res = 0;
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Cached tokens by user name.
+     * @since 0.6
+     */
+    private interface Users {
+
+        /**
+         * Adds token.
+         * @param item Token item
+         */
+        void add(TokenItem item);
+
+        /**
+         * Removes token.
+         * @param username User name
+         * @param token Token
+         */
+        void remove(String username, String token);
+
+        /**
+         * Cached tokens of the user.
+         * @param username User name
+         * @return Tokens
+         */
+        Collection<String> tokens(String username);
+    }
+
+    /**
+     * Index of cached tokens by user name, updated on cache entries removal.
+     * @since 0.6
+     */
+    private static final class UsersIndex implements Users, RemovalListener<String, TokenItem> {
+
+        /**
+         * Tokens by user name.
+         */
+        private final ConcurrentMap<String, Set<String>> index;
+
+        /**
+         * Ctor.
+         */
+        UsersIndex() {
+            this.index = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public void onRemoval(final String key, final TokenItem value,
+            final RemovalCause cause) {
+            if (cause != RemovalCause.REPLACED && key != null && value != null) {
+                this.remove(value.userName(), key);
+            }
+        }
+
+        @Override
+        public void add(final TokenItem item) {
+            this.index.compute(
+                item.userName(),
+                (name, tokens) -> {
+                    Set<String> res = tokens;
+                    if (res == null) {
+                        res = ConcurrentHashMap.newKeySet();
+                    }
+                    res.add(item.token());
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public void remove(final String username, final String token) {
+            this.index.computeIfPresent(
+                username,
+                (name, tokens) -> {
+                    tokens.remove(token);
+                    Set<String> res = tokens;
+                    if (tokens.isEmpty()) {
+                        res = null;
+                    }
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public Collection<String> tokens(final String username) {
+            return this.index.getOrDefault(username, Collections.emptySet());
+        }
+    }
+
+    /**
+     * Tokens of the user found with the cache scan, used for the caches whose evictions
+     * can not be observed.
+     * @since 0.6
+     */
+    private static final class CacheScan implements Users {
+
+        /**
+         * Tokens cache.
+         */
+        private final Store<TokenItem> cache;
+
+        /**
+         * Ctor.
+         * @param cache Tokens cache
+         */
+        CacheScan(final Store<TokenItem> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void add(final TokenItem item) {
+            // tokens are read from the cache itself
+        }
+
+        @Override
+        public void remove(final String username, final String token) {
+            // tokens are read from the cache itself
+        }
+
+        @Override
+        public Collection<String> tokens(final String username) {
+            return this.cache.values().stream()
+                .filter(item -> item.userName().equals(username))
+                .map(TokenItem::token)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Cache of the values by token.
+     * @param <V> Value type
+     * @since 0.6
+     */
+    private interface Store<V> {
+
+        /**
+         * Cached value.
+         * @param token Token
+         * @return Value or null if absent
+         */
+        V get(String token);
+
+        /**
+         * Caches value.
+         * @param token Token
+         * @param value Value
+         */
+        void put(String token, V value);
+
+        /**
+         * Removes value.
+         * @param token Token
+         */
+        void invalidate(String token);
+
+        /**
+         * Cached values.
+         * @return Values
+         */
+        Collection<V> values();
+
+        /**
+         * Cache statistics.
+         * @return Statistics
+         */
+        CacheStats stats();
+    }
+
+    /**
+     * Caffeine cache store.
+     * @param <V> Value type
+     * @since 0.6
+     */
+    private static final class CaffeineStore<V> implements Store<V> {
+
+        /**
+         * Caffeine cache.
+         */
+        private final Cache<String, V> cache;
+
+        /**
+         * Ctor.
+         * @param cache Caffeine cache
+         */
+        CaffeineStore(final Cache<String, V> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public V get(final String token) {
+            return this.cache.getIfPresent(token);
+        }
+
+        @Override
+        public void put(final String token, final V value) {
+            this.cache.put(token, value);
+        }
+
+        @Override
+        public void invalidate(final String token) {
+            this.cache.invalidate(token);
+        }
+
+        @Override
+        public Collection<V> values() {
+            return this.cache.asMap().values();
+        }
+
+        @Override
+        public CacheStats stats() {
+            return this.cache.stats();
+        }
+    }
+
+    /**
+     * Guava cache store, kept for deprecated constructors.
+     * @param <V> Value type
+     * @since 0.6
+     */
+    private static final class GuavaStore<V> implements Store<V> {
+
+        /**
+         * Guava cache.
+         */
+        private final com.google.common.cache.Cache<String, V> cache;
+
+        /**
+         * Ctor.
+         * @param cache Guava cache
+         */
+        GuavaStore(final com.google.common.cache.Cache<String, V> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public V get(final String token) {
+            return this.cache.getIfPresent(token);
+        }
+
+        @Override
+        public void put(final String token, final V value) {
+            this.cache.put(token, value);
+        }
+
+        @Override
+        public void invalidate(final String token) {
+            this.cache.invalidate(token);
+        }
+
+        @Override
+        public Collection<V> values() {
+            return this.cache.asMap().values();
+        }
+
+        @Override
+        public CacheStats stats() {
+            final com.google.common.cache.CacheStats stats = this.cache.stats();
+            return CacheStats.of(
+                stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+                stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount(), 0
+            );
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.ArtipieException;
+import com.artipie.http.auth.Authentication;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached authentication. Successfully authenticated users are cached by the salted SHA-256
+ * hash of the credentials, credentials are not kept in memory. Salt is generated randomly for
+ * each instance. Cache is bounded by size and entries expire shortly after they were cached,
+ * so that changed or removed credentials stop working soon. Failed authentications are not
+ * cached. Concurrent requests with the same credentials share single origin call. Keep the
+ * reference to the instance passed to {@link com.artipie.conda.http.CondaSlice} to be able to
+ * invalidate cached users when credentials change.
+ * @since 0.6
+ */
+public final class CachedAuthentication implements Authentication {
+
+    /**
+     * Default cache size.
+     */
+    private static final long SIZE = 10_000;
+
+    /**
+     * Default time to live in seconds.
+     */
+    private static final long TTL = 60;
+
+    /**
+     * Salt length in bytes.
+     */
+    private static final int SALT = 16;
+
+    /**
+     * Random numbers generator.
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Cached users by credentials hash.
+     */
+    private final Cache<String, User> cache;
+
+    /**
+     * Origin authentication.
+     */
+    private final Authentication origin;
+
+    /**
+     * Credentials hash salt.
+     */
+    private final byte[] salt;
+
+    /**
+     * Ctor.
+     * @param origin Origin authentication
+     */
+    public CachedAuthentication(final Authentication origin) {
+        this(
+            Caffeine.newBuilder()
+                .maximumSize(CachedAuthentication.SIZE)
+                .expireAfterWrite(CachedAuthentication.TTL, TimeUnit.SECONDS)
+                .recordStats()
+                .build(),
+            origin
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param cache Cached users by credentials hash
+     * @param origin Origin authentication
+     */
+    public CachedAuthentication(final Cache<String, User> cache, final Authentication origin) {
+        this.cache = cache;
+        this.origin = origin;
+        this.salt = new byte[CachedAuthentication.SALT];
+        CachedAuthentication.RANDOM.nextBytes(this.salt);
+    }
+
+    @Override
+    public Optional<User> user(final String name, final String pass) {
+        return Optional.ofNullable(
+            this.cache.get(
+                this.hash(name, pass), key -> this.origin.user(name, pass).orElse(null)
+            )
+        );
+    }
+
+    /**
+     * Removes cached credentials of the user.
+     * @param name User name
+     */
+    public void invalidate(final String name) {
+        this.cache.asMap().values().removeIf(user -> user.name().equals(name));
+    }
+
+    /**
+     * Removes all cached credentials.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Salted hash of the credentials, user name is prefixed with its length so that
+     * different credentials pairs never produce the same input.
+     * @param name User name
+     * @param pass Password
+     * @return Hash string
+     */
+    private String hash(final String name, final String pass) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] uname = name.getBytes(StandardCharsets.UTF_8);
+            digest.update(this.salt);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(uname.length).array());
+            digest.update(uname);
+            digest.update(pass.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (final NoSuchAlgorithmException err) {
+            throw new ArtipieException(err);
+        }
+    }
+}
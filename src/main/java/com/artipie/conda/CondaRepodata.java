@@ -10,17 +10,20 @@ import com.artipie.asto.misc.UncheckedIOScalar;
 import com.artipie.conda.meta.InfoIndex;
 import com.artipie.conda.meta.JsonMaid;
 import com.artipie.conda.meta.MergedJson;
+import com.artipie.conda.meta.PackageMeta;
+import com.artipie.conda.meta.SpilledEntries;
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import javax.json.Json;
-import javax.json.JsonObject;
 
 /**
  * Conda repository repodata.
@@ -93,14 +96,32 @@ public interface CondaRepodata {
          */
         private final OutputStream out;
 
+        /**
+         * Keep packages sorted by file name.
+         */
+        private final boolean sorted;
+
         /**
          * Ctor.
          * @param input Optional json repodata input stream
          * @param out Json repodata output
          */
         public Append(final Optional<InputStream> input, final OutputStream out) {
+            this(input, out, false);
+        }
+
+        /**
+         * Ctor.
+         * @param input Optional json repodata input stream
+         * @param out Json repodata output
+         * @param sorted Keep packages sorted by file name with {@link MergedJson.Sorted},
+         *  input repodata has to be sorted
+         */
+        public Append(final Optional<InputStream> input, final OutputStream out,
+            final boolean sorted) {
             this.input = input;
             this.out = out;
+            this.sorted = sorted;
         }
 
         /**
@@ -126,33 +147,80 @@ public interface CondaRepodata {
          * @throws ArtipieIOException On IO error
          */
         public void perform(final List<PackageItem> packages) {
-            final Map<String, JsonObject> items = new HashMap<>(packages.size());
+            final Map<String, PackageMeta> items = new HashMap<>(packages.size());
             for (final PackageItem pkg : packages) {
-                final InfoIndex mtd;
-                if (pkg.filename.endsWith(".conda")) {
-                    mtd = new InfoIndex.Conda(pkg.input);
-                } else {
-                    mtd = new InfoIndex.TarBz(pkg.input);
-                }
-                items.put(
-                    pkg.filename,
-                    Json.createObjectBuilder(new UncheckedIOScalar<>(mtd::json).value())
-                        .add("size", pkg.size)
-                        .add("md5", pkg.md5)
-                        .add("sha256", pkg.sha256)
-                        .build()
-                );
+                items.put(pkg.filename, Append.metadata(pkg));
             }
-            final JsonFactory factory = new JsonFactory();
             try {
-                new MergedJson.Jackson(
-                    factory.createGenerator(this.out),
-                    this.input.map(new UncheckedIOFunc<>(factory::createParser))
-                ).merge(items);
+                this.merged().merge(new MergedJson.Packages(items));
             } catch (final IOException err) {
                 throw new ArtipieIOException(err);
             }
         }
+
+        /**
+         * Parses packages one by one and appends metadata to the the provided `packages.json`.
+         * Packages are taken from the iterator only when the previous package is parsed, so
+         * their streams can be opened lazily, each package stream is closed once parsed.
+         * Parsed metadata is kept in memory until it exceeds the memory budget, then it is
+         * spilled to temporary files, see {@link SpilledEntries}, so any count of packages
+         * can be appended with bounded memory.
+         * @param packages Packages to add
+         * @param budget Memory budget: characters of serialized metadata kept in memory
+         * @throws ArtipieIOException On IO error
+         */
+        public void perform(final Iterator<PackageItem> packages, final long budget) {
+            try (SpilledEntries entries = new SpilledEntries(budget)) {
+                while (packages.hasNext()) {
+                    final PackageItem pkg = packages.next();
+                    try {
+                        entries.add(pkg.filename, Append.metadata(pkg));
+                    } finally {
+                        pkg.input.close();
+                    }
+                }
+                this.merged().merge(entries);
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+        }
+
+        /**
+         * Merged json of the input and output repodata.
+         * @return Merged json
+         * @throws IOException On IO error
+         */
+        private MergedJson merged() throws IOException {
+            final JsonFactory factory = new JsonFactory();
+            final JsonGenerator gen = factory.createGenerator(this.out);
+            final Optional<JsonParser> parser =
+                this.input.map(new UncheckedIOFunc<>(factory::createParser));
+            final MergedJson res;
+            if (this.sorted) {
+                res = new MergedJson.Sorted(gen, parser);
+            } else {
+                res = new MergedJson.Jackson(gen, parser);
+            }
+            return res;
+        }
+
+        /**
+         * Reads package metadata and adds size and checksums.
+         * @param pkg Package
+         * @return Package metadata
+         */
+        private static PackageMeta metadata(final PackageItem pkg) {
+            final InfoIndex mtd;
+            if (pkg.filename.endsWith(".conda")) {
+                mtd = new InfoIndex.Conda(pkg.input);
+            } else {
+                mtd = new InfoIndex.TarBz(pkg.input);
+            }
+            return new UncheckedIOScalar<>(mtd::meta).value()
+                .with("size", pkg.size)
+                .with("md5", pkg.md5)
+                .with("sha256", pkg.sha256);
+        }
     }
 
     /**
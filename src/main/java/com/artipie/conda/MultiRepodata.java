@@ -4,22 +4,31 @@
  */
 package com.artipie.conda;
 
+import com.artipie.ArtipieException;
 import com.artipie.asto.ArtipieIOException;
+import com.artipie.conda.meta.UnsortedRepodataException;
+import com.artipie.conda.metrics.FlightEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
@@ -40,127 +49,509 @@ public interface MultiRepodata {
      * Implementation of {@link MultiRepodata} that merges Repodata.json indexes checking for
      * duplicates and writes unique `packages` and `packages.conda` to the output stream.
      * Duplicates are checked by filename, first met package is written into resulting repodata,
-     * other packages with the same filename are skipped.
+     * other packages with the same filename are skipped. Inputs are merged with {@link Streaming}
+     * in unsorted mode, no state is kept between merges.
      * Implementation does not close input or output streams, these operations should be made from
-     * the outside.
+     * the outside. Each merge emits `com.artipie.conda.MultiRepodataMerge` flight recorder event.
      * @since 0.3
      */
     final class Unique implements MultiRepodata {
 
+        /**
+         * Flight recorder event fields.
+         */
+        private static final List<String> FIELDS =
+            Arrays.asList("inputs", "entriesIn", "entriesOut");
+
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.MultiRepodataMerge", "Multiple repodata merge",
+            Collections.emptyList(), Unique.FIELDS
+        );
+
+        @Override
+        public void merge(final Collection<InputStream> inputs, final OutputStream result) {
+            new Streaming(false, Unique.EVENT).merge(inputs, result);
+        }
+
+        /**
+         * Commits flight recorder event of the merge.
+         * @param event Started event
+         * @param inputs Count of the inputs
+         * @param read Count of the read packages
+         * @param written Count of the written packages
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        private static void commit(final FlightEvent.Started event, final int inputs,
+            final long read, final long written) {
+            event.set(Unique.FIELDS.get(0), inputs).set(Unique.FIELDS.get(1), read)
+                .set(Unique.FIELDS.get(2), written).commit();
+        }
+    }
+
+    /**
+     * Implementation of {@link MultiRepodata} that streams unique `packages` and
+     * `packages.conda` straight to the output stream in one pass over the inputs, without any
+     * state kept between merges. All inputs are read at the same time and packages objects are
+     * merged one by one in the order the first input presents them, for example `packages`
+     * objects of the inputs first, then `packages.conda` objects. Only an input, which presents
+     * the objects in different order than the first one, needs its object met before its turn
+     * to be copied to a temporary file: input streams can be read only once. The file is deleted
+     * once the object is read or the merge is over. Duplicates are checked by filename, package
+     * of the first input is written into resulting repodata.
+     * <p>
+     * In sorted mode inputs have to be sorted by file name, as written by
+     * {@link com.artipie.conda.meta.MergedJson.Sorted}: the objects are k-way merged, so the
+     * result is sorted as well, duplicates go one after another and only the current package of
+     * each input is kept in memory. Input which is not sorted fails the merge with
+     * {@link UnsortedRepodataException}. Otherwise inputs are copied one after another and file
+     * names of the already written packages of the current object are kept in memory.
+     * <p>
+     * Implementation does not close input or output streams, these operations should be made
+     * from the outside. Each merge emits `com.artipie.conda.MultiRepodataStreamMerge` flight
+     * recorder event.
+     * @since 0.6
+     */
+    final class Streaming implements MultiRepodata {
+
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.MultiRepodataStreamMerge", "Streaming multiple repodata merge",
+            Collections.emptyList(), Unique.FIELDS
+        );
+
+        /**
+         * Json factory, which does not close streams.
+         */
+        private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
         /**
          * Temp file extension.
          */
         private static final String EXT = "json";
 
+        /**
+         * Repodata.json field name "packages".
+         */
+        private static final String PACKAGES = "packages";
+
         /**
          * Repodata.json field name "packages.conda".
          */
         private static final String FIELD = "packages.conda";
 
         /**
-         * Filenames of the packages.
+         * Merged objects in the usual order of writing.
          */
-        private final Set<String> pckgs = new HashSet<>();
+        private static final List<String> OBJECTS =
+            Arrays.asList(Streaming.PACKAGES, Streaming.FIELD);
+
+        /**
+         * Merged objects in the reversed order.
+         */
+        private static final List<String> REVERSED =
+            Arrays.asList(Streaming.FIELD, Streaming.PACKAGES);
+
+        /**
+         * Are inputs sorted by file name?
+         */
+        private final boolean sorted;
+
+        /**
+         * Flight recorder event.
+         */
+        private final FlightEvent event;
+
+        /**
+         * Ctor.
+         */
+        public Streaming() {
+            this(false);
+        }
+
+        /**
+         * Ctor.
+         * @param sorted Are inputs sorted by file name?
+         */
+        public Streaming(final boolean sorted) {
+            this(sorted, Streaming.EVENT);
+        }
+
+        /**
+         * Ctor.
+         * @param sorted Are inputs sorted by file name?
+         * @param event Flight recorder event of the merge
+         */
+        private Streaming(final boolean sorted, final FlightEvent event) {
+            this.sorted = sorted;
+            this.event = event;
+        }
 
-        // @checkstyle ExecutableStatementCountCheck (30 lines)
         @Override
         public void merge(final Collection<InputStream> inputs, final OutputStream result) {
-            final JsonFactory factory = new JsonFactory();
+            final FlightEvent.Started started = this.event.begin();
+            final List<Source> sources = new ArrayList<>(inputs.size());
+            long written = 0;
             try {
-                final Path ftars = Files.createTempFile("tars", Unique.EXT);
-                final Path fcondas = Files.createTempFile("condas", Unique.EXT);
-                // @checkstyle NestedTryDepthCheck (20 lines)
                 try {
-                    try (
-                        OutputStream otars = new BufferedOutputStream(Files.newOutputStream(ftars));
-                        OutputStream ocondas =
-                            new BufferedOutputStream(Files.newOutputStream(fcondas))
-                    ) {
-                        final JsonGenerator tars = factory.createGenerator(otars);
-                        final JsonGenerator condas = factory.createGenerator(ocondas);
-                        tars.writeStartObject();
-                        condas.writeStartObject();
-                        for (final InputStream item : inputs) {
-                            this.processInput(factory.createParser(item), tars, condas);
-                        }
-                        tars.close();
-                        condas.close();
-                    }
-                    try (
-                        InputStream itars = new BufferedInputStream(Files.newInputStream(ftars));
-                        InputStream icondas = new BufferedInputStream(Files.newInputStream(fcondas))
-                    ) {
-                        final JsonGenerator res = factory.createGenerator(result);
-                        res.writeStartObject();
-                        Unique.writePackages(factory.createParser(itars), res, "packages");
-                        Unique.writePackages(factory.createParser(icondas), res, Unique.FIELD);
-                        res.writeEndObject();
-                        res.close();
+                    for (final InputStream item : inputs) {
+                        final Source source = new Source(
+                            Streaming.FACTORY.createParser(item), sources.size()
+                        );
+                        sources.add(source);
+                        source.start();
                     }
+                    written = this.write(sources, Streaming.FACTORY.createGenerator(result));
                 } finally {
-                    Files.delete(ftars);
-                    Files.delete(fcondas);
+                    for (final Source source : sources) {
+                        source.close();
+                    }
                 }
             } catch (final IOException err) {
                 throw new ArtipieIOException(err);
             }
+            long read = 0;
+            for (final Source source : sources) {
+                read = read + source.read();
+            }
+            Unique.commit(started, inputs.size(), read, written);
         }
 
         /**
-         * Processes input (packages.json) by writing unique packages info into temp
-         * outputs.
-         * @param parser Parser input
-         * @param tars Output for tars packages
-         * @param condas Output for condas packages
+         * Writes merged repodata.
+         * @param sources Inputs
+         * @param gen Json generator
+         * @return Count of the written packages
          * @throws IOException On IO error
          */
-        @SuppressWarnings("PMD.AssignmentInOperand")
-        private void processInput(final JsonParser parser, final JsonGenerator tars,
-            final JsonGenerator condas) throws IOException {
-            JsonToken token;
-            while ((token = parser.nextToken()) != null) {
-                if (token == JsonToken.FIELD_NAME
-                    && !Unique.FIELD.equals(parser.getCurrentName())
-                    && parser.getCurrentName().endsWith(".conda")) {
-                    this.writeItem(parser, condas);
-                } else if (token == JsonToken.FIELD_NAME
-                    && parser.getCurrentName().endsWith(".tar.bz2")) {
-                    this.writeItem(parser, tars);
+        private long write(final List<Source> sources, final JsonGenerator gen)
+            throws IOException {
+            List<String> order = Streaming.OBJECTS;
+            if (!sources.isEmpty()
+                && sources.get(0).pending().filter(Streaming.FIELD::equals).isPresent()) {
+                order = Streaming.REVERSED;
+            }
+            long res = 0;
+            gen.writeStartObject();
+            for (final String name : order) {
+                gen.writeObjectFieldStart(name);
+                if (this.sorted) {
+                    res = res + Streaming.joined(sources, name, gen);
+                } else {
+                    res = res + Streaming.unique(sources, name, gen);
                 }
+                gen.writeEndObject();
             }
+            gen.writeEndObject();
+            gen.close();
+            return res;
         }
 
         /**
-         * Writes package item from parser to the resulting output (JsonGenerator).
-         * @param parser Where to read from
-         * @param generator Where to write
+         * Writes packages of sorted objects with k-way merge.
+         * @param sources Inputs
+         * @param name Object name
+         * @param gen Json generator
+         * @return Count of the written packages
          * @throws IOException On IO error
          */
-        private void writeItem(final JsonParser parser, final JsonGenerator generator)
-            throws IOException {
-            final String name = parser.getCurrentName();
-            parser.nextToken();
-            parser.setCodec(new ObjectMapper());
-            final ObjectNode nodes = parser.<ObjectNode>readValueAsTree();
-            if (this.pckgs.add(name)) {
-                generator.writeFieldName(name);
-                generator.setCodec(new ObjectMapper());
-                generator.writeTree(nodes);
+        private static long joined(final List<Source> sources, final String name,
+            final JsonGenerator gen) throws IOException {
+            final PriorityQueue<Source> queue = new PriorityQueue<>(
+                Math.max(1, sources.size()),
+                Comparator.comparing(Source::filename).thenComparingInt(Source::index)
+            );
+            for (final Source source : sources) {
+                if (source.open(name) && source.next()) {
+                    queue.add(source);
+                }
+            }
+            long res = 0;
+            String last = "";
+            while (!queue.isEmpty()) {
+                final Source source = queue.poll();
+                final String filename = source.filename();
+                if (filename.equals(last)) {
+                    source.skip();
+                } else {
+                    gen.writeFieldName(filename);
+                    source.copy(gen);
+                    last = filename;
+                    res = res + 1;
+                }
+                if (source.next()) {
+                    if (source.filename().compareTo(filename) <= 0) {
+                        throw new UnsortedRepodataException(filename, source.filename());
+                    }
+                    queue.add(source);
+                }
             }
+            return res;
         }
 
         /**
-         * Writes pacckages to the resulting file.
-         * @param parser Parser to write and parse
-         * @param res Where to write the result
-         * @param field Field name
+         * Writes packages of the objects one after another skipping duplicates.
+         * @param sources Inputs
+         * @param name Object name
+         * @param gen Json generator
+         * @return Count of the written packages
          * @throws IOException On IO error
          */
-        private static void writePackages(final JsonParser parser, final JsonGenerator res,
-            final String field) throws IOException {
-            res.writeFieldName(field);
-            while (parser.nextToken() != null) {
-                res.copyCurrentEvent(parser);
+        private static long unique(final List<Source> sources, final String name,
+            final JsonGenerator gen) throws IOException {
+            final Set<String> filenames = new HashSet<>();
+            for (final Source source : sources) {
+                if (source.open(name)) {
+                    while (source.next()) {
+                        if (filenames.add(source.filename())) {
+                            gen.writeFieldName(source.filename());
+                            source.copy(gen);
+                        } else {
+                            source.skip();
+                        }
+                    }
+                }
+            }
+            return filenames.size();
+        }
+
+        /**
+         * Repodata input: reads packages of one object at a time.
+         * @since 0.6
+         */
+        @SuppressWarnings("PMD.TooManyMethods")
+        private static final class Source {
+
+            /**
+             * Repodata parser.
+             */
+            private final JsonParser parser;
+
+            /**
+             * Input index.
+             */
+            private final int idx;
+
+            /**
+             * Temporary files with the objects met before their turn by names.
+             */
+            private final Map<String, Path> later;
+
+            /**
+             * Packages object the parser is positioned at, which is not opened yet.
+             */
+            private Optional<String> ahead;
+
+            /**
+             * Parser of the current object.
+             */
+            private JsonParser current;
+
+            /**
+             * Temporary file of the current object, if it was met before its turn.
+             */
+            private Optional<Path> spilled;
+
+            /**
+             * Current package file name.
+             */
+            private String name;
+
+            /**
+             * Count of the read packages.
+             */
+            private long cnt;
+
+            /**
+             * Ctor.
+             * @param parser Repodata parser
+             * @param idx Input index
+             */
+            Source(final JsonParser parser, final int idx) {
+                this.parser = parser;
+                this.idx = idx;
+                this.later = new HashMap<>(1);
+                this.ahead = Optional.empty();
+                this.current = parser;
+                this.spilled = Optional.empty();
+                this.name = "";
+            }
+
+            /**
+             * Starts reading repodata.
+             * @throws IOException On IO error
+             */
+            void start() throws IOException {
+                if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new ArtipieException("Repodata is not a json object");
+                }
+            }
+
+            /**
+             * Opens the object with given name.
+             * @param object Object name
+             * @return True if the object was found
+             * @throws IOException On IO error
+             */
+            boolean open(final String object) throws IOException {
+                this.release();
+                boolean res = false;
+                if (this.later.containsKey(object)) {
+                    final Path file = this.later.remove(object);
+                    this.spilled = Optional.of(file);
+                    this.current = Streaming.FACTORY.createParser(file.toFile());
+                    this.current.nextToken();
+                    res = true;
+                } else {
+                    Optional<String> field = this.pending();
+                    this.ahead = Optional.empty();
+                    while (!res && field.isPresent()) {
+                        if (field.get().equals(object)) {
+                            this.current = this.parser;
+                            res = true;
+                        } else {
+                            this.later.put(field.get(), this.spill(field.get()));
+                            field = this.found();
+                        }
+                    }
+                }
+                return res;
+            }
+
+            /**
+             * Name of the next packages object of the input, the parser is positioned at the
+             * start of this object until it is opened.
+             * @return Object name, empty if there are no more packages objects
+             * @throws IOException On IO error
+             */
+            Optional<String> pending() throws IOException {
+                if (!this.ahead.isPresent()) {
+                    this.ahead = this.found();
+                }
+                return this.ahead;
+            }
+
+            /**
+             * Moves to the next package of the opened object.
+             * @return True if there is next package
+             * @throws IOException On IO error
+             */
+            boolean next() throws IOException {
+                final boolean res = this.current.nextToken() == JsonToken.FIELD_NAME;
+                if (res) {
+                    this.name = this.current.getCurrentName();
+                    this.current.nextToken();
+                    this.cnt = this.cnt + 1;
+                }
+                return res;
+            }
+
+            /**
+             * Current package file name.
+             * @return File name
+             */
+            String filename() {
+                return this.name;
+            }
+
+            /**
+             * Input index.
+             * @return Index
+             */
+            int index() {
+                return this.idx;
+            }
+
+            /**
+             * Copies current package metadata.
+             * @param gen Json generator
+             * @throws IOException On IO error
+             */
+            void copy(final JsonGenerator gen) throws IOException {
+                gen.copyCurrentStructure(this.current);
+            }
+
+            /**
+             * Skips current package metadata.
+             * @throws IOException On IO error
+             */
+            void skip() throws IOException {
+                this.current.skipChildren();
+            }
+
+            /**
+             * Count of the read packages.
+             * @return Count
+             */
+            long read() {
+                return this.cnt;
+            }
+
+            /**
+             * Closes the parsers and deletes temporary files, input stream is left open.
+             * @throws IOException On IO error
+             */
+            void close() throws IOException {
+                this.release();
+                this.parser.close();
+                for (final Path file : this.later.values()) {
+                    Files.deleteIfExists(file);
+                }
+                this.later.clear();
+            }
+
+            /**
+             * Moves the parser to the start of the next packages object skipping other fields.
+             * @return Object name, empty if there are no more packages objects
+             * @throws IOException On IO error
+             */
+            private Optional<String> found() throws IOException {
+                Optional<String> res = Optional.empty();
+                while (!res.isPresent() && this.parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = this.parser.getCurrentName();
+                    if (this.parser.nextToken() == JsonToken.START_OBJECT
+                        && Streaming.OBJECTS.contains(field)) {
+                        res = Optional.of(field);
+                    } else {
+                        this.parser.skipChildren();
+                    }
+                }
+                return res;
+            }
+
+            /**
+             * Copies current object of the repodata to a temporary file.
+             * @param object Object name
+             * @return Temporary file
+             * @throws IOException On IO error
+             */
+            private Path spill(final String object) throws IOException {
+                final Path res = Files.createTempFile(object, Streaming.EXT);
+                try (JsonGenerator copy = Streaming.FACTORY.createGenerator(
+                    res.toFile(), JsonEncoding.UTF8
+                )) {
+                    copy.copyCurrentStructure(this.parser);
+                }
+                return res;
+            }
+
+            /**
+             * Closes the parser of the object read from temporary file and deletes the file.
+             * @throws IOException On IO error
+             */
+            private void release() throws IOException {
+                if (this.spilled.isPresent()) {
+                    this.current.close();
+                    Files.delete(this.spilled.get());
+                    this.spilled = Optional.empty();
+                    this.current = this.parser;
+                }
             }
         }
     }
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: concurrent calls with the same key share one in-flight operation.
+ * Operation result is not cached, when in-flight operation completes, the next call
+ * starts new operation.
+ * @param <K> Key type
+ * @param <V> Value type
+ * @since 0.6
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Operations in flight.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> flight;
+
+    /**
+     * Ctor.
+     */
+    public SingleFlight() {
+        this.flight = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts operation by key or joins the operation already in flight.
+     * @param key Operation key
+     * @param operation Operation to start
+     * @return Completion of the shared operation
+     */
+    public CompletionStage<V> call(final K key, final Supplier<CompletionStage<V>> operation) {
+        final CompletableFuture<V> fresh = new CompletableFuture<>();
+        final CompletableFuture<V> current = this.flight.putIfAbsent(key, fresh);
+        final CompletableFuture<V> res;
+        if (current == null) {
+            res = fresh;
+            try {
+                operation.get().whenComplete(
+                    (val, err) -> {
+                        this.flight.remove(key, fresh);
+                        if (err == null) {
+                            fresh.complete(val);
+                        } else {
+                            fresh.completeExceptionally(err);
+                        }
+                    }
+                );
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final RuntimeException err) {
+                this.flight.remove(key, fresh);
+                fresh.completeExceptionally(err);
+            }
+        } else {
+            res = current;
+        }
+        return res.thenApply(val -> val);
+    }
+}
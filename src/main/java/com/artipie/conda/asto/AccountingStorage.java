@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import io.reactivex.Flowable;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage which counts and times every operation and counts bytes read by `value` and
+ * written by `save` operations, recording them to {@link StorageAccount}. Bytes are counted
+ * as the content is consumed.
+ * @since 0.6
+ */
+public final class AccountingStorage implements Storage {
+
+    /**
+     * Value operation name.
+     */
+    private static final String VALUE = "value";
+
+    /**
+     * Save operation name.
+     */
+    private static final String SAVE = "save";
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Storage account.
+     */
+    private final StorageAccount account;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param account Account to record operations to
+     */
+    public AccountingStorage(final Storage origin, final StorageAccount account) {
+        this.origin = origin;
+        this.account = account;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.accounted("exists", () -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.accounted("list", () -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.accounted(
+            AccountingStorage.SAVE,
+            () -> this.origin.save(key, this.counted(AccountingStorage.SAVE, content))
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.accounted("move", () -> this.origin.move(source, destination));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Long> size(final Key key) {
+        return this.accounted("size", () -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<? extends Meta> metadata(final Key key) {
+        return this.accounted("metadata", () -> this.origin.metadata(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.accounted(AccountingStorage.VALUE, () -> this.origin.value(key))
+            .thenApply(content -> this.counted(AccountingStorage.VALUE, content));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.accounted("delete", () -> this.origin.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(final Key prefix) {
+        return this.accounted("deleteAll", () -> this.origin.deleteAll(prefix));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.origin.exclusively(
+            key, storage -> operation.apply(new AccountingStorage(storage, this.account))
+        );
+    }
+
+    /**
+     * Performs operation and records it to the account.
+     * @param operation Operation name
+     * @param action Operation
+     * @param <T> Result type
+     * @return Operation result
+     */
+    private <T> CompletableFuture<T> accounted(final String operation,
+        final Supplier<CompletableFuture<T>> action) {
+        final long start = System.nanoTime();
+        return action.get().whenComplete(
+            (res, err) -> this.account.operation(operation, System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Wraps content to count its bytes as they are consumed.
+     * @param operation Operation name
+     * @param content Content
+     * @return Counted content
+     */
+    private Content counted(final String operation, final Content content) {
+        return new Content.From(
+            content.size(),
+            Flowable.fromPublisher(content).doOnNext(
+                buf -> this.account.transferred(operation, buf.remaining())
+            )
+        );
+    }
+}
@@ -12,6 +12,7 @@ import com.artipie.asto.misc.UncheckedIOFunc;
 import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.conda.AuthTokens;
+import com.artipie.conda.metrics.FlightEvent;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
@@ -23,6 +24,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -44,6 +47,7 @@ import org.apache.commons.lang3.RandomStringUtils;
  *     }
  *   }
  * }
+ * Each token lookup emits `com.artipie.conda.TokenLookup` flight recorder event.
  * @since 0.5
  * @checkstyle ConstantUsageCheck (20 lines)
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
@@ -66,6 +70,14 @@ public final class AstoAuthTokens implements AuthTokens {
      */
     private static final int LEN = 30;
 
+    /**
+     * Flight recorder event of the token lookup.
+     */
+    private static final FlightEvent EVENT = new FlightEvent(
+        "com.artipie.conda.TokenLookup", "Auth token lookup",
+        Arrays.asList("by", "result"), Collections.emptyList()
+    );
+
     /**
      * Abstract storage.
      */
@@ -81,12 +93,12 @@ public final class AstoAuthTokens implements AuthTokens {
 
     @Override
     public CompletionStage<Optional<TokenItem>> get(final String token) {
-        return this.checkAndFind(AstoAuthTokens.findByToken(token));
+        return this.checkAndFind("token", AstoAuthTokens.findByToken(token));
     }
 
     @Override
     public CompletionStage<Optional<TokenItem>> find(final String username) {
-        return this.checkAndFind(AstoAuthTokens.findByUsername(username));
+        return this.checkAndFind("username", AstoAuthTokens.findByUsername(username));
     }
 
     @Override
@@ -137,12 +149,14 @@ public final class AstoAuthTokens implements AuthTokens {
 
     /**
      * Checks whether .token.json exists and applies provided functions to find token.
+     * @param by Lookup kind for flight recorder event
      * @param action Function to search for token
      * @return Token if found as completion result
      */
     private CompletionStage<Optional<TokenItem>> checkAndFind(
-        final Function<InputStream, Optional<TokenItem>> action
+        final String by, final Function<InputStream, Optional<TokenItem>> action
     ) {
+        final FlightEvent.Started event = AstoAuthTokens.EVENT.begin();
         return this.asto.exists(AstoAuthTokens.TKNS).thenCompose(
             exists -> {
                 CompletionStage<Optional<TokenItem>> res =
@@ -154,6 +168,16 @@ public final class AstoAuthTokens implements AuthTokens {
                 }
                 return res;
             }
+        ).whenComplete(
+            (item, err) -> {
+                String result = "found";
+                if (err != null) {
+                    result = "failed";
+                } else if (!item.isPresent()) {
+                    result = "not_found";
+                }
+                event.set("by", by).set("result", result).commit();
+            }
         );
     }
 
@@ -10,20 +10,65 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.misc.UncheckedIOFunc;
 import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.conda.meta.MergedJson;
+import com.artipie.conda.meta.SortedJson;
+import com.artipie.conda.meta.UnsortedRepodataException;
+import com.artipie.conda.metrics.Metrics;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import javax.json.JsonObject;
+import org.apache.commons.io.output.CountingOutputStream;
 
 /**
  * Asto merged json adds packages metadata to repodata index, reading and writing to/from
- * abstract storage.
+ * abstract storage. Merge duration in nanoseconds and the size of the written repodata are
+ * recorded to `conda_repodata_merge_duration_nanoseconds` and `conda_repodata_merge_bytes`
+ * histograms, repodata size and packages count are set to `conda_repodata_bytes` and
+ * `conda_repodata_packages` gauges labeled with subdir after each merge. In sorted mode
+ * packages are merge-joined by file name with {@link MergedJson.Sorted}. Existing repodata,
+ * which turns out to be unsorted, is normalised on the first merge: it is sorted with
+ * {@link SortedJson} into a temporary file and merged from it within the same rewrite.
  * @since 0.4
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class AstoMergedJson {
 
+    /**
+     * Repodata size gauge name.
+     */
+    private static final String SIZE = "conda_repodata_bytes";
+
+    /**
+     * Repodata packages count gauge name.
+     */
+    private static final String PACKAGES = "conda_repodata_packages";
+
+    /**
+     * Subdir label name.
+     */
+    private static final String SUBDIR = "subdir";
+
+    /**
+     * Json factory of the temporary sorted repodata.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
     /**
      * Abstract storage.
      */
@@ -34,14 +79,49 @@ public final class AstoMergedJson {
      */
     private final Key key;
 
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Keep packages sorted by file name.
+     */
+    private final boolean sorted;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param key Repodata file key
      */
     public AstoMergedJson(final Storage asto, final Key key) {
+        this(asto, key, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param key Repodata file key
+     * @param metrics Metrics to record merge duration and written bytes to
+     */
+    public AstoMergedJson(final Storage asto, final Key key, final Metrics metrics) {
+        this(asto, key, metrics, false);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param key Repodata file key
+     * @param metrics Metrics to record merge duration and written bytes to
+     * @param sorted Keep packages sorted by file name, see {@link MergedJson.Sorted}
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public AstoMergedJson(final Storage asto, final Key key, final Metrics metrics,
+        final boolean sorted) {
         this.asto = asto;
         this.key = key;
+        this.metrics = metrics;
+        this.sorted = sorted;
     }
 
     /**
@@ -50,18 +130,234 @@ public final class AstoMergedJson {
      * @return Completable operation
      */
     public CompletionStage<Void> merge(final Map<String, JsonObject> items) {
-        return new StorageValuePipeline<>(this.asto, this.key).process(
+        return this.merge(new MergedJson.FromMap(items));
+    }
+
+    /**
+     * Merges or adds provided new packages entries into repodata.json.
+     * @param items Entries to merge
+     * @return Completable operation
+     */
+    public CompletionStage<Void> merge(final MergedJson.Entries items) {
+        final String subdir = this.key.parent().map(Key::string).orElse("");
+        final PackagesCount count = new PackagesCount();
+        return this.metrics.histogram("conda_repodata_merge_duration_nanoseconds").timed(
+            () -> this.written(items, count)
+        ).thenAccept(
+            bytes -> {
+                this.metrics.histogram("conda_repodata_merge_bytes").record(bytes);
+                this.metrics.gauge(AstoMergedJson.SIZE, AstoMergedJson.SUBDIR, subdir)
+                    .set(bytes);
+                this.metrics.gauge(AstoMergedJson.PACKAGES, AstoMergedJson.SUBDIR, subdir)
+                    .set(count.value());
+            }
+        );
+    }
+
+    /**
+     * Sorts packages of existing repodata by file name with {@link SortedJson}. Merges in
+     * sorted mode sort unsorted repodata themselves, this method allows to sort it in advance,
+     * see {@link RepodataMigration}.
+     * @return Completable operation
+     */
+    public CompletionStage<Void> sort() {
+        return this.asto.exists(this.key).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (exists) {
+                    res = this.pipeline(
+                        (gen, prsr) -> new SortedJson(gen, prsr.get()).sort()
+                    ).thenAccept(bytes -> { });
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Writes merged repodata. In sorted mode, if existing repodata turns out to be unsorted,
+     * the failed merge does not change it and repodata is sorted and merged in one more
+     * rewrite.
+     * @param items Entries to merge
+     * @param count Packages count
+     * @return Written repodata size as completion action
+     */
+    private CompletionStage<Long> written(final MergedJson.Entries items,
+        final PackagesCount count) {
+        final CompletionStage<Long> res;
+        if (this.sorted) {
+            res = this.pipeline(
+                (gen, prsr) -> new MergedJson.Sorted(count.wrap(gen), prsr).merge(items)
+            ).handle(
+                (bytes, err) -> {
+                    final CompletionStage<Long> next;
+                    if (err == null) {
+                        next = CompletableFuture.completedFuture(bytes);
+                    } else if (AstoMergedJson.unsorted(err)) {
+                        next = this.pipeline(
+                            (gen, prsr) -> AstoMergedJson.resorted(
+                                count.wrap(gen), prsr.get(), items
+                            )
+                        );
+                    } else {
+                        final CompletableFuture<Long> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(err);
+                        next = failed;
+                    }
+                    return next;
+                }
+            ).thenCompose(Function.identity());
+        } else {
+            res = this.pipeline(
+                (gen, prsr) -> new MergedJson.Jackson(count.wrap(gen), prsr).merge(items)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Rewrites repodata.
+     * @param transform Transformation of existing repodata into the new one
+     * @return Written repodata size as completion action
+     */
+    private CompletionStage<Long> pipeline(final Transform transform) {
+        return new StorageValuePipeline<Long>(this.asto, this.key).processWithResult(
             (opt, out) -> {
+                final CountingOutputStream counting = new CountingOutputStream(out);
                 try {
                     final JsonFactory factory = new JsonFactory();
-                    new MergedJson.Jackson(
-                        factory.createGenerator(out),
+                    transform.apply(
+                        factory.createGenerator(counting),
                         opt.map(new UncheckedIOFunc<>(factory::createParser))
-                    ).merge(items);
+                    );
                 } catch (final IOException err) {
                     throw new ArtipieIOException(err);
                 }
+                return counting.getByteCount();
+            }
+        );
+    }
+
+    /**
+     * Sorts unsorted repodata into a temporary file and merges new entries with it.
+     * @param gen Json generator of the new repodata
+     * @param prsr Json parser of existing repodata
+     * @param items Entries to merge
+     * @throws IOException On IO error
+     */
+    private static void resorted(final JsonGenerator gen, final JsonParser prsr,
+        final MergedJson.Entries items) throws IOException {
+        final Path tmp = Files.createTempFile("repodata", ".json");
+        try {
+            new SortedJson(
+                AstoMergedJson.FACTORY.createGenerator(tmp.toFile(), JsonEncoding.UTF8), prsr
+            ).sort();
+            try (JsonParser sorted = AstoMergedJson.FACTORY.createParser(tmp.toFile())) {
+                new MergedJson.Sorted(gen, Optional.of(sorted)).merge(items);
             }
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    /**
+     * Is the error caused by unsorted repodata?
+     * @param err Error
+     * @return True if repodata is not sorted
+     */
+    private static boolean unsorted(final Throwable err) {
+        boolean res = false;
+        Throwable cause = err;
+        while (cause != null && !res) {
+            res = cause instanceof UnsortedRepodataException;
+            cause = cause.getCause();
+        }
+        return res;
+    }
+
+    /**
+     * Repodata transformation.
+     * @since 0.6
+     */
+    @FunctionalInterface
+    private interface Transform {
+
+        /**
+         * Writes new repodata.
+         * @param gen Json generator of the new repodata
+         * @param parser Json parser of existing repodata, empty if repodata does not exist
+         * @throws IOException On IO error
+         */
+        void apply(JsonGenerator gen, Optional<JsonParser> parser) throws IOException;
+    }
+
+    /**
+     * Counts packages written to repodata: fields of `packages` and `packages.conda` objects.
+     * @since 0.6
+     */
+    private static final class PackagesCount {
+
+        /**
+         * Packages objects names.
+         */
+        private static final Set<String> NAMES = new HashSet<>(
+            Arrays.asList("packages", "packages.conda")
         );
+
+        /**
+         * Packages count.
+         */
+        private final AtomicLong cnt;
+
+        /**
+         * Ctor.
+         */
+        PackagesCount() {
+            this.cnt = new AtomicLong();
+        }
+
+        /**
+         * Wraps generator to count written packages, the count starts from zero.
+         * @param origin Origin generator
+         * @return Counting generator
+         */
+        JsonGenerator wrap(final JsonGenerator origin) {
+            this.cnt.set(0);
+            return new JsonGeneratorDelegate(origin, true) {
+                @Override
+                public void writeFieldName(final String name) throws IOException {
+                    PackagesCount.this.field(this.getOutputContext());
+                    super.writeFieldName(name);
+                }
+
+                @Override
+                public void copyCurrentEvent(final JsonParser parser) throws IOException {
+                    if (parser.currentToken() == JsonToken.FIELD_NAME) {
+                        PackagesCount.this.field(this.getOutputContext());
+                    }
+                    super.copyCurrentEvent(parser);
+                }
+            };
+        }
+
+        /**
+         * Counts the field if it is written right into `packages` or `packages.conda` object.
+         * @param ctx Output context the field is written to
+         */
+        private void field(final JsonStreamContext ctx) {
+            final JsonStreamContext parent = ctx.getParent();
+            if (parent != null && parent.getParent() != null && parent.getParent().inRoot()
+                && PackagesCount.NAMES.contains(parent.getCurrentName())) {
+                this.cnt.incrementAndGet();
+            }
+        }
+
+        /**
+         * Packages count.
+         * @return Count
+         */
+        long value() {
+            return this.cnt.get();
+        }
     }
 }
@@ -6,37 +6,107 @@ package com.artipie.conda.asto;
 
 import com.artipie.asto.ArtipieIOException;
 import com.artipie.asto.Storage;
+import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.conda.AuthTokens;
+import com.artipie.conda.metrics.Metrics;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jcabi.log.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Class to clean expired tokens.
+ * Class to clean expired tokens. Maid keeps expiry-ordered index of the tokens from
+ * {@link AstoAuthTokens#TKNS}, tokens json is rewritten only when the index contains expired
+ * tokens. The index is rebuilt from the tokens json on each rewrite and each time the index
+ * does not contain expired tokens, as tokens generated elsewhere (by other nodes or by
+ * {@link AuthTokens} not wrapped with {@link #tracked(AuthTokens)}) may have expired, so
+ * clean without expired tokens only reads the tokens json. Tokens generated with
+ * {@link #tracked(AuthTokens)} are added to the index right away, tokens removed with it
+ * make the index outdated. Outdated index and index older than the resync period are rebuilt
+ * before the rewrite, so that tokens json is not rewritten for the tokens removed already.
+ * Count of the indexed tokens is set to `conda_tokens` gauge.
  * @since 0.5
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class AuthTokensMaid {
 
+    /**
+     * Tokens count gauge name.
+     */
+    private static final String GAUGE = "conda_tokens";
+
     /**
      * Abstract storage.
      */
     private final Storage asto;
 
+    /**
+     * Tokens index resync period.
+     */
+    private final Duration resync;
+
+    /**
+     * Expiry-ordered tokens index.
+     */
+    private final ExpiryIndex index;
+
+    /**
+     * Last time the index was synced with storage, null if never or if the index is outdated.
+     */
+    private final AtomicReference<Instant> synced;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      */
     public AuthTokensMaid(final Storage asto) {
+        this(asto, Duration.ofHours(1));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param resync Tokens index resync period
+     */
+    public AuthTokensMaid(final Storage asto, final Duration resync) {
+        this(asto, resync, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param resync Tokens index resync period
+     * @param metrics Metrics to set tokens count to
+     */
+    public AuthTokensMaid(final Storage asto, final Duration resync, final Metrics metrics) {
         this.asto = asto;
+        this.metrics = metrics;
+        this.resync = resync;
+        this.index = new ExpiryIndex();
+        this.synced = new AtomicReference<>();
     }
 
     /**
@@ -44,56 +114,236 @@ public final class AuthTokensMaid {
      * @return Completable action
      */
     public CompletionStage<Void> clean() {
+        return this.removeExpired().thenAccept(count -> { });
+    }
+
+    /**
+     * Cleans expired tokens from storage tokens json {@link AstoAuthTokens#TKNS}.
+     * @return Count of removed tokens
+     */
+    public CompletionStage<Integer> removeExpired() {
+        final CompletionStage<Void> sync;
+        final Instant last = this.synced.get();
+        if (this.index.expired(Instant.now()) == 0
+            || last == null || !last.plus(this.resync).isAfter(Instant.now())) {
+            sync = this.sync();
+        } else {
+            sync = CompletableFuture.allOf();
+        }
+        return sync.thenCompose(
+            nothing -> {
+                CompletionStage<Integer> res = CompletableFuture.completedFuture(0);
+                if (this.index.expired(Instant.now()) > 0) {
+                    res = this.rewrite();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Schedules periodical clean on the executor, each next run is delayed by the period plus
+     * random jitter, so that the maids of several nodes do not rewrite tokens simultaneously.
+     * Removed tokens count is logged. Runs stop when the executor is shut down.
+     * @param exec Executor
+     * @param period Clean period
+     * @param jitter Max random delay added to the period
+     */
+    public void schedule(
+        final ScheduledExecutorService exec, final Duration period, final Duration jitter
+    ) {
+        exec.schedule(
+            () -> this.removeExpired().whenComplete(
+                (count, err) -> {
+                    if (err == null) {
+                        if (count > 0) {
+                            Logger.info(this, "Removed %d expired tokens", count);
+                        }
+                    } else {
+                        Logger.warn(this, "Failed to clean expired tokens: %[exception]s", err);
+                    }
+                    if (!exec.isShutdown()) {
+                        this.schedule(exec, period, jitter);
+                    }
+                }
+            ),
+            period.toMillis() + ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Tokens, which add generated tokens to the index of this maid and mark the index outdated
+     * on tokens removal.
+     * @param tokens Tokens stored in {@link AstoAuthTokens#TKNS}
+     * @return Tracked tokens
+     */
+    public AuthTokens tracked(final AuthTokens tokens) {
+        return new Tracked(tokens, this);
+    }
+
+    /**
+     * Reads tokens json into the index.
+     * @return Completable action
+     */
+    private CompletionStage<Void> sync() {
         return this.asto.exists(AstoAuthTokens.TKNS).thenCompose(
             exists -> {
-                CompletionStage<Void> res = CompletableFuture.allOf();
+                CompletionStage<List<AuthTokens.TokenItem>> items =
+                    CompletableFuture.completedFuture(Collections.emptyList());
                 if (exists) {
-                    res = new StorageValuePipeline<>(this.asto, AstoAuthTokens.TKNS).process(
-                        (opt, out) ->
-                            opt.ifPresent(inputStream -> copyValidTokens(inputStream, out))
+                    items = this.asto.value(AstoAuthTokens.TKNS).thenCompose(
+                        val -> new ContentAsStream<List<AuthTokens.TokenItem>>(val)
+                            .process(input -> new TokensJson(input).items())
                     );
                 }
+                return items;
+            }
+        ).thenAccept(this::indexed);
+    }
+
+    /**
+     * Rewrites tokens json without expired tokens.
+     * @return Count of removed tokens
+     */
+    private CompletionStage<Integer> rewrite() {
+        return this.asto.exists(AstoAuthTokens.TKNS).thenCompose(
+            exists -> {
+                CompletionStage<Integer> res = CompletableFuture.completedFuture(0);
+                if (exists) {
+                    final List<AuthTokens.TokenItem> kept = new ArrayList<>(10);
+                    res = new StorageValuePipeline<Integer>(this.asto, AstoAuthTokens.TKNS)
+                        .processWithResult(
+                            (opt, out) -> opt.map(
+                                input -> AuthTokensMaid.copyValidTokens(input, out, kept)
+                            ).orElse(0)
+                        ).thenApply(
+                            removed -> {
+                                this.indexed(kept);
+                                return removed;
+                            }
+                        );
+                }
                 return res;
-            });
+            }
+        );
+    }
+
+    /**
+     * Replaces the index content and updates last sync time.
+     * @param items Tokens
+     */
+    private void indexed(final List<AuthTokens.TokenItem> items) {
+        this.index.replace(items);
+        this.synced.set(Instant.now());
+        this.metrics.gauge(AuthTokensMaid.GAUGE).set(this.index.size());
+    }
+
+    /**
+     * Adds generated token to the index.
+     * @param item Token
+     */
+    private void added(final AuthTokens.TokenItem item) {
+        this.index.add(item);
+        this.metrics.gauge(AuthTokensMaid.GAUGE).set(this.index.size());
+    }
+
+    /**
+     * Marks the index outdated, so it is rebuilt before the next rewrite.
+     */
+    private void outdated() {
+        this.synced.set(null);
     }
 
     /**
      * Copies valid tokens from input to output streams.
      * @param input Input steam to read tokens from
      * @param out Output to write the result
+     * @param kept Collection to add copied tokens to
+     * @return Count of skipped expired tokens
      */
-    @SuppressWarnings("PMD.AssignmentInOperand")
-    private static void copyValidTokens(final InputStream input, final OutputStream out) {
-        final JsonFactory fact = new JsonFactory();
-        try (
-            JsonGenerator gen = fact.createGenerator(out);
-            JsonParser parser = fact.createParser(input)
-        ) {
+    private static int copyValidTokens(final InputStream input, final OutputStream out,
+        final Collection<AuthTokens.TokenItem> kept) {
+        final AtomicInteger removed = new AtomicInteger();
+        try (JsonGenerator gen = new JsonFactory(new ObjectMapper()).createGenerator(out)) {
             gen.writeStartObject();
             gen.writeFieldName(AstoAuthTokens.TOKENS);
             gen.writeStartObject();
-            JsonToken jtoken;
-            while ((jtoken = parser.nextToken()) != null) {
-                if (jtoken == JsonToken.FIELD_NAME
-                    && !parser.getCurrentName().equals(AstoAuthTokens.TOKENS)) {
-                    final String token = parser.getCurrentName();
-                    parser.nextToken();
-                    parser.setCodec(new ObjectMapper());
-                    final ObjectNode node = parser.<ObjectNode>readValueAsTree();
-                    final AuthTokens.TokenItem item = new AuthTokens.TokenItem(
-                        token, node
-                    );
-                    if (!item.expired()) {
-                        gen.writeFieldName(token);
-                        gen.setCodec(new ObjectMapper());
-                        gen.writeTree(node);
+            new TokensJson(input).forEach(
+                (item, json) -> {
+                    if (item.expired()) {
+                        removed.incrementAndGet();
+                    } else {
+                        gen.writeFieldName(item.token());
+                        gen.writeTree(json);
+                        kept.add(item);
                     }
                 }
-            }
+            );
             gen.writeEndObject();
             gen.writeEndObject();
         } catch (final IOException err) {
             throw new ArtipieIOException(err);
         }
+        return removed.get();
+    }
+
+    /**
+     * Tokens, which add generated tokens to the index and mark the index outdated on removal.
+     * @since 0.6
+     */
+    private static final class Tracked implements AuthTokens {
+
+        /**
+         * Origin tokens.
+         */
+        private final AuthTokens origin;
+
+        /**
+         * Maid to track tokens with.
+         */
+        private final AuthTokensMaid maid;
+
+        /**
+         * Ctor.
+         * @param origin Origin tokens
+         * @param maid Maid to track tokens with
+         */
+        Tracked(final AuthTokens origin, final AuthTokensMaid maid) {
+            this.origin = origin;
+            this.maid = maid;
+        }
+
+        @Override
+        public CompletionStage<Optional<TokenItem>> get(final String token) {
+            return this.origin.get(token);
+        }
+
+        @Override
+        public CompletionStage<Optional<TokenItem>> find(final String username) {
+            return this.origin.find(username);
+        }
+
+        @Override
+        public CompletionStage<TokenItem> generate(final String name, final Duration ttl) {
+            return this.origin.generate(name, ttl).thenApply(
+                item -> {
+                    this.maid.added(item);
+                    return item;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Boolean> remove(final String token) {
+            return this.origin.remove(token).thenApply(
+                removed -> {
+                    if (removed) {
+                        this.maid.outdated();
+                    }
+                    return removed;
+                }
+            );
+        }
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Storage;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.conda.AuthTokens;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * Migration of the tokens from legacy {@link AstoAuthTokens} `.tokens.json` file to
+ * {@link ShardedAuthTokens} layout. Valid tokens are copied to the sharded layout, expired
+ * tokens are skipped, legacy file is removed when all the tokens are copied.
+ * @since 0.6
+ */
+public final class AuthTokensMigration {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     */
+    public AuthTokensMigration(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Moves tokens from {@link AstoAuthTokens#TKNS} to sharded layout.
+     * @return Count of the migrated tokens
+     */
+    public CompletionStage<Integer> migrate() {
+        return this.asto.exists(AstoAuthTokens.TKNS).thenCompose(
+            exists -> {
+                CompletionStage<Integer> res = CompletableFuture.completedFuture(0);
+                if (exists) {
+                    final ShardedAuthTokens sharded = new ShardedAuthTokens(this.asto);
+                    res = this.asto.value(AstoAuthTokens.TKNS).thenCompose(
+                        val -> new ContentAsStream<List<AuthTokens.TokenItem>>(val)
+                            .process(AuthTokensMigration::validTokens)
+                    ).thenCompose(
+                        items -> CompletableFuture.allOf(
+                            items.stream().map(sharded::save)
+                                .map(CompletionStage::toCompletableFuture)
+                                .toArray(CompletableFuture[]::new)
+                        ).thenCompose(nothing -> this.asto.delete(AstoAuthTokens.TKNS))
+                            .thenApply(nothing -> items.size())
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Reads valid tokens from legacy tokens json.
+     * @param input Input stream to read tokens from
+     * @return List of valid tokens
+     */
+    private static List<AuthTokens.TokenItem> validTokens(final InputStream input) {
+        return new TokensJson(input).items().stream()
+            .filter(item -> !item.expired())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.conda.AuthTokens;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Expiry-ordered index of the tokens: token counts by expiration date. Allows to find out
+ * how many tokens are expired without reading the tokens from storage.
+ * @since 0.6
+ */
+final class ExpiryIndex {
+
+    /**
+     * Tokens counts by expiration date.
+     */
+    private final NavigableMap<Instant, Integer> wheel;
+
+    /**
+     * Ctor.
+     */
+    ExpiryIndex() {
+        this.wheel = new TreeMap<>();
+    }
+
+    /**
+     * Replaces index content with given tokens.
+     * @param items Tokens
+     */
+    void replace(final Collection<AuthTokens.TokenItem> items) {
+        synchronized (this.wheel) {
+            this.wheel.clear();
+            items.forEach(item -> this.wheel.merge(item.validUntil(), 1, Integer::sum));
+        }
+    }
+
+    /**
+     * Adds token to the index.
+     * @param item Token
+     */
+    void add(final AuthTokens.TokenItem item) {
+        synchronized (this.wheel) {
+            this.wheel.merge(item.validUntil(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Counts tokens expired at given time.
+     * @param now Current time
+     * @return Count of the expired tokens
+     */
+    int expired(final Instant now) {
+        synchronized (this.wheel) {
+            return this.wheel.headMap(now, false).values().stream()
+                .mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * Count of indexed tokens.
+     * @return Tokens count
+     */
+    int size() {
+        synchronized (this.wheel) {
+            return this.wheel.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.conda.metrics.Metrics;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage which records operations durations in nanoseconds to
+ * `conda_storage_op_duration_nanoseconds` histogram labeled with operation name.
+ * @since 0.6
+ */
+public final class MeteredStorage implements Storage {
+
+    /**
+     * Histogram name.
+     */
+    private static final String NAME = "conda_storage_op_duration_nanoseconds";
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param metrics Metrics
+     */
+    public MeteredStorage(final Storage origin, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.timed("exists", () -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.timed("list", () -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.timed("save", () -> this.origin.save(key, content));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.timed("move", () -> this.origin.move(source, destination));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Long> size(final Key key) {
+        return this.timed("size", () -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<? extends Meta> metadata(final Key key) {
+        return this.timed("metadata", () -> this.origin.metadata(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.timed("value", () -> this.origin.value(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.timed("delete", () -> this.origin.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(final Key prefix) {
+        return this.timed("deleteAll", () -> this.origin.deleteAll(prefix));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.origin.exclusively(
+            key, storage -> operation.apply(new MeteredStorage(storage, this.metrics))
+        );
+    }
+
+    /**
+     * Performs operation and records its duration.
+     * @param operation Operation name
+     * @param action Operation
+     * @param <T> Result type
+     * @return Operation result
+     */
+    private <T> CompletableFuture<T> timed(final String operation,
+        final Supplier<CompletableFuture<T>> action) {
+        return this.metrics.histogram(MeteredStorage.NAME, "op", operation)
+            .timed(action::get).toCompletableFuture();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * Migration of the repository to sorted repodata: packages of each `repodata.json` are sorted
+ * by file name, so that uploads can merge them in sorted mode, see
+ * {@link AstoMergedJson#AstoMergedJson(Storage, Key, com.artipie.conda.metrics.Metrics, boolean)}.
+ * Repodata files are sorted one by one. Migration is optional: uploads in sorted mode sort
+ * unsorted repodata on the first merge, migration allows to sort the whole repository in
+ * advance.
+ * @since 0.6
+ */
+public final class RepodataMigration {
+
+    /**
+     * Repodata file name.
+     */
+    private static final String REPODATA = "repodata.json";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     */
+    public RepodataMigration(final Storage asto) {
+        this.asto = asto;
+    }
+
+    /**
+     * Sorts all the repodata files of the repository.
+     * @return Count of the sorted repodata files
+     */
+    public CompletionStage<Integer> migrate() {
+        return this.asto.list(Key.ROOT).thenCompose(
+            keys -> {
+                final List<Key> repodata = keys.stream()
+                    .filter(key -> RepodataMigration.REPODATA.equals(new KeyLastPart(key).get()))
+                    .collect(Collectors.toList());
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                for (final Key key : repodata) {
+                    res = res.thenCompose(nothing -> new AstoMergedJson(this.asto, key).sort());
+                }
+                return res.thenApply(nothing -> repodata.size());
+            }
+        );
+    }
+}
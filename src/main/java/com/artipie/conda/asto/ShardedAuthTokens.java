@@ -0,0 +1,343 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.conda.AuthTokens;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.RandomStringUtils;
+
+/**
+ * Sharded asto implementation of {@link AuthTokens}. Each token is stored in separate
+ * small storage item under `.tokens` key, items are sharded by the first two characters
+ * of the token, for example `.tokens/ab/abc123.json`:
+ * {
+ *   "name": "alice",
+ *   "expire": 1505739175210
+ * }
+ * Tokens are indexed by user name with empty items `.tokens-users/{name}/{token}`, where
+ * name is url-safe base64 encoded. Storage lists keys by prefix, so only the items right
+ * under the user name key are taken when tokens are found by user name. Thus, generate,
+ * remove and get operations touch only the items of one token and concurrent operations do
+ * not overwrite each other.
+ * Expired tokens are not removed on read, call {@link #removeExpired()} periodically to delete
+ * their items and user name index items.
+ * Tokens from legacy `.tokens.json` file of {@link AstoAuthTokens} can be moved to this
+ * layout with {@link AuthTokensMigration}.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class ShardedAuthTokens implements AuthTokens {
+
+    /**
+     * Tokens root key.
+     */
+    static final Key ROOT = new Key.From(".tokens");
+
+    /**
+     * Users index root key.
+     */
+    static final Key USERS = new Key.From(".tokens-users");
+
+    /**
+     * Valid token pattern, other strings are not looked up in storage.
+     */
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9]+");
+
+    /**
+     * Shard length.
+     */
+    private static final int SHARD = 2;
+
+    /**
+     * Token length.
+     */
+    private static final int LEN = 30;
+
+    /**
+     * User name json field.
+     */
+    private static final String NAME = "name";
+
+    /**
+     * Expiration json field.
+     */
+    private static final String EXPIRE = "expire";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     */
+    public ShardedAuthTokens(final Storage asto) {
+        this.asto = asto;
+    }
+
+    @Override
+    public CompletionStage<Optional<TokenItem>> get(final String token) {
+        return this.read(token).thenApply(item -> item.filter(tkn -> !tkn.expired()));
+    }
+
+    @Override
+    public CompletionStage<Optional<TokenItem>> find(final String username) {
+        return ShardedAuthTokens.listed(this.asto, ShardedAuthTokens.userKey(username)).thenCompose(
+            keys -> {
+                final Collection<CompletableFuture<Optional<TokenItem>>> items = keys.stream()
+                    .map(key -> this.get(new KeyLastPart(key).get()).toCompletableFuture())
+                    .collect(Collectors.toList());
+                return CompletableFuture.allOf(items.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(
+                        nothing -> items.stream().map(CompletableFuture::join)
+                            .filter(Optional::isPresent).map(Optional::get)
+                            .max(Comparator.comparing(TokenItem::validUntil))
+                    );
+            }
+        );
+    }
+
+    @Override
+    public CompletionStage<TokenItem> generate(final String name, final Duration ttl) {
+        return CompletableFuture.supplyAsync(
+            () -> RandomStringUtils.random(ShardedAuthTokens.LEN, true, true)
+        ).thenApply(
+            str -> new TokenItem(str, name, Instant.now().plus(ttl))
+        ).thenCompose(
+            token -> this.save(token).thenApply(nothing -> token)
+        );
+    }
+
+    @Override
+    public CompletionStage<Boolean> remove(final String token) {
+        return this.read(token).thenCompose(
+            item -> item.map(
+                tkn -> this.deleteIfExists(ShardedAuthTokens.userKey(tkn.userName(), token))
+                    .thenCompose(nothing -> this.asto.delete(ShardedAuthTokens.key(token)))
+                    .thenApply(nothing -> true)
+            ).orElse(CompletableFuture.completedFuture(false))
+        );
+    }
+
+    /**
+     * Removes expired tokens items and their user name index items, index items of the tokens,
+     * which do not exist anymore, are removed too. All the token items are read one by one.
+     * @return Count of removed expired tokens
+     */
+    public CompletionStage<Integer> removeExpired() {
+        return ShardedAuthTokens.listed(this.asto, ShardedAuthTokens.ROOT).thenCompose(
+            keys -> {
+                CompletionStage<Integer> res = CompletableFuture.completedFuture(0);
+                for (final Key key : keys) {
+                    final String name = new KeyLastPart(key).get();
+                    res = res.thenCompose(
+                        sum -> this.removeIfExpired(name.substring(0, name.lastIndexOf('.')))
+                            .thenApply(removed -> sum + removed)
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(
+            removed -> ShardedAuthTokens.listed(this.asto, ShardedAuthTokens.USERS).thenCompose(
+                keys -> {
+                    CompletionStage<Void> res = CompletableFuture.allOf();
+                    for (final Key key : keys) {
+                        res = res.thenCompose(nothing -> this.removeIfAbsent(key));
+                    }
+                    return res;
+                }
+            ).thenApply(nothing -> removed)
+        );
+    }
+
+    /**
+     * Saves token item and adds it to user name index.
+     * @param item Token item
+     * @return Completable action
+     */
+    CompletionStage<Void> save(final TokenItem item) {
+        final ObjectNode json = new ObjectMapper().createObjectNode();
+        json.put(ShardedAuthTokens.NAME, item.userName());
+        json.put(ShardedAuthTokens.EXPIRE, item.validUntil().toEpochMilli());
+        return this.asto.save(
+            ShardedAuthTokens.key(item.token()),
+            new Content.From(json.toString().getBytes(StandardCharsets.UTF_8))
+        ).thenCompose(
+            nothing -> this.asto.save(
+                ShardedAuthTokens.userKey(item.userName(), item.token()), Content.EMPTY
+            )
+        );
+    }
+
+    /**
+     * Reads token item from storage, expired items are also returned.
+     * @param token Token string
+     * @return Token item if found
+     */
+    private CompletionStage<Optional<TokenItem>> read(final String token) {
+        final CompletionStage<Optional<TokenItem>> res;
+        if (ShardedAuthTokens.VALID.matcher(token).matches()) {
+            final Key key = ShardedAuthTokens.key(token);
+            res = this.asto.exists(key).thenCompose(
+                exists -> {
+                    CompletionStage<Optional<TokenItem>> item =
+                        CompletableFuture.completedFuture(Optional.empty());
+                    if (exists) {
+                        item = this.asto.value(key)
+                            .thenCompose(val -> new PublisherAs(val).bytes())
+                            .thenApply(bytes -> Optional.of(ShardedAuthTokens.item(token, bytes)));
+                    }
+                    return item;
+                }
+            );
+        } else {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return res;
+    }
+
+    /**
+     * Removes token item and its user name index item if token is expired.
+     * @param token Token string
+     * @return Count of removed tokens: 1 if token was expired, 0 otherwise
+     */
+    private CompletionStage<Integer> removeIfExpired(final String token) {
+        return this.read(token).thenCompose(
+            item -> {
+                CompletionStage<Integer> res = CompletableFuture.completedFuture(0);
+                if (item.isPresent() && item.get().expired()) {
+                    res = this.deleteIfExists(
+                        ShardedAuthTokens.userKey(item.get().userName(), token)
+                    ).thenCompose(
+                        nothing -> this.deleteIfExists(ShardedAuthTokens.key(token))
+                    ).thenApply(nothing -> 1);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Removes user name index item if its token item does not exist. Token item is saved
+     * before the index item and removed after it, so the index item of absent token is stale.
+     * @param key User name index item key
+     * @return Completable action
+     */
+    private CompletionStage<Void> removeIfAbsent(final Key key) {
+        return this.asto.exists(ShardedAuthTokens.key(new KeyLastPart(key).get())).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (!exists) {
+                    res = this.deleteIfExists(key);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Deletes item if it exists.
+     * @param key Item key
+     * @return Completable action
+     */
+    private CompletionStage<Void> deleteIfExists(final Key key) {
+        return this.asto.exists(key).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (exists) {
+                    res = this.asto.delete(key);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Lists the items under the root key, storage lists keys by prefix, so the items of other
+     * roots with the same prefix are filtered out.
+     * @param asto Abstract storage
+     * @param root Root key
+     * @return Items keys
+     */
+    private static CompletionStage<List<Key>> listed(final Storage asto, final Key root) {
+        final String prefix = String.format("%s/", root.string());
+        return asto.list(root).thenApply(
+            keys -> keys.stream().filter(key -> key.string().startsWith(prefix))
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Token item storage key.
+     * @param token Token string
+     * @return Key
+     */
+    private static Key key(final String token) {
+        return new Key.From(
+            ShardedAuthTokens.ROOT,
+            token.substring(0, Math.min(ShardedAuthTokens.SHARD, token.length())),
+            String.format("%s.json", token)
+        );
+    }
+
+    /**
+     * User tokens index key.
+     * @param name User name
+     * @return Key
+     */
+    private static Key userKey(final String name) {
+        return new Key.From(
+            ShardedAuthTokens.USERS,
+            Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(name.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    /**
+     * User token index item key.
+     * @param name User name
+     * @param token Token string
+     * @return Key
+     */
+    private static Key userKey(final String name, final String token) {
+        return new Key.From(ShardedAuthTokens.userKey(name), token);
+    }
+
+    /**
+     * Parses token item from bytes.
+     * @param token Token string
+     * @param bytes Token item json bytes
+     * @return Token item
+     */
+    private static TokenItem item(final String token, final byte[] bytes) {
+        try {
+            return new TokenItem(token, (ObjectNode) new ObjectMapper().readTree(bytes));
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+}
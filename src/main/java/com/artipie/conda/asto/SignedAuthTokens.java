@@ -0,0 +1,375 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.conda.AuthTokens;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Stateless signed implementation of {@link AuthTokens}. Token carries user name and
+ * expiration date and is signed with HMAC-SHA256, token format is `{payload}.{signature}`,
+ * where payload is url-safe base64 encoded `{expire millis}:{nonce}:{user name}`. Tokens are
+ * verified on any node sharing the secret without storage lookups. Each removed token is
+ * revoked with separate storage item `.tokens-revoked/{token signature}`, which contains token
+ * expiration date in millis, so concurrent revocations on any nodes never overwrite each other.
+ * Revocation list `.tokens-revoked.json` of the previous versions is read too:
+ * {
+ *   "revoked": {
+ *     "{token signature}": 1505739175210
+ *   }
+ * }
+ * Revocations of expired tokens are dropped from memory and their items are deleted from
+ * storage on sync, so revocation list contains only the tokens revoked before expiration.
+ * Revocation list is loaded from storage before the first token check, call {@link #sync()}
+ * periodically to obtain tokens revoked on other nodes.
+ * As tokens are not stored, tokens can not be found by user name.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+public final class SignedAuthTokens implements AuthTokens {
+
+    /**
+     * Revoked tokens items root key.
+     */
+    static final Key REVOKED = new Key.From(".tokens-revoked");
+
+    /**
+     * Revocation list storage item key of the previous versions.
+     */
+    static final Key LIST = new Key.From(".tokens-revoked.json");
+
+    /**
+     * Revocation list json field name.
+     */
+    private static final String FIELD = "revoked";
+
+    /**
+     * Signature algorithm.
+     */
+    private static final String ALG = "HmacSHA256";
+
+    /**
+     * Nonce length in bytes.
+     */
+    private static final int NONCE = 8;
+
+    /**
+     * Random numbers generator.
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Signature secret.
+     */
+    private final byte[] secret;
+
+    /**
+     * Revoked tokens signatures and expiration dates in millis.
+     */
+    private final ConcurrentMap<String, Long> revoked;
+
+    /**
+     * Revocation list first load.
+     */
+    private final AtomicReference<CompletableFuture<Void>> loaded;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param secret Signature secret, the same on all nodes
+     */
+    public SignedAuthTokens(final Storage asto, final byte[] secret) {
+        this.asto = asto;
+        this.secret = Arrays.copyOf(secret, secret.length);
+        this.revoked = new ConcurrentHashMap<>();
+        this.loaded = new AtomicReference<>();
+    }
+
+    @Override
+    public CompletionStage<Optional<TokenItem>> get(final String token) {
+        final Optional<TokenItem> item = this.verified(token);
+        CompletionStage<Optional<TokenItem>> res =
+            CompletableFuture.completedFuture(Optional.empty());
+        if (item.isPresent() && !item.get().expired()) {
+            res = this.load().thenApply(
+                nothing -> item.filter(
+                    tkn -> !this.revoked.containsKey(SignedAuthTokens.signature(token))
+                )
+            );
+        }
+        return res;
+    }
+
+    @Override
+    public CompletionStage<Optional<TokenItem>> find(final String username) {
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    @Override
+    public CompletionStage<TokenItem> generate(final String name, final Duration ttl) {
+        final byte[] nonce = new byte[SignedAuthTokens.NONCE];
+        SignedAuthTokens.RANDOM.nextBytes(nonce);
+        final Instant expire = Instant.ofEpochMilli(Instant.now().plus(ttl).toEpochMilli());
+        final String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            String.join(
+                ":", String.valueOf(expire.toEpochMilli()),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(nonce), name
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return CompletableFuture.completedFuture(
+            new TokenItem(
+                String.join(
+                    ".", payload,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(this.hmac(payload))
+                ),
+                name, expire
+            )
+        );
+    }
+
+    @Override
+    public CompletionStage<Boolean> remove(final String token) {
+        final Optional<TokenItem> item = this.verified(token);
+        CompletionStage<Boolean> res = CompletableFuture.completedFuture(false);
+        if (item.isPresent()) {
+            final String sign = SignedAuthTokens.signature(token);
+            final long expire = item.get().validUntil().toEpochMilli();
+            this.revoked.put(sign, expire);
+            res = this.asto.save(
+                new Key.From(SignedAuthTokens.REVOKED, sign),
+                new Content.From(String.valueOf(expire).getBytes(StandardCharsets.US_ASCII))
+            ).thenApply(nothing -> true);
+        }
+        return res;
+    }
+
+    /**
+     * Checks token signature only, without expiration and revocation checks.
+     * @param token Token string
+     * @return True if token is signed with the secret
+     */
+    public boolean signed(final String token) {
+        return this.verified(token).isPresent();
+    }
+
+    /**
+     * Loads revocation list from storage and merges it with the known revoked tokens, deletes
+     * revocation items of expired tokens.
+     * @return Completable action
+     */
+    public CompletionStage<Void> sync() {
+        final String prefix = String.format("%s/", SignedAuthTokens.REVOKED.string());
+        return this.legacy().thenCompose(
+            nothing -> this.asto.list(SignedAuthTokens.REVOKED)
+        ).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().filter(key -> key.string().startsWith(prefix))
+                    .map(this::synced).toArray(CompletableFuture<?>[]::new)
+            )
+        ).thenRun(
+            () -> {
+                final long now = Instant.now().toEpochMilli();
+                this.revoked.values().removeIf(expire -> expire < now);
+            }
+        );
+    }
+
+    /**
+     * Loads revocation list once, the load is retried on next call if it failed. Concurrent
+     * callers wait for the same load.
+     * @return Completable action
+     */
+    private CompletionStage<Void> load() {
+        CompletableFuture<Void> res = this.loaded.get();
+        while (res == null) {
+            final CompletableFuture<Void> fresh = new CompletableFuture<>();
+            if (this.loaded.compareAndSet(null, fresh)) {
+                this.sync().whenComplete(
+                    (nothing, err) -> {
+                        if (err == null) {
+                            fresh.complete(null);
+                        } else {
+                            this.loaded.compareAndSet(fresh, null);
+                            fresh.completeExceptionally(err);
+                        }
+                    }
+                );
+                res = fresh;
+            } else {
+                res = this.loaded.get();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Merges revocation list of the previous versions into known revoked tokens.
+     * @return Completable action
+     */
+    private CompletionStage<Void> legacy() {
+        return this.asto.exists(SignedAuthTokens.LIST).thenCompose(
+            exists -> {
+                CompletionStage<Void> res = CompletableFuture.allOf();
+                if (exists) {
+                    res = this.asto.value(SignedAuthTokens.LIST).thenCompose(
+                        val -> new ContentAsStream<Void>(val).process(
+                            input -> {
+                                this.merge(input);
+                                return null;
+                            }
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Merges revoked token item into known revoked tokens or deletes it if token is expired.
+     * Only unknown items are read from storage, deletion errors are ignored as the item can be
+     * deleted by another node at the same time.
+     * @param key Revoked token item key
+     * @return Completable action
+     */
+    private CompletableFuture<Void> synced(final Key key) {
+        final String sign = new KeyLastPart(key).get();
+        final Optional<Long> known = Optional.ofNullable(this.revoked.get(sign));
+        final CompletionStage<Long> expire;
+        if (known.isPresent()) {
+            expire = CompletableFuture.completedFuture(known.get());
+        } else {
+            expire = this.asto.value(key)
+                .thenCompose(val -> new PublisherAs(val).asciiString())
+                .thenApply(Long::parseLong);
+        }
+        return expire.thenCompose(
+            millis -> {
+                final CompletionStage<Void> res;
+                if (millis < Instant.now().toEpochMilli()) {
+                    res = this.asto.delete(key).handle((nothing, err) -> null);
+                } else {
+                    this.revoked.put(sign, millis);
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).toCompletableFuture();
+    }
+
+    /**
+     * Merges revocation list from input into known revoked tokens, drops expired ones.
+     * @param input Revocation list json input
+     */
+    private void merge(final InputStream input) {
+        try {
+            final JsonNode list = new ObjectMapper().readTree(input).path(SignedAuthTokens.FIELD);
+            final Iterator<Map.Entry<String, JsonNode>> fields = list.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> entry = fields.next();
+                this.revoked.putIfAbsent(entry.getKey(), entry.getValue().longValue());
+            }
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+        final long now = Instant.now().toEpochMilli();
+        this.revoked.values().removeIf(expire -> expire < now);
+    }
+
+    /**
+     * Verifies token signature and reads token item from payload.
+     * @param token Token string
+     * @return Token item if signature is valid
+     */
+    private Optional<TokenItem> verified(final String token) {
+        final int dot = token.lastIndexOf('.');
+        Optional<TokenItem> res = Optional.empty();
+        if (dot > 0 && MessageDigest.isEqual(
+            this.hmac(token.substring(0, dot)), SignedAuthTokens.decoded(token.substring(dot + 1))
+        )) {
+            final String[] parts = new String(
+                Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8
+            ).split(":", 3);
+            res = Optional.of(
+                new TokenItem(token, parts[2], Instant.ofEpochMilli(Long.parseLong(parts[0])))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Calculates payload signature.
+     * @param payload Token payload
+     * @return Signature bytes
+     */
+    private byte[] hmac(final String payload) {
+        try {
+            final Mac mac = Mac.getInstance(SignedAuthTokens.ALG);
+            mac.init(new SecretKeySpec(this.secret, SignedAuthTokens.ALG));
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (final GeneralSecurityException err) {
+            throw new ArtipieException(err);
+        }
+    }
+
+    /**
+     * Decodes url-safe base64 string.
+     * @param str String to decode
+     * @return Decoded bytes, empty if the string is not valid base64
+     */
+    private static byte[] decoded(final String str) {
+        byte[] res;
+        try {
+            res = Base64.getUrlDecoder().decode(str);
+        } catch (final IllegalArgumentException err) {
+            res = new byte[0];
+        }
+        return res;
+    }
+
+    /**
+     * Signature part of the token.
+     * @param token Token string
+     * @return Signature
+     */
+    private static String signature(final String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+}
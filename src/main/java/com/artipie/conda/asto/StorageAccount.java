@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.conda.metrics.Metrics;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Account of storage operations, filled by {@link AccountingStorage}.
+ * @since 0.6
+ */
+public interface StorageAccount {
+
+    /**
+     * Records completed storage operation.
+     * @param operation Operation name, for example `value`
+     * @param nanos Operation duration in nanoseconds
+     */
+    void operation(String operation, long nanos);
+
+    /**
+     * Records bytes read or written by storage operation.
+     * @param operation Operation name, `value` or `save`
+     * @param bytes Bytes count
+     */
+    void transferred(String operation, long bytes);
+
+    /**
+     * In-memory account, create one per request to learn storage cost of the request.
+     * @since 0.6
+     */
+    final class InMemory implements StorageAccount {
+
+        /**
+         * Operations counts.
+         */
+        private final ConcurrentMap<String, LongAdder> counts;
+
+        /**
+         * Operations durations in nanoseconds.
+         */
+        private final ConcurrentMap<String, LongAdder> durations;
+
+        /**
+         * Transferred bytes.
+         */
+        private final ConcurrentMap<String, LongAdder> volume;
+
+        /**
+         * Ctor.
+         */
+        public InMemory() {
+            this.counts = new ConcurrentHashMap<>();
+            this.durations = new ConcurrentHashMap<>();
+            this.volume = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public void operation(final String operation, final long nanos) {
+            this.counts.computeIfAbsent(operation, op -> new LongAdder()).increment();
+            this.durations.computeIfAbsent(operation, op -> new LongAdder()).add(nanos);
+        }
+
+        @Override
+        public void transferred(final String operation, final long bytes) {
+            this.volume.computeIfAbsent(operation, op -> new LongAdder()).add(bytes);
+        }
+
+        /**
+         * Count of all operations.
+         * @return Operations count
+         */
+        public long operations() {
+            return InMemory.sum(this.counts);
+        }
+
+        /**
+         * Count of the operations with the name.
+         * @param operation Operation name
+         * @return Operations count
+         */
+        public long operations(final String operation) {
+            return InMemory.get(this.counts, operation);
+        }
+
+        /**
+         * Total duration of the operations with the name.
+         * @param operation Operation name
+         * @return Duration in nanoseconds
+         */
+        public long nanos(final String operation) {
+            return InMemory.get(this.durations, operation);
+        }
+
+        /**
+         * Bytes transferred by all the operations.
+         * @return Bytes count
+         */
+        public long bytes() {
+            return InMemory.sum(this.volume);
+        }
+
+        /**
+         * Bytes transferred by the operations with the name.
+         * @param operation Operation name
+         * @return Bytes count
+         */
+        public long bytes(final String operation) {
+            return InMemory.get(this.volume, operation);
+        }
+
+        @Override
+        public String toString() {
+            final Map<String, Long> ops = new TreeMap<>();
+            this.counts.forEach((name, count) -> ops.put(name, count.sum()));
+            final Map<String, Long> bytes = new TreeMap<>();
+            this.volume.forEach((name, count) -> bytes.put(name, count.sum()));
+            return String.format("operations %s, bytes %s", ops, bytes);
+        }
+
+        /**
+         * Value by name.
+         * @param values Values
+         * @param name Name
+         * @return Value or zero if absent
+         */
+        private static long get(final Map<String, LongAdder> values, final String name) {
+            final LongAdder res = values.get(name);
+            long val = 0;
+            if (res != null) {
+                val = res.sum();
+            }
+            return val;
+        }
+
+        /**
+         * Sum of all the values.
+         * @param values Values
+         * @return Sum
+         */
+        private static long sum(final Map<String, LongAdder> values) {
+            return values.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+
+    /**
+     * Account recording operations to `conda_storage_ops_total` and bytes to
+     * `conda_storage_bytes_total` counters and operations durations in nanoseconds to
+     * `conda_storage_op_duration_nanoseconds` histogram labeled with route and operation name.
+     * @since 0.6
+     */
+    final class Metered implements StorageAccount {
+
+        /**
+         * Route label name.
+         */
+        private static final String ROUTE = "route";
+
+        /**
+         * Operation label name.
+         */
+        private static final String OP = "op";
+
+        /**
+         * Metrics.
+         */
+        private final Metrics metrics;
+
+        /**
+         * Route name.
+         */
+        private final String route;
+
+        /**
+         * Ctor.
+         * @param metrics Metrics
+         * @param route Route name
+         */
+        public Metered(final Metrics metrics, final String route) {
+            this.metrics = metrics;
+            this.route = route;
+        }
+
+        @Override
+        public void operation(final String operation, final long nanos) {
+            this.metrics.counter(
+                "conda_storage_ops_total", Metered.ROUTE, this.route, Metered.OP, operation
+            ).inc();
+            this.metrics.histogram(
+                "conda_storage_op_duration_nanoseconds",
+                Metered.ROUTE, this.route, Metered.OP, operation
+            ).record(nanos);
+        }
+
+        @Override
+        public void transferred(final String operation, final long bytes) {
+            this.metrics.counter(
+                "conda_storage_bytes_total", Metered.ROUTE, this.route, Metered.OP, operation
+            ).add(bytes);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.conda.AuthTokens;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokens json {@link AstoAuthTokens#TKNS} read token by token.
+ * @since 0.6
+ */
+final class TokensJson {
+
+    /**
+     * Json factory.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory(new ObjectMapper());
+
+    /**
+     * Tokens json input.
+     */
+    private final InputStream input;
+
+    /**
+     * Ctor.
+     * @param input Tokens json input
+     */
+    TokensJson(final InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads all the tokens.
+     * @return Tokens, including expired
+     */
+    List<AuthTokens.TokenItem> items() {
+        final List<AuthTokens.TokenItem> res = new ArrayList<>(10);
+        this.forEach((item, json) -> res.add(item));
+        return res;
+    }
+
+    /**
+     * Reads the tokens one by one.
+     * @param action Action to perform with each token and its json
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    void forEach(final Action action) {
+        try (JsonParser parser = TokensJson.FACTORY.createParser(this.input)) {
+            JsonToken jtoken;
+            while ((jtoken = parser.nextToken()) != null) {
+                if (jtoken == JsonToken.FIELD_NAME
+                    && !parser.getCurrentName().equals(AstoAuthTokens.TOKENS)) {
+                    final String token = parser.getCurrentName();
+                    parser.nextToken();
+                    final ObjectNode json = parser.readValueAsTree();
+                    action.accept(new AuthTokens.TokenItem(token, json), json);
+                }
+            }
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Action with token.
+     * @since 0.6
+     */
+    @FunctionalInterface
+    interface Action {
+
+        /**
+         * Performs action.
+         * @param item Token item
+         * @param json Token json
+         * @throws IOException On IO error
+         */
+        void accept(AuthTokens.TokenItem item, ObjectNode json) throws IOException;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.asto.Key;
+import com.artipie.http.rq.RequestLineFrom;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Conda request path, parsed once per request: user token from `/t/{token}/` prefix,
+ * package subdir and file name from the last two path segments. For example, path
+ * `/t/abc123/linux-64/example-0.1-0.tar.bz2` has token `abc123`, subdir `linux-64` and
+ * file name `example-0.1-0.tar.bz2`.
+ * @since 0.6
+ */
+final class CondaPath {
+
+    /**
+     * Token path prefix.
+     */
+    private static final String TOKEN = "/t/";
+
+    /**
+     * Path.
+     */
+    private final String path;
+
+    /**
+     * Token from path prefix.
+     */
+    private final Optional<String> tkn;
+
+    /**
+     * Index of the last `/` in path.
+     */
+    private final int last;
+
+    /**
+     * Index of the `/` before the last one, negative if absent.
+     */
+    private final int prev;
+
+    /**
+     * Ctor.
+     * @param line Request line
+     */
+    CondaPath(final String line) {
+        this(new RequestLineFrom(line).uri());
+    }
+
+    /**
+     * Ctor.
+     * @param uri Request uri
+     */
+    CondaPath(final URI uri) {
+        this(uri.getPath(), CondaPath.token(uri.toString()));
+    }
+
+    /**
+     * Ctor.
+     * @param path Path
+     * @param tkn Token from path prefix
+     */
+    private CondaPath(final String path, final Optional<String> tkn) {
+        this.path = path;
+        this.tkn = tkn;
+        this.last = path.lastIndexOf('/');
+        this.prev = path.lastIndexOf('/', this.last - 1);
+    }
+
+    /**
+     * Request path.
+     * @return Path string
+     */
+    String path() {
+        return this.path;
+    }
+
+    /**
+     * Token from `/t/{token}/` path prefix.
+     * @return Token if path starts with token prefix
+     */
+    Optional<String> token() {
+        return this.tkn;
+    }
+
+    /**
+     * Does path start with token prefix `/t/`?
+     * @return True if yes
+     */
+    boolean tokenized() {
+        return this.path.startsWith(CondaPath.TOKEN);
+    }
+
+    /**
+     * Does path end with conda package extension: `.tar.bz2` or `.conda`?
+     * @return True if yes
+     */
+    boolean pkg() {
+        return this.path.endsWith(".tar.bz2") || this.path.endsWith(".conda");
+    }
+
+    /**
+     * Does path start with any of the prefixes?
+     * @param prefixes Prefixes
+     * @return True if yes
+     */
+    boolean startsWith(final String... prefixes) {
+        return Arrays.stream(prefixes).anyMatch(this.path::startsWith);
+    }
+
+    /**
+     * Does path end with the suffix?
+     * @param suffix Suffix
+     * @return True if yes
+     */
+    boolean endsWith(final String suffix) {
+        return this.path.endsWith(suffix);
+    }
+
+    /**
+     * Does path contain any of the parts?
+     * @param parts Parts
+     * @return True if yes
+     */
+    boolean contains(final String... parts) {
+        return Arrays.stream(parts).anyMatch(this.path::contains);
+    }
+
+    /**
+     * Subdir, the segment before the last one.
+     * @return Subdir if path has at least two segments
+     */
+    Optional<String> subdir() {
+        Optional<String> res = Optional.empty();
+        if (this.prev >= 0) {
+            res = Optional.of(this.path.substring(this.prev + 1, this.last));
+        }
+        return res;
+    }
+
+    /**
+     * File name, the last path segment.
+     * @return File name if path has at least two segments
+     */
+    Optional<String> filename() {
+        Optional<String> res = Optional.empty();
+        if (this.prev >= 0) {
+            res = Optional.of(this.path.substring(this.last + 1));
+        }
+        return res;
+    }
+
+    /**
+     * Storage key of the file: `{subdir}/{file name}`.
+     * @return Key if path has at least two segments
+     */
+    Optional<Key> key() {
+        Optional<Key> res = Optional.empty();
+        if (this.prev >= 0) {
+            res = Optional.of(new Key.From(this.path.substring(this.prev + 1)));
+        }
+        return res;
+    }
+
+    /**
+     * Reads token from `/t/{token}/...` uri.
+     * @param uri Uri string
+     * @return Token if present
+     */
+    private static Optional<String> token(final String uri) {
+        Optional<String> res = Optional.empty();
+        if (uri.startsWith(CondaPath.TOKEN)) {
+            final int end = uri.indexOf('/', CondaPath.TOKEN.length());
+            if (end >= 0) {
+                res = Optional.of(uri.substring(CondaPath.TOKEN.length(), end));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.SliceSimple;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+
+/**
+ * Conda requests router. Routes are grouped by request method once on creation, request path
+ * is parsed once into {@link CondaPath}, checked with the routes of request method in the order
+ * they were added and handed to the target of the first matching route. Requests without
+ * matching route are answered with `404`. Each request is metered with {@link MeteredSlice}
+ * under the name of its route.
+ * @since 0.6
+ */
+final class CondaRouter implements Slice {
+
+    /**
+     * Not found slice.
+     */
+    private static final Slice NOT_FOUND = new SliceSimple(StandardRs.NOT_FOUND);
+
+    /**
+     * Routes by request method.
+     */
+    private final Map<RqMethod, List<Route>> routes;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param routes Routes
+     */
+    CondaRouter(final Route... routes) {
+        this(Metrics.NOP, routes);
+    }
+
+    /**
+     * Ctor.
+     * @param metrics Metrics
+     * @param routes Routes
+     */
+    CondaRouter(final Metrics metrics, final Route... routes) {
+        this.metrics = metrics;
+        this.routes = new EnumMap<>(RqMethod.class);
+        for (final Route route : routes) {
+            this.routes.computeIfAbsent(route.method, method -> new ArrayList<>(routes.length))
+                .add(route);
+        }
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final RequestLineFrom rqline = new RequestLineFrom(line);
+        final CondaPath path = new CondaPath(rqline.uri());
+        return this.routes.getOrDefault(rqline.method(), Collections.emptyList()).stream()
+            .filter(route -> route.rule.test(path))
+            .findFirst()
+            .map(route -> new MeteredSlice(route.target.apply(path), this.metrics, route.name))
+            .orElseGet(() -> new MeteredSlice(CondaRouter.NOT_FOUND, this.metrics, "not_found"))
+            .response(line, headers, body);
+    }
+
+    /**
+     * Route: name, request method, path rule and target slice created for the parsed path.
+     * @since 0.6
+     */
+    static final class Route {
+
+        /**
+         * Route name.
+         */
+        private final String name;
+
+        /**
+         * Request method.
+         */
+        private final RqMethod method;
+
+        /**
+         * Path rule.
+         */
+        private final Predicate<CondaPath> rule;
+
+        /**
+         * Target slice for the parsed path.
+         */
+        private final Function<CondaPath, Slice> target;
+
+        /**
+         * Ctor.
+         * @param name Route name
+         * @param method Request method
+         * @param rule Path rule
+         * @param target Target slice for the parsed path
+         */
+        Route(final String name, final RqMethod method, final Predicate<CondaPath> rule,
+            final Function<CondaPath, Slice> target) {
+            this.name = name;
+            this.method = method;
+            this.rule = rule;
+            this.target = target;
+        }
+    }
+}
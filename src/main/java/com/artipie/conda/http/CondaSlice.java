@@ -4,14 +4,20 @@
  */
 package com.artipie.conda.http;
 
-import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.conda.AuthTokens;
 import com.artipie.conda.CachedAuthTokens;
+import com.artipie.conda.asto.AccountingStorage;
 import com.artipie.conda.asto.AstoAuthTokens;
+import com.artipie.conda.asto.SignedAuthTokens;
+import com.artipie.conda.asto.StorageAccount;
 import com.artipie.conda.http.auth.TokenAuth;
 import com.artipie.conda.http.auth.TokenAuthScheme;
 import com.artipie.conda.http.auth.TokenAuthSlice;
+import com.artipie.conda.metrics.InMemoryMetrics;
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.conda.trace.SlowTraceLog;
+import com.artipie.conda.trace.TraceExporter;
 import com.artipie.http.Slice;
 import com.artipie.http.auth.Action;
 import com.artipie.http.auth.Authentication;
@@ -20,17 +26,11 @@ import com.artipie.http.auth.Permission;
 import com.artipie.http.auth.Permissions;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.StandardRs;
-import com.artipie.http.rt.ByMethodsRule;
-import com.artipie.http.rt.RtRule;
-import com.artipie.http.rt.RtRulePath;
-import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.KeyFromPath;
 import com.artipie.http.slice.SliceDownload;
 import com.artipie.http.slice.SliceSimple;
 import java.time.Duration;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Predicate;
 
 /**
  * Main conda entry point.
@@ -42,9 +42,24 @@ import java.util.regex.Pattern;
 public final class CondaSlice extends Slice.Wrap {
 
     /**
-     * Transform pattern for download slice.
+     * Repodata file name suffix.
      */
-    private static final Pattern PTRN = Pattern.compile(".*/(.*/.*(\\.tar\\.bz2|\\.conda))$");
+    private static final String REPODATA = "repodata.json";
+
+    /**
+     * Package path part.
+     */
+    private static final String PACKAGE = "package";
+
+    /**
+     * Release path part.
+     */
+    private static final String RELEASE = "release";
+
+    /**
+     * Authentications path suffix.
+     */
+    private static final String AUTHS = "authentications";
 
     /**
      * Ctor.
@@ -82,148 +97,308 @@ public final class CondaSlice extends Slice.Wrap {
      * @param storage Storage
      * @param perms Permissions
      * @param users Users
+     * @param tokens Tokens, for example {@link CachedAuthTokens} over
+     *  {@link com.artipie.conda.asto.ShardedAuthTokens}
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final AuthTokens tokens, final String url, final Duration ttl) {
+        this(storage, perms, users, tokens, url, ttl, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param tokens Tokens
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @param metrics Metrics to record routes and storage operations to
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final AuthTokens tokens, final String url, final Duration ttl, final Metrics metrics) {
+        this(
+            storage, perms, users, tokens, token -> true, url, ttl, metrics,
+            new SliceSimple(StandardRs.NOT_FOUND), new SlowTraceLog(UpdateSlice.SLOW), false
+        );
+    }
+
+    /**
+     * Ctor with upload traces exporter.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param tokens Tokens
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @param metrics Metrics to record routes and storage operations to
+     * @param traces Upload traces exporter
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final AuthTokens tokens, final String url, final Duration ttl, final Metrics metrics,
+        final TraceExporter traces) {
+        this(storage, perms, users, tokens, url, ttl, metrics, traces, false);
+    }
+
+    /**
+     * Ctor with upload traces exporter and sorted repodata.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param tokens Tokens
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @param metrics Metrics to record routes and storage operations to
+     * @param traces Upload traces exporter
+     * @param sorted Keep repodata packages sorted by file name on upload, unsorted repodata
+     *  is sorted on the first upload or in advance with
+     *  {@link com.artipie.conda.asto.RepodataMigration}
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final AuthTokens tokens, final String url, final Duration ttl, final Metrics metrics,
+        final TraceExporter traces, final boolean sorted) {
+        this(
+            storage, perms, users, tokens, token -> true, url, ttl, metrics,
+            new SliceSimple(StandardRs.NOT_FOUND), traces, sorted
+        );
+    }
+
+    /**
+     * Ctor with in-memory metrics, which are available in Prometheus text format by
+     * `GET /.metrics` request of the user with read permission, authenticated with basic auth.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
      * @param tokens Tokens
      * @param url Application url
      * @param ttl Tokens time to live
+     * @param metrics Metrics to record routes and storage operations to
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final AuthTokens tokens, final String url, final Duration ttl,
+        final InMemoryMetrics metrics) {
+        this(
+            storage, perms, users, tokens, token -> true, url, ttl, metrics,
+            new MetricsSlice(metrics), new SlowTraceLog(UpdateSlice.SLOW), false
+        );
+    }
+
+    /**
+     * Ctor with stateless signed tokens, tokens with invalid signature are rejected
+     * before any lookup.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param tokens Signed tokens
+     * @param url Application url
+     * @param ttl Tokens time to live
      * @checkstyle ParameterNumberCheck (5 lines)
      */
+    public CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final SignedAuthTokens tokens, final String url, final Duration ttl) {
+        this(
+            storage, perms, users, tokens, tokens::signed, url, ttl, Metrics.NOP,
+            new SliceSimple(StandardRs.NOT_FOUND), new SlowTraceLog(UpdateSlice.SLOW), false
+        );
+    }
+
+    /**
+     * Primary ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users, used as given: wrap them with
+     *  {@link com.artipie.conda.CachedAuthentication} to cache successful authentications
+     * @param tokens Tokens
+     * @param check Cheap token check performed before tokens lookup
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @param metrics Metrics
+     * @param scrape Metrics scrape slice
+     * @param traces Upload traces exporter
+     * @param sorted Keep repodata packages sorted by file name on upload
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
     private CondaSlice(final Storage storage, final Permissions perms, final Authentication users,
-        final AuthTokens tokens, final String url, final Duration ttl) {
+        final AuthTokens tokens, final Predicate<String> check, final String url,
+        final Duration ttl, final Metrics metrics, final Slice scrape,
+        final TraceExporter traces, final boolean sorted) {
         super(
-            new SliceRoute(
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath("/t/.*repodata\\.json$"),
-                        new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new TokenAuthSlice(
-                        new DownloadRepodataSlice(storage),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*repodata\\.json$"),
-                        new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new BasicAuthSlice(
-                        new DownloadRepodataSlice(storage), users,
-                        new Permission.ByName(perms, Action.Standard.READ)
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath("(/dist/|/t/).*(\\.tar\\.bz2|\\.conda)$"),
-                        new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new TokenAuthSlice(
-                        new SliceDownload(storage, CondaSlice.transform()),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*(\\.tar\\.bz2|\\.conda)$"),
-                        new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new BasicAuthSlice(
-                        new SliceDownload(storage, CondaSlice.transform()), users,
-                        new Permission.ByName(perms, Action.Standard.READ)
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath("/(stage|commit).*(\\.tar\\.bz2|\\.conda)$"),
-                        new ByMethodsRule(RqMethod.POST)
-                    ),
-                    new TokenAuthSlice(
-                        new PostStageCommitSlice(url),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*(\\.tar\\.bz2|\\.conda)$"),
-                        new ByMethodsRule(RqMethod.POST)
-                    ),
-                    new TokenAuthSlice(
-                        new UpdateSlice(storage),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*(package|release).*"), new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new TokenAuthSlice(
-                        new GetPackageSlice(),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*(package|release).*"), new ByMethodsRule(RqMethod.POST)
-                    ),
-                    new TokenAuthSlice(
-                        new PostPackageReleaseSlice(),
-                        new Permission.ByName(perms, Action.Standard.READ), tokens
-                    )
-                ),
-                new RtRulePath(new ByMethodsRule(RqMethod.HEAD), new SliceSimple(StandardRs.OK)),
-                new RtRulePath(
-                    new RtRule.All(new RtRule.ByPath("/user"), new ByMethodsRule(RqMethod.GET)),
-                    new TokenAuthSlice(
-                        new GetUserSlice(new TokenAuthScheme(new TokenAuth(tokens))),
-                        new Permission.ByName(perms, Action.Standard.READ),
-                        tokens
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*authentication-type$"),
-                        new ByMethodsRule(RqMethod.GET)
-                    ),
-                    new AuthTypeSlice()
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*authentications$"), new ByMethodsRule(RqMethod.POST)
-                    ),
-                    new BasicAuthSlice(
-                        new GenerateTokenSlice(users, tokens, ttl), users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
-                    )
-                ),
-                new RtRulePath(
-                    new RtRule.All(
-                        new RtRule.ByPath(".*authentications$"), new ByMethodsRule(RqMethod.DELETE)
+            CondaSlice.router(
+                storage, perms, users, tokens, check, url, ttl, metrics, scrape, traces, sorted
+            )
+        );
+    }
+
+    /**
+     * Conda routes, in order of precedence within each request method.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param tokens Tokens
+     * @param check Cheap token check performed before tokens lookup
+     * @param url Application url
+     * @param ttl Tokens time to live
+     * @param metrics Metrics
+     * @param scrape Metrics scrape slice
+     * @param traces Upload traces exporter
+     * @param sorted Keep repodata packages sorted by file name on upload
+     * @return Router slice
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private static Slice router(final Storage storage, final Permissions perms,
+        final Authentication users, final AuthTokens tokens, final Predicate<String> check,
+        final String url, final Duration ttl, final Metrics metrics, final Slice scrape,
+        final TraceExporter traces, final boolean sorted) {
+        final Permission read = new Permission.ByName(perms, Action.Standard.READ);
+        final Permission write = new Permission.ByName(perms, Action.Standard.WRITE);
+        final DownloadRepodataSlice repodata = new DownloadRepodataSlice(
+            CondaSlice.accounted(storage, metrics, "repodata")
+        );
+        final UpdateSlice update = new UpdateSlice(
+            CondaSlice.accounted(storage, metrics, "upload"), metrics, traces, sorted
+        );
+        final Storage packages = CondaSlice.accounted(storage, metrics, "package_download");
+        return new CondaRouter(
+            metrics,
+            new CondaRouter.Route(
+                "metrics", RqMethod.GET,
+                path -> "/.metrics".equals(path.path()),
+                path -> new BasicAuthSlice(scrape, users, read)
+            ),
+            new CondaRouter.Route(
+                "repodata", RqMethod.GET,
+                path -> path.tokenized() && path.endsWith(CondaSlice.REPODATA),
+                path -> new TokenAuthSlice(
+                    (line, headers, body) -> repodata.response(path),
+                    read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "repodata", RqMethod.GET,
+                path -> path.endsWith(CondaSlice.REPODATA),
+                path -> new BasicAuthSlice(
+                    (line, headers, body) -> repodata.response(path), users, read
+                )
+            ),
+            new CondaRouter.Route(
+                "package_download", RqMethod.GET,
+                path -> path.pkg() && path.startsWith("/dist/", "/t/"),
+                path -> new TokenAuthSlice(
+                    CondaSlice.download(packages, path), read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "package_download", RqMethod.GET,
+                CondaPath::pkg,
+                path -> new BasicAuthSlice(CondaSlice.download(packages, path), users, read)
+            ),
+            new CondaRouter.Route(
+                "stage_commit", RqMethod.POST,
+                path -> path.pkg() && path.startsWith("/stage", "/commit"),
+                path -> new TokenAuthSlice(
+                    new PostStageCommitSlice(url), read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "upload", RqMethod.POST,
+                CondaPath::pkg,
+                path -> new TokenAuthSlice(
+                    (line, headers, body) -> update.response(path, headers, body),
+                    read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "package_info", RqMethod.GET,
+                path -> path.contains(CondaSlice.PACKAGE, CondaSlice.RELEASE),
+                path -> new TokenAuthSlice(
+                    new GetPackageSlice(), read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "package_release", RqMethod.POST,
+                path -> path.contains(CondaSlice.PACKAGE, CondaSlice.RELEASE),
+                path -> new TokenAuthSlice(
+                    new PostPackageReleaseSlice(), read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "head", RqMethod.HEAD,
+                path -> true, path -> new SliceSimple(StandardRs.OK)
+            ),
+            new CondaRouter.Route(
+                "user", RqMethod.GET,
+                path -> "/user".equals(path.path()),
+                path -> new TokenAuthSlice(
+                    new GetUserSlice(
+                        new TokenAuthScheme(new TokenAuth(tokens), check, path.token())
                     ),
-                    new BasicAuthSlice(
-                        new DeleteTokenSlice(tokens), users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
-                    )
-                ),
-                new RtRulePath(RtRule.FALLBACK, new SliceSimple(StandardRs.NOT_FOUND))
+                    read, tokens, check, path.token()
+                )
+            ),
+            new CondaRouter.Route(
+                "auth_type", RqMethod.GET,
+                path -> path.endsWith("authentication-type"),
+                path -> new AuthTypeSlice()
+            ),
+            new CondaRouter.Route(
+                "token_generate", RqMethod.POST,
+                path -> path.endsWith(CondaSlice.AUTHS),
+                path -> new BasicAuthSlice(
+                    new GenerateTokenSlice(users, tokens, ttl), users, write
+                )
+            ),
+            new CondaRouter.Route(
+                "token_delete", RqMethod.DELETE,
+                path -> path.endsWith(CondaSlice.AUTHS),
+                path -> new BasicAuthSlice(new DeleteTokenSlice(tokens), users, write)
             )
         );
     }
 
     /**
-     * Function to transform path to download conda package. Conda client can perform requests
+     * Storage recording operations, bytes and operations durations of the route, see
+     * {@link StorageAccount.Metered}. Storage is not wrapped if metrics are disabled.
+     * @param storage Storage
+     * @param metrics Metrics
+     * @param route Route name
+     * @return Accounting storage
+     */
+    private static Storage accounted(final Storage storage, final Metrics metrics,
+        final String route) {
+        final Storage res;
+        if (Metrics.NOP.equals(metrics)) {
+            res = storage;
+        } else {
+            res = new AccountingStorage(storage, new StorageAccount.Metered(metrics, route));
+        }
+        return res;
+    }
+
+    /**
+     * Slice to download conda package. Conda client can perform requests
      * for download with user token:
      * /t/user-token/linux-64/some-package.tar.bz2
-     * @return Function to transform path to key
-     */
-    private static Function<String, Key> transform() {
-        return path -> {
-            final Matcher mtchr = PTRN.matcher(path);
-            final Key res;
-            if (mtchr.matches()) {
-                res = new Key.From(mtchr.group(1));
-            } else {
-                res = new KeyFromPath(path);
-            }
-            return res;
-        };
+     * Package key is formed of the last two path segments.
+     * @param storage Storage
+     * @param path Parsed request path
+     * @return Download slice
+     */
+    private static Slice download(final Storage storage, final CondaPath path) {
+        return new SliceDownload(
+            storage, any -> path.key().orElseGet(() -> new KeyFromPath(path.path()))
+        );
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice which records route metrics: requests count by response status
+ * `conda_http_requests_total`, request duration in nanoseconds from request to the end of
+ * response sending `conda_http_request_duration_nanoseconds` and response body size
+ * `conda_http_response_bytes`.
+ * @since 0.6
+ */
+public final class MeteredSlice implements Slice {
+
+    /**
+     * Route label name.
+     */
+    private static final String ROUTE = "route";
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Route name.
+     */
+    private final String route;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param metrics Metrics
+     * @param route Route name
+     */
+    public MeteredSlice(final Slice origin, final Metrics metrics, final String route) {
+        this.origin = origin;
+        this.metrics = metrics;
+        this.route = route;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final long start = System.nanoTime();
+        final Response response = this.origin.response(line, headers, body);
+        return connection -> {
+            final LongAdder bytes = new LongAdder();
+            return response.send(
+                (status, rsheaders, rsbody) -> {
+                    this.metrics.counter(
+                        "conda_http_requests_total",
+                        MeteredSlice.ROUTE, this.route, "status", status.code()
+                    ).inc();
+                    return connection.accept(
+                        status, rsheaders,
+                        Flowable.fromPublisher(rsbody).doOnNext(buf -> bytes.add(buf.remaining()))
+                    );
+                }
+            ).whenComplete(
+                (nothing, err) -> {
+                    this.metrics.histogram(
+                        "conda_http_request_duration_nanoseconds", MeteredSlice.ROUTE, this.route
+                    ).record(System.nanoTime() - start);
+                    this.metrics.histogram(
+                        "conda_http_response_bytes", MeteredSlice.ROUTE, this.route
+                    ).record(bytes.sum());
+                }
+            );
+        };
+    }
+}
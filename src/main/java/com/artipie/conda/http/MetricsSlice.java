@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.asto.Content;
+import com.artipie.conda.metrics.InMemoryMetrics;
+import com.artipie.conda.metrics.PrometheusText;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.headers.ContentType;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to scrape metrics in Prometheus text format, handles `GET /.metrics` request.
+ * @since 0.6
+ */
+public final class MetricsSlice implements Slice {
+
+    /**
+     * Metrics registry.
+     */
+    private final InMemoryMetrics metrics;
+
+    /**
+     * Ctor.
+     * @param metrics Metrics registry
+     */
+    public MetricsSlice(final InMemoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        return new RsFull(
+            RsStatus.OK,
+            new Headers.From(new ContentType("text/plain; version=0.0.4; charset=utf-8")),
+            new Content.From(
+                PrometheusText.render(this.metrics).getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+}
@@ -13,101 +13,164 @@ import com.artipie.asto.misc.UncheckedIOScalar;
 import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.conda.asto.AstoMergedJson;
 import com.artipie.conda.meta.InfoIndex;
+import com.artipie.conda.meta.MergedJson;
+import com.artipie.conda.meta.PackageMeta;
+import com.artipie.conda.metrics.FlightEvent;
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.conda.trace.SlowTraceLog;
+import com.artipie.conda.trace.Trace;
+import com.artipie.conda.trace.TraceExporter;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.headers.ContentDisposition;
-import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rq.multipart.RqMultipart;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import javax.json.Json;
-import javax.json.JsonObjectBuilder;
+import java.util.function.Supplier;
 import org.reactivestreams.Publisher;
 
 /**
- * Slice to update the repository.
+ * Slice to update the repository. Each upload stage is recorded as a span of the upload
+ * {@link Trace} and emits `com.artipie.conda.UploadStage` flight recorder event.
  * @since 0.4
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class UpdateSlice implements Slice {
 
     /**
-     * Regex to obtain uploaded package architecture and name from request line.
+     * Temporary upload key.
      */
-    private static final Pattern PKG = Pattern.compile(".*/((.*)/(.*(\\.tar\\.bz2|\\.conda)))$");
+    private static final Key TMP = new Key.From(".upload");
 
     /**
-     * Temporary upload key.
+     * Default slow upload threshold.
      */
-    private static final Key TMP = new Key.From(".upload");
+    static final Duration SLOW = Duration.ofSeconds(10);
+
+    /**
+     * Flight recorder event of the upload stage.
+     */
+    private static final FlightEvent EVENT = new FlightEvent(
+        "com.artipie.conda.UploadStage", "Package upload stage",
+        Arrays.asList("stage", "subdir", "filename", "outcome"), Collections.emptyList()
+    );
 
     /**
      * Abstract storage.
      */
     private final Storage asto;
 
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Upload traces exporter.
+     */
+    private final TraceExporter traces;
+
+    /**
+     * Keep repodata packages sorted by file name.
+     */
+    private final boolean sorted;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      */
     public UpdateSlice(final Storage asto) {
+        this(asto, Metrics.NOP);
+    }
+
+    /**
+     * Ctor, uploads slower than {@link #SLOW} are logged with stages breakdown.
+     * @param asto Abstract storage
+     * @param metrics Metrics to record package info extraction and repodata merge to
+     */
+    public UpdateSlice(final Storage asto, final Metrics metrics) {
+        this(asto, metrics, new SlowTraceLog(UpdateSlice.SLOW));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param metrics Metrics to record package info extraction and repodata merge to
+     * @param traces Upload traces exporter
+     */
+    public UpdateSlice(final Storage asto, final Metrics metrics, final TraceExporter traces) {
+        this(asto, metrics, traces, false);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param metrics Metrics to record package info extraction and repodata merge to
+     * @param traces Upload traces exporter
+     * @param sorted Keep repodata packages sorted by file name, unsorted repodata is sorted
+     *  on the first upload
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Metrics metrics, final TraceExporter traces,
+        final boolean sorted) {
         this.asto = asto;
+        this.metrics = metrics;
+        this.traces = traces;
+        this.sorted = sorted;
     }
 
     @Override
     public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final Matcher matcher = UpdateSlice.PKG.matcher(new RequestLineFrom(line).uri().getPath());
+        return this.response(new CondaPath(line), headers, body);
+    }
+
+    /**
+     * Uploads package by parsed request path.
+     * @param path Request path
+     * @param headers Request headers
+     * @param body Request body
+     * @return Response
+     */
+    Response response(final CondaPath path, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
         final Response res;
-        if (matcher.matches()) {
-            final Key temp = new Key.From(UpdateSlice.TMP, matcher.group(1));
+        if (path.pkg() && path.key().isPresent()) {
+            final Key pkg = path.key().get();
+            final Key temp = new Key.From(UpdateSlice.TMP, pkg);
+            final Trace trace = new Trace("upload", pkg.string(), this.traces);
+            final Stages stages = new Stages(trace, path);
             res = new AsyncResponse(
-                this.asto.exists(new Key.From(matcher.group(1))).thenCompose(
-                    main -> this.asto.exists(temp).thenApply(upl -> main || upl)
-                ).thenCompose(
-                    exists -> {
-                        final CompletionStage<Response> resp;
-                        if (exists) {
-                            resp = CompletableFuture.completedFuture(
-                                new RsWithStatus(RsStatus.BAD_REQUEST)
-                            );
-                        } else {
-                            resp = this.asto.save(
-                                temp,
-                                new Content.From(
-                                    UpdateSlice.filePart(new Headers.From(headers), body)
-                                )
-                            )
-                                .thenCompose(empty -> this.infoJson(matcher.group(1), temp))
-                                .thenCompose(json -> this.addChecksum(temp, Digests.MD5, json))
-                                .thenCompose(json -> this.addChecksum(temp, Digests.SHA256, json))
-                                .thenApply(JsonObjectBuilder::build)
-                                .thenCompose(
-                                    json -> new AstoMergedJson(
-                                        this.asto, new Key.From(matcher.group(2), "repodata.json")
-                                    ).merge(
-                                        // @checkstyle MagicNumberCheck (3 lines)
-                                        Collections.singletonMap(matcher.group(3), json)
-                                    )
-                                ).thenCompose(
-                                    ignored -> this.asto.move(temp, new Key.From(matcher.group(1)))
-                                ).thenApply(
+                trace.traced(
+                    () -> stages.run("exists_package", () -> this.asto.exists(pkg)).thenCompose(
+                        main -> stages.run("exists_upload", () -> this.asto.exists(temp))
+                            .thenApply(upl -> main || upl)
+                    ).thenCompose(
+                        exists -> {
+                            final CompletionStage<Response> resp;
+                            if (exists) {
+                                resp = CompletableFuture.completedFuture(
+                                    new RsWithStatus(RsStatus.BAD_REQUEST)
+                                );
+                            } else {
+                                resp = this.upload(stages, temp, headers, body).thenApply(
                                     ignored -> new RsWithStatus(RsStatus.CREATED)
                                 );
+                            }
+                            return resp;
                         }
-                        return resp;
-                    }
+                    )
                 )
             );
         } else {
@@ -117,37 +180,87 @@ public final class UpdateSlice implements Slice {
     }
 
     /**
-     * Adds checksum of the package to json.
+     * Saves uploaded package to temp location, adds it to repodata and moves package to the
+     * repository.
+     * @param stages Upload stages
+     * @param temp Temp package key
+     * @param headers Request headers
+     * @param body Request body
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> upload(final Stages stages, final Key temp,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final String name = stages.path.filename().get();
+        return stages.run(
+            "save",
+            () -> this.asto.save(
+                temp,
+                new Content.From(UpdateSlice.filePart(new Headers.From(headers), body))
+            )
+        ).thenCompose(
+            empty -> stages.run("info", () -> this.infoJson(name, temp))
+        ).thenCompose(
+            meta -> stages.run("md5", () -> this.addChecksum(temp, Digests.MD5, meta))
+        ).thenCompose(
+            meta -> stages.run("sha256", () -> this.addChecksum(temp, Digests.SHA256, meta))
+        ).thenCompose(
+            meta -> stages.run(
+                "merge",
+                () -> new AstoMergedJson(
+                    this.asto,
+                    new Key.From(stages.path.subdir().get(), "repodata.json"),
+                    this.metrics, this.sorted
+                ).merge(new MergedJson.Packages(Collections.singletonMap(name, meta)))
+            )
+        ).thenCompose(
+            ignored -> stages.run(
+                "move", () -> this.asto.move(temp, stages.path.key().get())
+            )
+        );
+    }
+
+    /**
+     * Adds checksum of the package to metadata.
      * @param key Package key
      * @param alg Digest algorithm
-     * @param json Json to add value to
-     * @return JsonObjectBuilder with added checksum as completion action
+     * @param meta Metadata to add value to
+     * @return Package metadata with added checksum as completion action
      */
-    private CompletionStage<JsonObjectBuilder> addChecksum(final Key key, final Digests alg,
-        final JsonObjectBuilder json) {
+    private CompletionStage<PackageMeta> addChecksum(final Key key, final Digests alg,
+        final PackageMeta meta) {
         return this.asto.value(key).thenCompose(val -> new ContentDigest(val, alg).hex())
-            .thenApply(hex -> json.add(alg.name().toLowerCase(Locale.US), hex));
+            .thenApply(hex -> meta.with(alg.name().toLowerCase(Locale.US), hex));
     }
 
     /**
      * Get info index json from uploaded package.
      * @param name Package name
      * @param key Package input stream
-     * @return JsonObjectBuilder with package info as completion action
-     */
-    private CompletionStage<JsonObjectBuilder> infoJson(final String name, final Key key) {
-        return this.asto.value(key).thenCompose(
-            val -> new ContentAsStream<JsonObjectBuilder>(val).process(
-                input -> {
-                    final InfoIndex info;
-                    if (name.endsWith("conda")) {
-                        info = new InfoIndex.Conda(input);
-                    } else {
-                        info = new InfoIndex.TarBz(input);
+     * @return Package metadata with size as completion action
+     */
+    private CompletionStage<PackageMeta> infoJson(final String name, final Key key) {
+        final boolean conda = name.endsWith("conda");
+        String format = "tar.bz2";
+        if (conda) {
+            format = "conda";
+        }
+        return this.metrics.histogram(
+            "conda_info_index_duration_nanoseconds", "format", format
+        ).timed(
+            () -> this.asto.value(key).thenCompose(
+                val -> new ContentAsStream<PackageMeta>(val).process(
+                    input -> {
+                        final InfoIndex info;
+                        if (conda) {
+                            info = new InfoIndex.Conda(input);
+                        } else {
+                            info = new InfoIndex.TarBz(input);
+                        }
+                        return new UncheckedIOScalar<>(info::meta).value()
+                            .with("size", val.size().get());
                     }
-                    return Json.createObjectBuilder(new UncheckedIOScalar<>(info::json).value())
-                        .add("size", val.size().get());
-                }
+                )
             )
         );
     }
@@ -185,4 +298,54 @@ public final class UpdateSlice implements Slice {
             )
         ).flatMap(part -> part);
     }
+
+    /**
+     * Upload stages: each stage is recorded as the trace span and emits flight recorder event.
+     * @since 0.6
+     */
+    private static final class Stages {
+
+        /**
+         * Upload trace.
+         */
+        private final Trace trace;
+
+        /**
+         * Request path.
+         */
+        private final CondaPath path;
+
+        /**
+         * Ctor.
+         * @param trace Upload trace
+         * @param path Request path
+         */
+        Stages(final Trace trace, final CondaPath path) {
+            this.trace = trace;
+            this.path = path;
+        }
+
+        /**
+         * Runs upload stage.
+         * @param stage Stage name
+         * @param action Stage action
+         * @param <T> Stage result type
+         * @return Stage result
+         */
+        <T> CompletionStage<T> run(final String stage,
+            final Supplier<CompletionStage<T>> action) {
+            final FlightEvent.Started event = UpdateSlice.EVENT.begin();
+            return this.trace.span(stage, action).whenComplete(
+                (res, err) -> {
+                    String outcome = "ok";
+                    if (err != null) {
+                        outcome = "failed";
+                    }
+                    event.set("stage", stage).set("subdir", this.path.subdir().orElse(""))
+                        .set("filename", this.path.filename().orElse(""))
+                        .set("outcome", outcome).commit();
+                }
+            );
+        }
+    }
 }
@@ -14,6 +14,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,12 +40,56 @@ public final class TokenAuthScheme implements AuthScheme {
      */
     private final TokenAuthentication auth;
 
+    /**
+     * Cheap token check, performed before authentication.
+     */
+    private final Predicate<String> check;
+
+    /**
+     * Reads token from request line.
+     */
+    private final Function<String, Optional<String>> fromline;
+
     /**
      * Ctor.
      * @param auth Token authentication
      */
     public TokenAuthScheme(final TokenAuthentication auth) {
+        this(auth, token -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param auth Token authentication
+     * @param check Cheap token check, for example signature verification, tokens which
+     *  do not pass the check are not authenticated
+     */
+    public TokenAuthScheme(final TokenAuthentication auth, final Predicate<String> check) {
+        this(auth, check, TokenAuthScheme::lineToken);
+    }
+
+    /**
+     * Ctor for the token already parsed from request path, request line is not parsed.
+     * @param auth Token authentication
+     * @param check Cheap token check
+     * @param parsed Token parsed from request path, empty if path has no token
+     */
+    public TokenAuthScheme(final TokenAuthentication auth, final Predicate<String> check,
+        final Optional<String> parsed) {
+        this(auth, check, line -> parsed);
+    }
+
+    /**
+     * Primary ctor.
+     * @param auth Token authentication
+     * @param check Cheap token check
+     * @param fromline Reads token from request line
+     */
+    private TokenAuthScheme(final TokenAuthentication auth, final Predicate<String> check,
+        final Function<String, Optional<String>> fromline) {
         this.auth = auth;
+        this.check = check;
+        this.fromline = fromline;
     }
 
     @Override
@@ -64,25 +110,44 @@ public final class TokenAuthScheme implements AuthScheme {
     private CompletionStage<Optional<Authentication.User>> user(
         final Iterable<Map.Entry<String, String>> headers, final String line
     ) {
-        return new RqHeaders(headers, Authorization.NAME).stream()
+        return this.token(headers, line)
+            .filter(this.check)
+            .map(this.auth::user)
+            .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    /**
+     * Obtains token from authentication header or from request line.
+     *
+     * @param headers Headers
+     * @param line Request line
+     * @return Token, empty if absent
+     */
+    private Optional<String> token(
+        final Iterable<Map.Entry<String, String>> headers, final String line
+    ) {
+        final Optional<String> res = new RqHeaders(headers, Authorization.NAME).stream()
             .findFirst()
             .map(Authorization::new)
             .filter(hdr -> hdr.scheme().equals(TokenAuthScheme.NAME))
-            .map(hdr -> new Authorization.Token(hdr.credentials()).token())
-            .map(this.auth::user)
-            .orElseGet(
-                () -> {
-                    final Matcher mtchr = TokenAuthScheme.PTRN.matcher(
-                        new RequestLineFrom(line).uri().toString()
-                    );
-                    CompletionStage<Optional<Authentication.User>> res =
-                        CompletableFuture.completedFuture(Optional.empty());
-                    if (mtchr.matches()) {
-                        res = this.auth.user(mtchr.group(1));
-                    }
-                    return res;
-                }
-            );
+            .map(hdr -> new Authorization.Token(hdr.credentials()).token());
+        return res.map(Optional::of).orElseGet(() -> this.fromline.apply(line));
+    }
+
+    /**
+     * Reads token from `/t/{token}/...` request line.
+     * @param line Request line
+     * @return Token if present
+     */
+    private static Optional<String> lineToken(final String line) {
+        final Matcher mtchr = TokenAuthScheme.PTRN.matcher(
+            new RequestLineFrom(line).uri().toString()
+        );
+        Optional<String> res = Optional.empty();
+        if (mtchr.matches()) {
+            res = Optional.of(mtchr.group(1));
+        }
+        return res;
     }
 
     /**
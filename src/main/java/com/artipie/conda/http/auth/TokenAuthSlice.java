@@ -8,6 +8,8 @@ import com.artipie.conda.AuthTokens;
 import com.artipie.http.Slice;
 import com.artipie.http.auth.AuthSlice;
 import com.artipie.http.auth.Permission;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Token authentication slice.
@@ -24,6 +26,42 @@ public final class TokenAuthSlice extends Slice.Wrap {
     public TokenAuthSlice(
         final Slice origin, final Permission perm, final AuthTokens tokens
     ) {
-        super(new AuthSlice(origin, new TokenAuthScheme(new TokenAuth(tokens)), perm));
+        this(origin, perm, tokens, token -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param perm Permissions
+     * @param tokens Token authentication
+     * @param check Cheap token check performed before authentication
+     */
+    public TokenAuthSlice(
+        final Slice origin, final Permission perm, final AuthTokens tokens,
+        final Predicate<String> check
+    ) {
+        super(
+            new AuthSlice(origin, new TokenAuthScheme(new TokenAuth(tokens), check), perm)
+        );
+    }
+
+    /**
+     * Ctor for the token already parsed from request path.
+     * @param origin Origin slice
+     * @param perm Permissions
+     * @param tokens Token authentication
+     * @param check Cheap token check performed before authentication
+     * @param parsed Token parsed from request path, empty if path has no token
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public TokenAuthSlice(
+        final Slice origin, final Permission perm, final AuthTokens tokens,
+        final Predicate<String> check, final Optional<String> parsed
+    ) {
+        super(
+            new AuthSlice(
+                origin, new TokenAuthScheme(new TokenAuth(tokens), check, parsed), perm
+            )
+        );
     }
 }
@@ -5,11 +5,14 @@
 package com.artipie.conda.meta;
 
 import com.artipie.ArtipieException;
+import com.artipie.conda.metrics.FlightEvent;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
-import javax.json.Json;
 import javax.json.JsonObject;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -18,6 +21,7 @@ import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
 
 /**
  * Conda package metadata file info/index.json.
@@ -37,12 +41,44 @@ public interface InfoIndex {
      */
     JsonObject json() throws IOException;
 
+    /**
+     * Conda package metadata info/index.json content as package metadata, which can be
+     * extended with size and checksums and written to repodata without conversions,
+     * metadata is kept as raw json, see {@link PackageMeta.Raw}. By default metadata is adapted
+     * from {@link #json()}, implementations override this method to skip the conversion.
+     * @return Package metadata
+     * @throws IOException On error
+     */
+    default PackageMeta meta() throws IOException {
+        return new PackageMeta.Tree(this.json());
+    }
+
+    /**
+     * Conda package metadata info/index.json content as it is stored in the package. By default
+     * {@link #json()} is serialized, implementations override this method to return the bytes
+     * read from the package.
+     * @return Raw metadata bytes
+     * @throws IOException On error
+     */
+    default byte[] raw() throws IOException {
+        return this.json().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Implementation of {@link InfoIndex} to read metadata from `tar.bz2` conda package.
+     * Each read emits `com.artipie.conda.InfoIndexTarBz` flight recorder event.
      * @since 0.2
      */
     final class TarBz implements InfoIndex {
 
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.InfoIndexTarBz", "Package tar.bz2 metadata read",
+            Collections.emptyList(), Arrays.asList("entries", "bytesIn")
+        );
+
         /**
          * Conda `tar.bz2` package as input stream.
          */
@@ -57,24 +93,37 @@ public interface InfoIndex {
         }
 
         @Override
-        @SuppressWarnings("PMD.AssignmentInOperand")
         public JsonObject json() throws IOException {
-            Optional<JsonObject> res = Optional.empty();
-            try (
-                TarArchiveInputStream archive = new TarArchiveInputStream(
-                    new BZip2CompressorInputStream(this.input)
-                )
-            ) {
+            return this.meta().json();
+        }
+
+        @Override
+        public PackageMeta meta() throws IOException {
+            return new PackageMeta.Raw(this.raw());
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AssignmentInOperand")
+        public byte[] raw() throws IOException {
+            final FlightEvent.Started event = TarBz.EVENT.begin();
+            Optional<byte[]> res = Optional.empty();
+            final BZip2CompressorInputStream bzip = new BZip2CompressorInputStream(this.input);
+            long entries = 0;
+            long bytes;
+            try (TarArchiveInputStream archive = new TarArchiveInputStream(bzip)) {
                 ArchiveEntry entry;
                 while ((entry = archive.getNextEntry()) != null) {
+                    entries = entries + 1;
                     if (!archive.canReadEntryData(entry) || entry.isDirectory()) {
                         continue;
                     }
                     if (InfoIndex.FILE_NAME.equals(entry.getName())) {
-                        res = Optional.of(Json.createReader(archive).readObject());
+                        res = Optional.of(IOUtils.toByteArray(archive));
                     }
                 }
+                bytes = bzip.getCompressedCount();
             }
+            event.set("entries", entries).set("bytesIn", bytes).commit();
             return res.orElseThrow(
                 () -> new ArtipieException(
                     "Illegal package .tar.bz2: info/index.json file not found"
@@ -85,11 +134,20 @@ public interface InfoIndex {
 
     /**
      * Implementation of {@link InfoIndex} to read metadata from `.conda` package.
+     * Each read emits `com.artipie.conda.InfoIndexConda` flight recorder event.
      * @since 0.2
      * @checkstyle CyclomaticComplexityCheck (50 lines)
      */
     final class Conda implements InfoIndex {
 
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.InfoIndexConda", "Package conda metadata read",
+            Collections.emptyList(), Arrays.asList("entries", "bytesIn")
+        );
+
         /**
          * Conda `.conda` package as input stream.
          */
@@ -104,9 +162,22 @@ public interface InfoIndex {
         }
 
         @Override
-        @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.AssignmentInOperand"})
         public JsonObject json() throws IOException {
-            Optional<JsonObject> res = Optional.empty();
+            return this.meta().json();
+        }
+
+        @Override
+        public PackageMeta meta() throws IOException {
+            return new PackageMeta.Raw(this.raw());
+        }
+
+        @Override
+        @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.AssignmentInOperand"})
+        public byte[] raw() throws IOException {
+            final FlightEvent.Started event = Conda.EVENT.begin();
+            Optional<byte[]> res = Optional.empty();
+            long entries = 0;
+            long bytes;
             try (
                 ArchiveInputStream archive = new ArchiveStreamFactory().createArchiveInputStream(
                     new BufferedInputStream(this.input)
@@ -114,6 +185,7 @@ public interface InfoIndex {
             ) {
                 ArchiveEntry entry;
                 while ((entry = archive.getNextEntry()) != null) {
+                    entries = entries + 1;
                     if (!archive.canReadEntryData(entry) || entry.isDirectory()) {
                         continue;
                     }
@@ -127,14 +199,16 @@ public interface InfoIndex {
                                 continue;
                             }
                             if (InfoIndex.FILE_NAME.equals(entry.getName())) {
-                                res = Optional.of(Json.createReader(info).readObject());
+                                res = Optional.of(IOUtils.toByteArray(info));
                             }
                         }
                     }
                 }
+                bytes = archive.getBytesRead();
             } catch (final ArchiveException ex) {
                 throw new IOException(ex);
             }
+            event.set("entries", entries).set("bytesIn", bytes).commit();
             return res.orElseThrow(
                 () -> new ArtipieException(
                     "Illegal package `.conda`: info/index.json file not found"
@@ -4,12 +4,15 @@
  */
 package com.artipie.conda.meta;
 
+import com.artipie.conda.metrics.FlightEvent;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -27,10 +30,21 @@ public interface JsonMaid {
 
     /**
      * Implementation of {@link JsonMaid} based on {@link com.fasterxml.jackson}.
+     * Packages are removed in one pass keeping the order of the rest, so repodata sorted by
+     * {@link MergedJson.Sorted} stays sorted. Each clean emits
+     * `com.artipie.conda.RepodataClean` flight recorder event.
      * @since 0.1
      */
     final class Jackson implements JsonMaid {
 
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.RepodataClean", "Repodata clean",
+            Collections.emptyList(), Arrays.asList("entriesIn", "entriesOut", "bytesIn")
+        );
+
         /**
          * Json generator.
          */
@@ -54,6 +68,9 @@ public interface JsonMaid {
         @Override
         @SuppressWarnings("PMD.AssignmentInOperand")
         public void clean(final Set<String> checksums) throws IOException {
+            final FlightEvent.Started event = Jackson.EVENT.begin();
+            long read = 0;
+            long kept = 0;
             JsonToken token;
             while ((token = this.parser.nextToken()) != null) {
                 if (token == JsonToken.FIELD_NAME
@@ -64,7 +81,9 @@ public interface JsonMaid {
                     this.parser.nextToken();
                     this.parser.setCodec(new ObjectMapper());
                     final ObjectNode nodes = this.parser.<ObjectNode>readValueAsTree();
+                    read = read + 1;
                     if (!checksums.contains(nodes.get("sha256").asText())) {
+                        kept = kept + 1;
                         this.gnrt.writeFieldName(name);
                         this.gnrt.setCodec(new ObjectMapper());
                         this.gnrt.writeTree(nodes);
@@ -74,6 +93,8 @@ public interface JsonMaid {
                 }
             }
             this.gnrt.close();
+            event.set("entriesIn", read).set("entriesOut", kept)
+                .set("bytesIn", this.parser.getCurrentLocation().getByteOffset()).commit();
             this.parser.close();
         }
     }
@@ -4,15 +4,26 @@
  */
 package com.artipie.conda.meta;
 
+import com.artipie.ArtipieException;
+import com.artipie.conda.metrics.FlightEvent;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.json.Json;
 import javax.json.JsonObject;
 
 /**
@@ -28,12 +39,155 @@ public interface MergedJson {
      */
     void merge(Map<String, JsonObject> items) throws IOException;
 
+    /**
+     * Appends provided entries to existing repodata.json. By default entries are read into
+     * `javax.json` objects and merged with {@link #merge(Map)}, implementations override this
+     * method to write the entries without the conversion.
+     * @param items Entries to add
+     * @throws IOException On IO error
+     */
+    default void merge(final Entries items) throws IOException {
+        final StringWriter json = new StringWriter();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(json)) {
+            gen.writeStartObject();
+            items.write(gen, Jackson.TAR);
+            items.write(gen, Jackson.CONDA);
+            gen.writeEndObject();
+        }
+        final Map<String, JsonObject> map = new HashMap<>(items.size());
+        Json.createReader(new StringReader(json.toString())).readObject()
+            .forEach((name, meta) -> map.put(name, meta.asJsonObject()));
+        this.merge(map);
+    }
+
+    /**
+     * New repodata entries to merge.
+     * @since 0.6
+     */
+    interface Entries {
+
+        /**
+         * Is there new entry for the file?
+         * @param filename Package file name
+         * @return True if entry exists
+         */
+        boolean contains(String filename);
+
+        /**
+         * Count of entries.
+         * @return Entries count
+         */
+        int size();
+
+        /**
+         * Writes entries of the package type as json fields: file name and metadata, sorted
+         * by file name.
+         * @param gen Json generator
+         * @param type Package type, extension `.tar.bz2` or `.conda`
+         * @throws IOException On IO error
+         */
+        void write(JsonGenerator gen, String type) throws IOException;
+    }
+
+    /**
+     * Entries from the map of file names and package metadata, metadata is written to the
+     * generator as is.
+     * @since 0.6
+     */
+    final class Packages implements Entries {
+
+        /**
+         * Items, filename <-> package metadata.
+         */
+        private final Map<String, PackageMeta> items;
+
+        /**
+         * Ctor.
+         * @param items Items, filename <-> package metadata
+         */
+        public Packages(final Map<String, PackageMeta> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean contains(final String filename) {
+            return this.items.containsKey(filename);
+        }
+
+        @Override
+        public int size() {
+            return this.items.size();
+        }
+
+        @Override
+        public void write(final JsonGenerator gen, final String type) throws IOException {
+            for (final Map.Entry<String, PackageMeta> item
+                : new TreeMap<>(this.items).entrySet()) {
+                if (item.getKey().endsWith(type)) {
+                    gen.writeFieldName(item.getKey());
+                    item.getValue().write(gen);
+                }
+            }
+        }
+    }
+
+    /**
+     * Entries from the map of file names and metadata json, adapts `javax.json` metadata
+     * to {@link Packages}.
+     * @since 0.6
+     */
+    final class FromMap implements Entries {
+
+        /**
+         * Items, filename <-> metadata json.
+         */
+        private final Map<String, JsonObject> items;
+
+        /**
+         * Ctor.
+         * @param items Items, filename <-> metadata json
+         */
+        public FromMap(final Map<String, JsonObject> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean contains(final String filename) {
+            return this.items.containsKey(filename);
+        }
+
+        @Override
+        public int size() {
+            return this.items.size();
+        }
+
+        @Override
+        public void write(final JsonGenerator gen, final String type) throws IOException {
+            for (final Map.Entry<String, JsonObject> item
+                : new TreeMap<>(this.items).entrySet()) {
+                if (item.getKey().endsWith(type)) {
+                    gen.writeFieldName(item.getKey());
+                    new PackageMeta.Tree(item.getValue()).write(gen);
+                }
+            }
+        }
+    }
+
     /**
      * Implementation of {@link MergedJson} based on {@link com.fasterxml.jackson}.
+     * Each merge emits `com.artipie.conda.RepodataMerge` flight recorder event.
      * @since 0.2
      */
     final class Jackson implements MergedJson {
 
+        /**
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.RepodataMerge", "Repodata merge",
+            Collections.emptyList(), Arrays.asList("entriesAdded", "bytesIn")
+        );
+
         /**
          * Json object name `packages`.
          */
@@ -75,8 +229,14 @@ public interface MergedJson {
         }
 
         @Override
-        @SuppressWarnings("PMD.AssignmentInOperand")
         public void merge(final Map<String, JsonObject> items) throws IOException {
+            this.merge(new FromMap(items));
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AssignmentInOperand")
+        public void merge(final Entries items) throws IOException {
+            final FlightEvent.Started event = Jackson.EVENT.begin();
             if (this.parser.isPresent()) {
                 final JsonParser prsr = this.parser.get();
                 JsonToken token;
@@ -109,6 +269,10 @@ public interface MergedJson {
                 this.writePackagesItem(items, Jackson.PACKAGES_CONDA, Jackson.CONDA);
             }
             this.gnrt.close();
+            event.set("entriesAdded", items.size()).set(
+                "bytesIn",
+                this.parser.map(prsr -> prsr.getCurrentLocation().getByteOffset()).orElse(0L)
+            ).commit();
         }
 
         /**
@@ -121,7 +285,7 @@ public interface MergedJson {
          * @throws IOException On IO error
          * @checkstyle ParameterNumberCheck (5 lines)
          */
-        private void processJsonToken(final Map<String, JsonObject> items, final JsonParser prsr,
+        private void processJsonToken(final Entries items, final JsonParser prsr,
             final JsonToken token, final AtomicReference<Boolean> tars,
             final AtomicReference<Boolean> condas) throws IOException {
             if (token == JsonToken.FIELD_NAME && Jackson.PACKAGES.equals(prsr.getCurrentName())) {
@@ -136,12 +300,11 @@ public interface MergedJson {
                 || prsr.getCurrentName().endsWith(Jackson.CONDA))) {
                 final String name = prsr.getCurrentName();
                 prsr.nextToken();
-                prsr.setCodec(new ObjectMapper());
-                final ObjectNode nodes = prsr.<ObjectNode>readValueAsTree();
-                if (!items.containsKey(name)) {
+                if (items.contains(name)) {
+                    prsr.skipChildren();
+                } else {
                     this.gnrt.writeFieldName(name);
-                    this.gnrt.setCodec(new ObjectMapper());
-                    this.gnrt.writeTree(nodes);
+                    this.gnrt.copyCurrentStructure(prsr);
                 }
             } else {
                 this.gnrt.copyCurrentEvent(prsr);
@@ -156,11 +319,11 @@ public interface MergedJson {
          * @param type Packages type to write
          * @throws IOException On IO error
          */
-        private void writePackagesItem(final Map<String, JsonObject> items,
+        private void writePackagesItem(final Entries items,
             final String name, final String type) throws IOException {
             this.gnrt.writeFieldName(name);
             this.gnrt.writeStartObject();
-            this.writeNewPackages(items, type);
+            items.write(this.gnrt, type);
             this.gnrt.writeEndObject();
         }
 
@@ -171,28 +334,259 @@ public interface MergedJson {
          * @param type Packages type
          * @throws IOException On IO error
          */
-        private void appendNewPackages(final Map<String, JsonObject> items,
+        private void appendNewPackages(final Entries items,
             final JsonParser prsr, final String type) throws IOException {
             this.gnrt.copyCurrentEvent(prsr);
             prsr.nextToken();
             this.gnrt.copyCurrentEvent(prsr);
-            this.writeNewPackages(items, type);
+            items.write(this.gnrt, type);
         }
+    }
+
+    /**
+     * Implementation of {@link MergedJson} for repodata with packages sorted by file name.
+     * New entries are merge-joined with existing packages of `packages` and `packages.conda`
+     * objects: existing packages are copied until the next new entry file name, the package
+     * with the same file name is replaced. Merge keeps only the current existing package in
+     * memory and the same packages always result in the same output regardless of the order
+     * they were added in. If existing packages are not sorted, the merge fails with
+     * {@link UnsortedRepodataException}, such repodata should be sorted with
+     * {@link SortedJson} first. Each merge emits `com.artipie.conda.RepodataSortedMerge`
+     * flight recorder event.
+     * @since 0.6
+     */
+    final class Sorted implements MergedJson {
 
         /**
-         * Writes new packages (.tar.bz2 or .conda) to json generator.
-         * @param items Items to write
-         * @param type Packages type
+         * Flight recorder event.
+         */
+        private static final FlightEvent EVENT = new FlightEvent(
+            "com.artipie.conda.RepodataSortedMerge", "Sorted repodata merge",
+            Collections.emptyList(), Arrays.asList("entriesAdded", "bytesIn")
+        );
+
+        /**
+         * Json generator.
+         */
+        private final JsonGenerator gnrt;
+
+        /**
+         * Json parser.
+         */
+        private final Optional<JsonParser> parser;
+
+        /**
+         * Ctor.
+         * @param gnrt Json generator
+         * @param parser Json parser
+         */
+        public Sorted(final JsonGenerator gnrt, final Optional<JsonParser> parser) {
+            this.gnrt = gnrt;
+            this.parser = parser;
+        }
+
+        @Override
+        public void merge(final Map<String, JsonObject> items) throws IOException {
+            this.merge(new FromMap(items));
+        }
+
+        @Override
+        public void merge(final Entries items) throws IOException {
+            final FlightEvent.Started event = Sorted.EVENT.begin();
+            this.gnrt.writeStartObject();
+            Set<String> joined = Collections.emptySet();
+            if (this.parser.isPresent()) {
+                joined = this.join(items, this.parser.get());
+            }
+            for (final String name : Arrays.asList(Jackson.PACKAGES, Jackson.PACKAGES_CONDA)) {
+                if (!joined.contains(name)) {
+                    this.gnrt.writeFieldName(name);
+                    this.gnrt.writeStartObject();
+                    items.write(this.gnrt, Sorted.type(name));
+                    this.gnrt.writeEndObject();
+                }
+            }
+            this.gnrt.writeEndObject();
+            this.gnrt.close();
+            event.set("entriesAdded", items.size()).set(
+                "bytesIn",
+                this.parser.map(prsr -> prsr.getCurrentLocation().getByteOffset()).orElse(0L)
+            ).commit();
+        }
+
+        /**
+         * Is it the name of packages object: `packages` or `packages.conda`?
+         * @param name Json field name
+         * @return True if packages object
+         */
+        static boolean packages(final String name) {
+            return Jackson.PACKAGES.equals(name) || Jackson.PACKAGES_CONDA.equals(name);
+        }
+
+        /**
+         * Copies existing repodata fields and joins new entries with existing packages.
+         * @param items New entries
+         * @param prsr Existing repodata parser
+         * @return Names of joined packages objects
          * @throws IOException On IO error
          */
-        private void writeNewPackages(final Map<String, JsonObject> items, final String type)
+        private Set<String> join(final Entries items, final JsonParser prsr)
             throws IOException {
-            for (final String pckg : items.keySet()) {
-                if (pckg.endsWith(type)) {
-                    this.gnrt.writeFieldName(pckg);
-                    this.gnrt.setCodec(new ObjectMapper());
-                    this.gnrt.writeTree(new ObjectMapper().readTree(items.get(pckg).toString()));
+            if (prsr.nextToken() != JsonToken.START_OBJECT) {
+                throw new ArtipieException("Repodata is not a json object");
+            }
+            final Set<String> res = new HashSet<>(2);
+            while (prsr.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = prsr.getCurrentName();
+                this.gnrt.writeFieldName(name);
+                if (prsr.nextToken() == JsonToken.START_OBJECT && Sorted.packages(name)) {
+                    this.gnrt.writeStartObject();
+                    final Existing existing = new Existing(prsr, this.gnrt);
+                    items.write(existing.joined(), Sorted.type(name));
+                    existing.rest();
+                    this.gnrt.writeEndObject();
+                    res.add(name);
+                } else {
+                    this.gnrt.copyCurrentStructure(prsr);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Package type of packages object.
+         * @param name Packages object name
+         * @return Package type, extension `.tar.bz2` or `.conda`
+         */
+        private static String type(final String name) {
+            String res = Jackson.TAR;
+            if (Jackson.PACKAGES_CONDA.equals(name)) {
+                res = Jackson.CONDA;
+            }
+            return res;
+        }
+
+        /**
+         * Existing packages of the packages object the parser is in.
+         * @since 0.6
+         */
+        private static final class Existing {
+
+            /**
+             * Json parser, positioned at the current package value.
+             */
+            private final JsonParser prsr;
+
+            /**
+             * Json generator.
+             */
+            private final JsonGenerator gnrt;
+
+            /**
+             * Current existing package file name, null if there are no more packages.
+             */
+            private String current;
+
+            /**
+             * Last new entry file name.
+             */
+            private String added;
+
+            /**
+             * Ctor.
+             * @param prsr Json parser, positioned at the start of packages object
+             * @param gnrt Json generator
+             * @throws IOException On IO error
+             */
+            Existing(final JsonParser prsr, final JsonGenerator gnrt) throws IOException {
+                this.prsr = prsr;
+                this.gnrt = gnrt;
+                this.current = this.name();
+            }
+
+            /**
+             * Generator for new entries: existing packages are written before each new entry
+             * whose file name is greater and the package with the same file name is skipped.
+             * @return Json generator
+             */
+            JsonGenerator joined() {
+                return new JsonGeneratorDelegate(this.gnrt, true) {
+                    @Override
+                    public void writeFieldName(final String name) throws IOException {
+                        if (this.getOutputContext().getParent().getParent().inRoot()) {
+                            Existing.this.before(name);
+                        }
+                        super.writeFieldName(name);
+                    }
+                };
+            }
+
+            /**
+             * Writes the rest of existing packages.
+             * @throws IOException On IO error
+             */
+            void rest() throws IOException {
+                while (this.current != null) {
+                    this.copy();
+                }
+            }
+
+            /**
+             * Writes existing packages, which go before new entry.
+             * @param filename New entry file name
+             * @throws IOException On IO error
+             */
+            private void before(final String filename) throws IOException {
+                if (this.added != null && this.added.compareTo(filename) >= 0) {
+                    throw new ArtipieException(
+                        String.format("New entry `%s` goes after `%s`", filename, this.added)
+                    );
+                }
+                this.added = filename;
+                while (this.current != null && this.current.compareTo(filename) < 0) {
+                    this.copy();
+                }
+                if (filename.equals(this.current)) {
+                    this.prsr.nextToken();
+                    this.prsr.skipChildren();
+                    this.next();
+                }
+            }
+
+            /**
+             * Copies current existing package.
+             * @throws IOException On IO error
+             */
+            private void copy() throws IOException {
+                this.gnrt.writeFieldName(this.current);
+                this.prsr.nextToken();
+                this.gnrt.copyCurrentStructure(this.prsr);
+                this.next();
+            }
+
+            /**
+             * Moves to the next existing package and checks the order.
+             * @throws IOException On IO error
+             */
+            private void next() throws IOException {
+                final String prev = this.current;
+                this.current = this.name();
+                if (this.current != null && prev.compareTo(this.current) >= 0) {
+                    throw new UnsortedRepodataException(prev, this.current);
+                }
+            }
+
+            /**
+             * Reads next package file name.
+             * @return File name or null if packages object is over
+             * @throws IOException On IO error
+             */
+            private String name() throws IOException {
+                String res = null;
+                if (this.prsr.nextToken() == JsonToken.FIELD_NAME) {
+                    res = this.prsr.getCurrentName();
                 }
+                return res;
             }
         }
     }
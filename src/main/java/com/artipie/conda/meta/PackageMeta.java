@@ -0,0 +1,382 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Package metadata: `info/index.json` content with package size and checksums added, as
+ * it is written to `repodata.json`. Metadata is written into repodata {@link JsonGenerator}
+ * without intermediate serialization, {@link #toString()} returns metadata json.
+ * @since 0.6
+ */
+public interface PackageMeta {
+
+    /**
+     * Metadata with the field added or replaced.
+     * @param name Field name
+     * @param value Field value
+     * @return Package metadata
+     */
+    PackageMeta with(String name, String value);
+
+    /**
+     * Metadata with the field added or replaced.
+     * @param name Field name
+     * @param value Field value
+     * @return Package metadata
+     */
+    PackageMeta with(String name, long value);
+
+    /**
+     * Writes metadata json object to the generator.
+     * @param gen Json generator
+     * @throws IOException On error
+     */
+    void write(JsonGenerator gen) throws IOException;
+
+    /**
+     * Metadata as `javax.json` object.
+     * @return Metadata json
+     */
+    JsonObject json();
+
+    /**
+     * Package metadata as Jackson tree, adapts `javax.json` metadata.
+     * @since 0.6
+     */
+    final class Tree implements PackageMeta {
+
+        /**
+         * Object mapper.
+         */
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        /**
+         * Metadata json.
+         */
+        private final ObjectNode node;
+
+        /**
+         * Ctor.
+         * @param json Metadata json
+         */
+        public Tree(final String json) {
+            this(Tree.parse(json));
+        }
+
+        /**
+         * Ctor.
+         * @param json Metadata json
+         */
+        public Tree(final JsonObject json) {
+            this(Tree.object(json));
+        }
+
+        /**
+         * Ctor.
+         * @param node Metadata json
+         */
+        public Tree(final ObjectNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public PackageMeta with(final String name, final String value) {
+            final ObjectNode res = this.node.deepCopy();
+            res.put(name, value);
+            return new Tree(res);
+        }
+
+        @Override
+        public PackageMeta with(final String name, final long value) {
+            final ObjectNode res = this.node.deepCopy();
+            res.put(name, value);
+            return new Tree(res);
+        }
+
+        @Override
+        public void write(final JsonGenerator gen) throws IOException {
+            Tree.MAPPER.writeTree(gen, this.node);
+        }
+
+        @Override
+        public JsonObject json() {
+            return Json.createReader(new StringReader(this.toString())).readObject();
+        }
+
+        @Override
+        public String toString() {
+            try {
+                return Tree.MAPPER.writeValueAsString(this.node);
+            } catch (final JsonProcessingException err) {
+                throw new ArtipieIOException(err);
+            }
+        }
+
+        /**
+         * Parses json object.
+         * @param json Json text
+         * @return Object node
+         */
+        private static ObjectNode parse(final String json) {
+            final JsonNode res;
+            try {
+                res = Tree.MAPPER.readTree(json);
+            } catch (final JsonProcessingException err) {
+                throw new ArtipieIOException(err);
+            }
+            if (res == null || !res.isObject()) {
+                throw new ArtipieException("Metadata json is not an object");
+            }
+            return (ObjectNode) res;
+        }
+
+        /**
+         * Converts `javax.json` object to Jackson object node.
+         * @param json Json object
+         * @return Object node
+         */
+        private static ObjectNode object(final JsonObject json) {
+            final ObjectNode res = JsonNodeFactory.instance.objectNode();
+            for (final Map.Entry<String, JsonValue> field : json.entrySet()) {
+                res.set(field.getKey(), Tree.node(field.getValue()));
+            }
+            return res;
+        }
+
+        /**
+         * Converts `javax.json` value to Jackson node.
+         * @param value Json value
+         * @return Json node
+         */
+        private static JsonNode node(final JsonValue value) {
+            final JsonNodeFactory factory = JsonNodeFactory.instance;
+            final JsonNode res;
+            switch (value.getValueType()) {
+                case OBJECT:
+                    res = Tree.object((JsonObject) value);
+                    break;
+                case ARRAY:
+                    final ArrayNode array = factory.arrayNode();
+                    for (final JsonValue item : (JsonArray) value) {
+                        array.add(Tree.node(item));
+                    }
+                    res = array;
+                    break;
+                case STRING:
+                    res = factory.textNode(((JsonString) value).getString());
+                    break;
+                case NUMBER:
+                    res = factory.numberNode(((JsonNumber) value).bigDecimalValue());
+                    break;
+                case TRUE:
+                    res = factory.booleanNode(true);
+                    break;
+                case FALSE:
+                    res = factory.booleanNode(false);
+                    break;
+                default:
+                    res = factory.nullNode();
+                    break;
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Package metadata as raw `info/index.json` bytes, which are validated by streaming
+     * parser without building the tree and compacted. New fields are spliced as text before
+     * the closing brace of the object and metadata is written to the generator as raw value,
+     * so metadata is never parsed into objects and serialized again. If the added field
+     * already exists in `index.json`, metadata falls back to {@link Tree} to replace it.
+     * @since 0.6
+     */
+    final class Raw implements PackageMeta {
+
+        /**
+         * Json factory.
+         */
+        private static final JsonFactory FACTORY = new JsonFactory();
+
+        /**
+         * Compacted `index.json` without the closing brace.
+         */
+        private final String head;
+
+        /**
+         * Spliced fields, each one starts with the comma if needed.
+         */
+        private final String tail;
+
+        /**
+         * Top level field names.
+         */
+        private final Set<String> names;
+
+        /**
+         * Ctor.
+         * @param bytes Raw `index.json` content
+         */
+        public Raw(final byte[] bytes) {
+            this(Raw.names(bytes), Raw.head(bytes), "");
+        }
+
+        /**
+         * Ctor.
+         * @param names Top level field names
+         * @param head Compacted `index.json` without the closing brace
+         * @param tail Spliced fields
+         */
+        private Raw(final Set<String> names, final String head, final String tail) {
+            this.head = head;
+            this.tail = tail;
+            this.names = names;
+        }
+
+        @Override
+        public PackageMeta with(final String name, final String value) {
+            final PackageMeta res;
+            if (this.names.contains(name)) {
+                res = new Tree(this.toString()).with(name, value);
+            } else {
+                res = this.splice(
+                    name,
+                    new StringBuilder().append('"')
+                        .append(JsonStringEncoder.getInstance().quoteAsString(value))
+                        .append('"').toString()
+                );
+            }
+            return res;
+        }
+
+        @Override
+        public PackageMeta with(final String name, final long value) {
+            final PackageMeta res;
+            if (this.names.contains(name)) {
+                res = new Tree(this.toString()).with(name, value);
+            } else {
+                res = this.splice(name, Long.toString(value));
+            }
+            return res;
+        }
+
+        @Override
+        public void write(final JsonGenerator gen) throws IOException {
+            gen.writeRawValue(this.toString());
+        }
+
+        @Override
+        public JsonObject json() {
+            return Json.createReader(new StringReader(this.toString())).readObject();
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(this.head.length() + this.tail.length() + 1)
+                .append(this.head).append(this.tail).append('}').toString();
+        }
+
+        /**
+         * Splices new field.
+         * @param name Field name
+         * @param value Serialized field value
+         * @return Package metadata
+         */
+        private PackageMeta splice(final String name, final String value) {
+            final StringBuilder field = new StringBuilder(this.tail);
+            if (!this.names.isEmpty()) {
+                field.append(',');
+            }
+            field.append('"').append(JsonStringEncoder.getInstance().quoteAsString(name))
+                .append("\":").append(value);
+            final Set<String> added = new HashSet<>(this.names);
+            added.add(name);
+            return new Raw(Collections.unmodifiableSet(added), this.head, field.toString());
+        }
+
+        /**
+         * Validates `index.json`, it has to be exactly one json object, and reads top level
+         * field names.
+         * @param bytes Raw `index.json` content
+         * @return Top level field names
+         */
+        private static Set<String> names(final byte[] bytes) {
+            final Set<String> res = new HashSet<>();
+            try (JsonParser parser = Raw.FACTORY.createParser(bytes)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new ArtipieException("Package metadata is not a json object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    res.add(parser.getCurrentName());
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                if (parser.nextToken() != null) {
+                    throw new ArtipieException("Unexpected content after package metadata");
+                }
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+            return Collections.unmodifiableSet(res);
+        }
+
+        /**
+         * Compacts valid json object: removes whitespaces outside of strings and
+         * the closing brace.
+         * @param bytes Raw `index.json` content
+         * @return Compacted json without the closing brace
+         */
+        private static String head(final byte[] bytes) {
+            final String json = new String(bytes, StandardCharsets.UTF_8);
+            final StringBuilder res = new StringBuilder(json.length());
+            boolean str = false;
+            boolean escaped = false;
+            for (int idx = 0; idx < json.length(); idx = idx + 1) {
+                final char chr = json.charAt(idx);
+                if (str) {
+                    res.append(chr);
+                    if (escaped) {
+                        escaped = false;
+                    } else if (chr == '\\') {
+                        escaped = true;
+                    } else if (chr == '"') {
+                        str = false;
+                    }
+                } else if (!Character.isWhitespace(chr) && chr != '\uFEFF') {
+                    res.append(chr);
+                    str = chr == '"';
+                }
+            }
+            res.setLength(res.lastIndexOf("}"));
+            return res.toString();
+        }
+    }
+}
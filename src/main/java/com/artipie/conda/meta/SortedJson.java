@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.ArtipieException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Sorts `packages` and `packages.conda` objects of repodata by file name, other repodata
+ * fields are copied as is. Packages are sorted with {@link SpilledEntries}, so only file
+ * names are kept in memory once serialized packages exceed the memory budget. Sorting is
+ * required once for repodata written before {@link MergedJson.Sorted} mode was used.
+ * @since 0.6
+ */
+public final class SortedJson {
+
+    /**
+     * Default memory budget: characters of serialized packages kept in memory.
+     */
+    public static final long BUDGET = 16L * 1024 * 1024;
+
+    /**
+     * Json factory to copy packages.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Json generator.
+     */
+    private final JsonGenerator gnrt;
+
+    /**
+     * Json parser.
+     */
+    private final JsonParser parser;
+
+    /**
+     * Memory budget.
+     */
+    private final long budget;
+
+    /**
+     * Ctor.
+     * @param gnrt Json generator
+     * @param parser Json parser
+     */
+    public SortedJson(final JsonGenerator gnrt, final JsonParser parser) {
+        this(gnrt, parser, SortedJson.BUDGET);
+    }
+
+    /**
+     * Ctor.
+     * @param gnrt Json generator
+     * @param parser Json parser
+     * @param budget Memory budget: characters of serialized packages kept in memory
+     */
+    public SortedJson(final JsonGenerator gnrt, final JsonParser parser, final long budget) {
+        this.gnrt = gnrt;
+        this.parser = parser;
+        this.budget = budget;
+    }
+
+    /**
+     * Writes sorted repodata.
+     * @throws IOException On IO error
+     */
+    public void sort() throws IOException {
+        if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ArtipieException("Repodata is not a json object");
+        }
+        this.gnrt.writeStartObject();
+        while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = this.parser.getCurrentName();
+            this.gnrt.writeFieldName(name);
+            if (this.parser.nextToken() == JsonToken.START_OBJECT
+                && MergedJson.Sorted.packages(name)) {
+                this.gnrt.writeStartObject();
+                this.packages();
+                this.gnrt.writeEndObject();
+            } else {
+                this.gnrt.copyCurrentStructure(this.parser);
+            }
+        }
+        this.gnrt.writeEndObject();
+        this.gnrt.close();
+    }
+
+    /**
+     * Writes packages of the current object sorted by file name.
+     * @throws IOException On IO error
+     */
+    private void packages() throws IOException {
+        try (SpilledEntries entries = new SpilledEntries(this.budget)) {
+            while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String filename = this.parser.getCurrentName();
+                this.parser.nextToken();
+                final StringWriter json = new StringWriter();
+                try (JsonGenerator copy = SortedJson.FACTORY.createGenerator(json)) {
+                    copy.copyCurrentStructure(this.parser);
+                }
+                entries.add("", filename, json.toString());
+            }
+            entries.write(this.gnrt, "");
+        }
+    }
+}
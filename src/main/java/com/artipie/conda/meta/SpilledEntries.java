@@ -0,0 +1,374 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.json.JsonObject;
+
+/**
+ * New repodata entries which are kept in memory until serialized metadata exceeds the memory
+ * budget, then entries are spilled to the temporary file as a run sorted by file name.
+ * On write runs and in-memory entries are merged in one pass in file name order, if the
+ * entry for the same file was added several times, the last one is written. Only file names
+ * are kept in memory for all the entries. Temporary files are deleted on close.
+ * @since 0.6
+ */
+public final class SpilledEntries implements MergedJson.Entries, Closeable {
+
+    /**
+     * File name and metadata separator in the run file.
+     */
+    private static final char SEP = '\t';
+
+    /**
+     * Directory for the runs.
+     */
+    private final Path dir;
+
+    /**
+     * Memory budget: characters of serialized metadata and file names kept in memory.
+     */
+    private final long budget;
+
+    /**
+     * File names of all the entries.
+     */
+    private final Set<String> names;
+
+    /**
+     * In-memory entries by package type: file name and serialized metadata.
+     */
+    private final Map<String, NavigableMap<String, String>> memory;
+
+    /**
+     * Spilled runs by package type, from the oldest to the newest.
+     */
+    private final Map<String, List<Path>> runs;
+
+    /**
+     * Characters kept in memory.
+     */
+    private long used;
+
+    /**
+     * Ctor.
+     * @param budget Memory budget: characters of serialized metadata kept in memory
+     */
+    public SpilledEntries(final long budget) {
+        this(Paths.get(System.getProperty("java.io.tmpdir")), budget);
+    }
+
+    /**
+     * Ctor.
+     * @param dir Directory for the runs
+     * @param budget Memory budget: characters of serialized metadata kept in memory
+     */
+    public SpilledEntries(final Path dir, final long budget) {
+        this.dir = dir;
+        this.budget = budget;
+        this.names = new HashSet<>();
+        this.memory = new HashMap<>();
+        this.runs = new HashMap<>();
+    }
+
+    /**
+     * Adds entry, replaces previously added entry for the same file.
+     * @param filename Package file name
+     * @param json Package metadata
+     * @throws IOException On error while spilling entries
+     */
+    public void add(final String filename, final JsonObject json) throws IOException {
+        this.add(filename, new PackageMeta.Tree(json));
+    }
+
+    /**
+     * Adds entry, replaces previously added entry for the same file.
+     * @param filename Package file name
+     * @param meta Package metadata
+     * @throws IOException On error while spilling entries
+     */
+    public void add(final String filename, final PackageMeta meta) throws IOException {
+        this.add(SpilledEntries.type(filename), filename, meta.toString());
+    }
+
+    @Override
+    public boolean contains(final String filename) {
+        return this.names.contains(filename);
+    }
+
+    @Override
+    public int size() {
+        return this.names.size();
+    }
+
+    @Override
+    public void write(final JsonGenerator gen, final String type) throws IOException {
+        final List<Source> sources = new ArrayList<>(10);
+        try {
+            for (final Path run : this.runs.getOrDefault(type, new ArrayList<>(0))) {
+                sources.add(new Source(sources.size(), new RunIterator(run)));
+            }
+            sources.add(
+                new Source(
+                    sources.size(),
+                    this.memory.getOrDefault(type, new TreeMap<>()).entrySet().iterator()
+                )
+            );
+            final PriorityQueue<Source> queue = new PriorityQueue<>(
+                sources.size(),
+                Comparator.comparing(Source::key)
+                    .thenComparing(Comparator.comparingInt(Source::index).reversed())
+            );
+            for (final Source source : sources) {
+                if (source.next()) {
+                    queue.add(source);
+                }
+            }
+            while (!queue.isEmpty()) {
+                final Source newest = queue.poll();
+                final String key = newest.key();
+                gen.writeFieldName(key);
+                gen.writeRawValue(newest.value());
+                while (!queue.isEmpty() && queue.peek().key().equals(key)) {
+                    final Source older = queue.poll();
+                    if (older.next()) {
+                        queue.add(older);
+                    }
+                }
+                if (newest.next()) {
+                    queue.add(newest);
+                }
+            }
+        } finally {
+            for (final Source source : sources) {
+                source.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final List<Path> paths : this.runs.values()) {
+            for (final Path run : paths) {
+                Files.deleteIfExists(run);
+            }
+        }
+        this.runs.clear();
+    }
+
+    /**
+     * Adds serialized entry of the type, replaces previously added entry for the same file.
+     * Entries are written by type, see {@link #write(JsonGenerator, String)}.
+     * @param type Entries type
+     * @param filename Package file name
+     * @param text Compact metadata json
+     * @throws IOException On error while spilling entries
+     */
+    void add(final String type, final String filename, final String text) throws IOException {
+        this.names.add(filename);
+        final String prev = this.memory.computeIfAbsent(type, key -> new TreeMap<>())
+            .put(filename, text);
+        this.used = this.used + filename.length() + text.length();
+        if (prev != null) {
+            this.used = this.used - filename.length() - prev.length();
+        }
+        if (this.used > this.budget) {
+            this.spill();
+        }
+    }
+
+    /**
+     * Writes in-memory entries to the runs and clears them.
+     * @throws IOException On error
+     */
+    private void spill() throws IOException {
+        for (final Map.Entry<String, NavigableMap<String, String>> type
+            : this.memory.entrySet()) {
+            if (type.getValue().isEmpty()) {
+                continue;
+            }
+            final Path run = Files.createTempFile(this.dir, "repodata-run", ".tsv");
+            this.runs.computeIfAbsent(type.getKey(), key -> new ArrayList<>(10)).add(run);
+            try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+                for (final Map.Entry<String, String> entry : type.getValue().entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write(SpilledEntries.SEP);
+                    writer.write(entry.getValue());
+                    writer.newLine();
+                }
+            }
+            type.getValue().clear();
+        }
+        this.used = 0;
+    }
+
+    /**
+     * Package type by file name.
+     * @param filename File name
+     * @return Type: `.conda`, `.tar.bz2` or empty for unknown type
+     */
+    private static String type(final String filename) {
+        String res = "";
+        if (filename.endsWith(".conda")) {
+            res = ".conda";
+        } else if (filename.endsWith(".tar.bz2")) {
+            res = ".tar.bz2";
+        }
+        return res;
+    }
+
+    /**
+     * Source of sorted entries: run or in-memory entries.
+     * @since 0.6
+     */
+    private static final class Source implements Closeable {
+
+        /**
+         * Source index, the newer source has greater index.
+         */
+        private final int idx;
+
+        /**
+         * Entries.
+         */
+        private final Iterator<Map.Entry<String, String>> entries;
+
+        /**
+         * Current entry.
+         */
+        private Map.Entry<String, String> current;
+
+        /**
+         * Ctor.
+         * @param idx Source index
+         * @param entries Entries
+         */
+        Source(final int idx, final Iterator<Map.Entry<String, String>> entries) {
+            this.idx = idx;
+            this.entries = entries;
+        }
+
+        /**
+         * Moves to the next entry.
+         * @return True if there is next entry
+         */
+        boolean next() {
+            boolean res = false;
+            if (this.entries.hasNext()) {
+                this.current = this.entries.next();
+                res = true;
+            }
+            return res;
+        }
+
+        /**
+         * Current entry file name.
+         * @return File name
+         */
+        String key() {
+            return this.current.getKey();
+        }
+
+        /**
+         * Current entry serialized metadata.
+         * @return Metadata json
+         */
+        String value() {
+            return this.current.getValue();
+        }
+
+        /**
+         * Source index.
+         * @return Index
+         */
+        int index() {
+            return this.idx;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.entries instanceof Closeable) {
+                ((Closeable) this.entries).close();
+            }
+        }
+    }
+
+    /**
+     * Entries of the run file.
+     * @since 0.6
+     */
+    private static final class RunIterator
+        implements Iterator<Map.Entry<String, String>>, Closeable {
+
+        /**
+         * Run reader.
+         */
+        private final BufferedReader reader;
+
+        /**
+         * Next line, null if the run is over.
+         */
+        private String line;
+
+        /**
+         * Ctor.
+         * @param run Run file
+         * @throws IOException On error
+         */
+        RunIterator(final Path run) throws IOException {
+            this.reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+            this.line = this.reader.readLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.line != null;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (this.line == null) {
+                throw new NoSuchElementException("Run is over");
+            }
+            final int sep = this.line.indexOf(SpilledEntries.SEP);
+            final Map.Entry<String, String> res = new AbstractMap.SimpleImmutableEntry<>(
+                this.line.substring(0, sep), this.line.substring(sep + 1)
+            );
+            try {
+                this.line = this.reader.readLine();
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+            return res;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Repodata packages are not sorted by file name, thrown by {@link MergedJson.Sorted} and
+ * sorted {@link com.artipie.conda.MultiRepodata.Streaming}. Such repodata has to be sorted
+ * with {@link SortedJson} first.
+ * @since 0.6
+ */
+public final class UnsortedRepodataException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 4135327893712958230L;
+
+    /**
+     * Ctor.
+     * @param prev Previous package file name
+     * @param next Next package file name, which is less than or equal to the previous one
+     */
+    public UnsortedRepodataException(final String prev, final String next) {
+        super(String.format("Repodata is not sorted: `%s` goes after `%s`", next, prev));
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import com.artipie.ArtipieException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JDK Flight Recorder event type. The type is registered in flight recorder on first use
+ * with JFR dynamic events API, which is looked up by reflection: the adapter is compiled for
+ * Java 8 and runs on JVMs without flight recorder, where events are never enabled.
+ * When the type is not enabled in any running recording, {@link #begin()} returns no-op
+ * event without any allocations, so instrumented code paths cost one boolean check.
+ * Event fields are either strings or long numbers, field value is set by field name.
+ * @since 0.6
+ */
+public final class FlightEvent {
+
+    /**
+     * Events category.
+     */
+    private static final String[] CATEGORY = {"Artipie", "Conda"};
+
+    /**
+     * Event type name.
+     */
+    private final String name;
+
+    /**
+     * Event type label.
+     */
+    private final String label;
+
+    /**
+     * Event fields names, string fields go first.
+     */
+    private final String[] fields;
+
+    /**
+     * Count of string fields.
+     */
+    private final int texts;
+
+    /**
+     * Registered event type, null until first use.
+     */
+    private final AtomicReference<Registered> type;
+
+    /**
+     * Ctor.
+     * @param name Event type name, for example `com.artipie.conda.RepodataMerge`
+     * @param label Event type label
+     * @param texts String fields names
+     * @param numbers Long fields names
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public FlightEvent(final String name, final String label, final List<String> texts,
+        final List<String> numbers) {
+        this.name = name;
+        this.label = label;
+        final List<String> all = new ArrayList<>(texts);
+        all.addAll(numbers);
+        this.fields = all.toArray(new String[0]);
+        this.texts = texts.size();
+        this.type = new AtomicReference<>();
+    }
+
+    /**
+     * Is this event type enabled in any running recording?
+     * @return True if enabled
+     */
+    public boolean enabled() {
+        return this.registered().enabled();
+    }
+
+    /**
+     * Begins new event, event duration is measured from this call to {@link Started#commit()}.
+     * @return Started event, no-op if the event type is not enabled
+     */
+    public Started begin() {
+        final Registered reg = this.registered();
+        Started res = Started.NOP;
+        if (reg.enabled()) {
+            res = new Started(this, reg.begin());
+        }
+        return res;
+    }
+
+    /**
+     * Registers event type on first call.
+     * @return Registered event type
+     */
+    private Registered registered() {
+        Registered res = this.type.get();
+        if (res == null) {
+            synchronized (this.type) {
+                res = this.type.get();
+                if (res == null) {
+                    res = Registered.create(this.name, this.label, this.fields, this.texts);
+                    this.type.set(res);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Index of the field.
+     * @param field Field name
+     * @return Field index
+     */
+    private int index(final String field) {
+        int res = -1;
+        for (int idx = 0; idx < this.fields.length; idx = idx + 1) {
+            if (this.fields[idx].equals(field)) {
+                res = idx;
+                break;
+            }
+        }
+        if (res < 0) {
+            throw new IllegalArgumentException(
+                String.format("Event %s has no field %s", this.name, field)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Started event.
+     * @since 0.6
+     */
+    public static final class Started {
+
+        /**
+         * No-op event.
+         */
+        static final Started NOP = new Started(null, null);
+
+        /**
+         * Event type, null for no-op event.
+         */
+        private final FlightEvent type;
+
+        /**
+         * Flight recorder event instance, null for no-op event.
+         */
+        private final Object event;
+
+        /**
+         * Ctor.
+         * @param type Event type
+         * @param event Flight recorder event instance
+         */
+        private Started(final FlightEvent type, final Object event) {
+            this.type = type;
+            this.event = event;
+        }
+
+        /**
+         * Sets string field value.
+         * @param field Field name
+         * @param value Value
+         * @return Itself
+         */
+        public Started set(final String field, final String value) {
+            if (this.event != null) {
+                this.type.registered().set(this.event, this.type.index(field), value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets long field value.
+         * @param field Field name
+         * @param value Value
+         * @return Itself
+         */
+        public Started set(final String field, final long value) {
+            if (this.event != null) {
+                this.type.registered().set(this.event, this.type.index(field), value);
+            }
+            return this;
+        }
+
+        /**
+         * Ends and commits the event.
+         */
+        public void commit() {
+            if (this.event != null) {
+                this.type.registered().commit(this.event);
+            }
+        }
+    }
+
+    /**
+     * Event type registered in flight recorder.
+     * @since 0.6
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private static final class Registered {
+
+        /**
+         * Event type registered when flight recorder is absent.
+         */
+        private static final Registered ABSENT = new Registered(
+            MethodHandles.constant(boolean.class, false), null, null, null, null
+        );
+
+        /**
+         * Event type enabled check.
+         */
+        private final MethodHandle check;
+
+        /**
+         * New event factory method.
+         */
+        private final MethodHandle create;
+
+        /**
+         * Event begin method.
+         */
+        private final MethodHandle start;
+
+        /**
+         * Event field setter.
+         */
+        private final MethodHandle setter;
+
+        /**
+         * Event commit method.
+         */
+        private final MethodHandle end;
+
+        /**
+         * Ctor.
+         * @param check Event type enabled check
+         * @param create New event factory method
+         * @param start Event begin method
+         * @param setter Event field setter
+         * @param end Event commit method
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private Registered(final MethodHandle check, final MethodHandle create,
+            final MethodHandle start, final MethodHandle setter, final MethodHandle end) {
+            this.check = check;
+            this.create = create;
+            this.start = start;
+            this.setter = setter;
+            this.end = end;
+        }
+
+        /**
+         * Registers event type with flight recorder dynamic events API.
+         * @param name Event type name
+         * @param label Event type label
+         * @param fields Fields names
+         * @param texts Count of string fields
+         * @return Registered event type, absent if there is no flight recorder in the JVM
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        static Registered create(final String name, final String label, final String[] fields,
+            final int texts) {
+            Registered res;
+            try {
+                final Class<?> annotation = Class.forName("jdk.jfr.AnnotationElement");
+                final Class<?> descriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                final Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+                final Class<?> event = Class.forName("jdk.jfr.Event");
+                final Class<?> etype = Class.forName("jdk.jfr.EventType");
+                final List<Object> annotations = Arrays.asList(
+                    annotation.getConstructor(Class.class, Object.class)
+                        .newInstance(Class.forName("jdk.jfr.Name"), name),
+                    annotation.getConstructor(Class.class, Object.class)
+                        .newInstance(Class.forName("jdk.jfr.Label"), label),
+                    annotation.getConstructor(Class.class, Object.class)
+                        .newInstance(Class.forName("jdk.jfr.Category"), FlightEvent.CATEGORY)
+                );
+                final List<Object> values = new ArrayList<>(fields.length);
+                for (int idx = 0; idx < fields.length; idx = idx + 1) {
+                    Class<?> cls = long.class;
+                    if (idx < texts) {
+                        cls = String.class;
+                    }
+                    values.add(
+                        descriptor.getConstructor(Class.class, String.class)
+                            .newInstance(cls, fields[idx])
+                    );
+                }
+                final Object created = factory.getMethod("create", List.class, List.class)
+                    .invoke(null, annotations, values);
+                final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                res = new Registered(
+                    lookup.findVirtual(etype, "isEnabled", MethodType.methodType(boolean.class))
+                        .bindTo(factory.getMethod("getEventType").invoke(created)),
+                    lookup.findVirtual(factory, "newEvent", MethodType.methodType(event))
+                        .bindTo(created),
+                    lookup.findVirtual(event, "begin", MethodType.methodType(void.class)),
+                    lookup.findVirtual(
+                        event, "set", MethodType.methodType(void.class, int.class, Object.class)
+                    ),
+                    lookup.findVirtual(event, "commit", MethodType.methodType(void.class))
+                );
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final ReflectiveOperationException | RuntimeException err) {
+                res = Registered.ABSENT;
+            }
+            return res;
+        }
+
+        /**
+         * Is this event type enabled in any running recording?
+         * @return True if enabled
+         */
+        boolean enabled() {
+            try {
+                return (boolean) this.check.invoke();
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Throwable err) {
+                throw new ArtipieException(err);
+            }
+        }
+
+        /**
+         * Creates and begins new event.
+         * @return Flight recorder event instance
+         */
+        Object begin() {
+            try {
+                final Object res = this.create.invoke();
+                this.start.invoke(res);
+                return res;
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Throwable err) {
+                throw new ArtipieException(err);
+            }
+        }
+
+        /**
+         * Sets event field value.
+         * @param event Flight recorder event instance
+         * @param idx Field index
+         * @param value Value
+         */
+        void set(final Object event, final int idx, final Object value) {
+            try {
+                this.setter.invoke(event, idx, value);
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Throwable err) {
+                throw new ArtipieException(err);
+            }
+        }
+
+        /**
+         * Ends and commits the event.
+         * @param event Flight recorder event instance
+         */
+        void commit(final Object event) {
+            try {
+                this.end.invoke(event);
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Throwable err) {
+                throw new ArtipieException(err);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dependency-free in-memory metrics registry. Metrics are created on first request and live
+ * as long as the registry, recorded values can be read with {@link #accept(Visitor)}: metrics
+ * of each kind are visited sorted by {@link MetricId}.
+ * @since 0.6
+ */
+public final class InMemoryMetrics implements Metrics {
+
+    /**
+     * Counters.
+     */
+    private final ConcurrentMap<MetricId, LongCounter> counters;
+
+    /**
+     * Histograms.
+     */
+    private final ConcurrentMap<MetricId, LongHistogram> histograms;
+
+    /**
+     * Gauges.
+     */
+    private final ConcurrentMap<MetricId, LongGauge> gauges;
+
+    /**
+     * Ctor.
+     */
+    public InMemoryMetrics() {
+        this.counters = new ConcurrentSkipListMap<>();
+        this.histograms = new ConcurrentSkipListMap<>();
+        this.gauges = new ConcurrentSkipListMap<>();
+    }
+
+    @Override
+    public Counter counter(final String name, final String... labels) {
+        return this.counters.computeIfAbsent(
+            new MetricId(name, labels), id -> new LongCounter()
+        );
+    }
+
+    @Override
+    public Histogram histogram(final String name, final String... labels) {
+        return this.histograms.computeIfAbsent(
+            new MetricId(name, labels), id -> new LongHistogram()
+        );
+    }
+
+    @Override
+    public Gauge gauge(final String name, final String... labels) {
+        return this.gauges.computeIfAbsent(
+            new MetricId(name, labels), id -> new LongGauge()
+        );
+    }
+
+    /**
+     * Visits all the metrics of the registry.
+     * @param visitor Visitor
+     */
+    public void accept(final Visitor visitor) {
+        this.counters.forEach((id, counter) -> visitor.counter(id, counter.value()));
+        this.gauges.forEach((id, gauge) -> visitor.gauge(id, gauge.value()));
+        this.histograms.forEach(visitor::histogram);
+    }
+
+    /**
+     * Metrics visitor.
+     * @since 0.6
+     */
+    public interface Visitor {
+
+        /**
+         * Visits counter.
+         * @param id Counter id
+         * @param value Counter value
+         */
+        void counter(MetricId id, long value);
+
+        /**
+         * Visits gauge.
+         * @param id Gauge id
+         * @param value Gauge value
+         */
+        void gauge(MetricId id, long value);
+
+        /**
+         * Visits histogram.
+         * @param id Histogram id
+         * @param histogram Histogram
+         */
+        void histogram(MetricId id, LongHistogram histogram);
+    }
+
+    /**
+     * Counter on {@link LongAdder}.
+     * @since 0.6
+     */
+    private static final class LongCounter implements Counter {
+
+        /**
+         * Counter value.
+         */
+        private final LongAdder adder;
+
+        /**
+         * Ctor.
+         */
+        LongCounter() {
+            this.adder = new LongAdder();
+        }
+
+        @Override
+        public void add(final long amount) {
+            this.adder.add(amount);
+        }
+
+        /**
+         * Counter value.
+         * @return Value
+         */
+        long value() {
+            return this.adder.sum();
+        }
+    }
+
+    /**
+     * Gauge on {@link AtomicLong}.
+     * @since 0.6
+     */
+    private static final class LongGauge implements Gauge {
+
+        /**
+         * Gauge value.
+         */
+        private final AtomicLong val;
+
+        /**
+         * Ctor.
+         */
+        LongGauge() {
+            this.val = new AtomicLong();
+        }
+
+        @Override
+        public void set(final long value) {
+            this.val.set(value);
+        }
+
+        /**
+         * Gauge value.
+         * @return Value
+         */
+        long value() {
+            return this.val.get();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram with fixed buckets. Each bucket counts values less than or equal to its upper
+ * bound and greater than the bound of the previous bucket, the last bucket counts values
+ * greater than all the bounds.
+ * @since 0.6
+ */
+public final class LongHistogram implements Metrics.Histogram {
+
+    /**
+     * Default bounds: 1-2-5 series from 100 to 50 000 000 000, suitable both for
+     * durations in nanoseconds and for sizes in bytes.
+     */
+    @SuppressWarnings("PMD.LongVariable")
+    private static final long[] DEFAULT_BOUNDS = LongHistogram.series(100L, 50_000_000_000L);
+
+    /**
+     * Buckets upper bounds, ascending.
+     */
+    private final long[] bounds;
+
+    /**
+     * Buckets counters, one more than bounds.
+     */
+    private final LongAdder[] buckets;
+
+    /**
+     * Sum of the recorded values.
+     */
+    private final LongAdder total;
+
+    /**
+     * Ctor with default bounds.
+     */
+    public LongHistogram() {
+        this(LongHistogram.DEFAULT_BOUNDS);
+    }
+
+    /**
+     * Ctor.
+     * @param bounds Buckets upper bounds, ascending
+     */
+    public LongHistogram(final long... bounds) {
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int idx = 0; idx < this.buckets.length; idx = idx + 1) {
+            this.buckets[idx] = new LongAdder();
+        }
+        this.total = new LongAdder();
+    }
+
+    @Override
+    public void record(final long value) {
+        int idx = Arrays.binarySearch(this.bounds, value);
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        this.buckets[idx].increment();
+        this.total.add(value);
+    }
+
+    /**
+     * Count of bounded buckets, the overflow bucket is not included.
+     * @return Bounds count
+     */
+    public int bounds() {
+        return this.bounds.length;
+    }
+
+    /**
+     * Upper bound of the bucket.
+     * @param idx Bucket index
+     * @return Upper bound
+     */
+    public long bound(final int idx) {
+        return this.bounds[idx];
+    }
+
+    /**
+     * Count of values in the bucket, bucket with index {@link #bounds()} is the overflow
+     * bucket.
+     * @param idx Bucket index
+     * @return Values count
+     */
+    public long count(final int idx) {
+        return this.buckets[idx].sum();
+    }
+
+    /**
+     * Count of all recorded values.
+     * @return Values count
+     */
+    public long count() {
+        long res = 0;
+        for (final LongAdder bucket : this.buckets) {
+            res = res + bucket.sum();
+        }
+        return res;
+    }
+
+    /**
+     * Sum of all recorded values.
+     * @return Sum
+     */
+    public long sum() {
+        return this.total.sum();
+    }
+
+    /**
+     * 1-2-5 series of bounds.
+     * @param from The least bound
+     * @param upto The greatest bound
+     * @return Bounds
+     */
+    private static long[] series(final long from, final long upto) {
+        final long[] steps = {1, 2, 5};
+        long[] res = new long[0];
+        for (long base = from; base <= upto; base = base * 10) {
+            for (final long step : steps) {
+                if (base * step <= upto) {
+                    res = Arrays.copyOf(res, res.length + 1);
+                    res[res.length - 1] = base * step;
+                }
+            }
+        }
+        return res;
+    }
+}
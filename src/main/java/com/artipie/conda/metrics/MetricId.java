@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Metric identifier: name and labels. Identifiers are ordered by name and then by labels,
+ * so that the metrics of the same name are next to each other in sorted collections.
+ * @since 0.6
+ */
+public final class MetricId implements Comparable<MetricId> {
+
+    /**
+     * Metric name.
+     */
+    private final String name;
+
+    /**
+     * Labels names and values pairs.
+     */
+    private final String[] labels;
+
+    /**
+     * Ctor.
+     * @param name Metric name
+     * @param labels Labels names and values pairs
+     */
+    public MetricId(final String name, final String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                String.format("Labels of metric `%s` are not name-value pairs", name)
+            );
+        }
+        this.name = name;
+        this.labels = labels.clone();
+    }
+
+    /**
+     * Metric name.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Labels count.
+     * @return Count of labels
+     */
+    public int size() {
+        return this.labels.length / 2;
+    }
+
+    /**
+     * Label name.
+     * @param idx Label index
+     * @return Name
+     */
+    public String label(final int idx) {
+        return this.labels[idx * 2];
+    }
+
+    /**
+     * Label value.
+     * @param idx Label index
+     * @return Value
+     */
+    public String value(final int idx) {
+        return this.labels[idx * 2 + 1];
+    }
+
+    @Override
+    public int compareTo(final MetricId other) {
+        int res = this.name.compareTo(other.name);
+        final int len = Math.min(this.labels.length, other.labels.length);
+        for (int idx = 0; res == 0 && idx < len; idx = idx + 1) {
+            res = this.labels[idx].compareTo(other.labels[idx]);
+        }
+        if (res == 0) {
+            res = Integer.compare(this.labels.length, other.labels.length);
+        }
+        return res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        final boolean res;
+        if (this == other) {
+            res = true;
+        } else if (other == null || this.getClass() != other.getClass()) {
+            res = false;
+        } else {
+            final MetricId that = (MetricId) other;
+            res = this.name.equals(that.name) && Arrays.equals(this.labels, that.labels);
+        }
+        return res;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.name.hashCode() + Arrays.hashCode(this.labels);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s", this.name, Arrays.toString(this.labels));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Metrics registry. Metrics are identified by name and labels, labels are provided as
+ * `name, value` pairs, for example:
+ * <pre>
+ * metrics.counter("conda_http_requests_total", "route", "repodata", "status", "200").inc();
+ * </pre>
+ * Implementations should return the same metric for the same name and labels. The default
+ * implementation is {@link InMemoryMetrics}, other metrics libraries can be plugged by
+ * implementing this interface.
+ * @since 0.6
+ */
+public interface Metrics {
+
+    /**
+     * Metrics which record nothing.
+     */
+    Metrics NOP = new Nop();
+
+    /**
+     * Obtains counter.
+     * @param name Counter name
+     * @param labels Labels names and values pairs
+     * @return Counter
+     */
+    Counter counter(String name, String... labels);
+
+    /**
+     * Obtains histogram.
+     * @param name Histogram name
+     * @param labels Labels names and values pairs
+     * @return Histogram
+     */
+    Histogram histogram(String name, String... labels);
+
+    /**
+     * Obtains gauge.
+     * @param name Gauge name
+     * @param labels Labels names and values pairs
+     * @return Gauge
+     */
+    Gauge gauge(String name, String... labels);
+
+    /**
+     * Monotonic counter.
+     * @since 0.6
+     */
+    interface Counter {
+
+        /**
+         * Adds amount to counter.
+         * @param amount Amount to add
+         */
+        void add(long amount);
+
+        /**
+         * Increments counter.
+         */
+        default void inc() {
+            this.add(1);
+        }
+    }
+
+    /**
+     * Gauge, the value which is set when it changes.
+     * @since 0.6
+     */
+    interface Gauge {
+
+        /**
+         * Sets gauge value.
+         * @param value Value
+         */
+        void set(long value);
+    }
+
+    /**
+     * Histogram of observed values, for example durations in nanoseconds or sizes in bytes.
+     * @since 0.6
+     */
+    interface Histogram {
+
+        /**
+         * Records observed value.
+         * @param value Value
+         */
+        void record(long value);
+
+        /**
+         * Performs action and records its duration in nanoseconds when it completes,
+         * successfully or not.
+         * @param action Action
+         * @param <T> Result type
+         * @return Action result
+         */
+        default <T> CompletionStage<T> timed(final Supplier<CompletionStage<T>> action) {
+            final long start = System.nanoTime();
+            return action.get().whenComplete(
+                (res, err) -> this.record(System.nanoTime() - start)
+            );
+        }
+    }
+
+    /**
+     * Metrics which record nothing. The same instance is returned as every metric, so
+     * recording costs no allocations.
+     * @since 0.6
+     */
+    final class Nop implements Metrics, Counter, Histogram, Gauge {
+
+        @Override
+        public Counter counter(final String name, final String... labels) {
+            return this;
+        }
+
+        @Override
+        public Histogram histogram(final String name, final String... labels) {
+            return this;
+        }
+
+        @Override
+        public Gauge gauge(final String name, final String... labels) {
+            return this;
+        }
+
+        @Override
+        public void add(final long amount) {
+            // records nothing
+        }
+
+        @Override
+        public void record(final long value) {
+            // records nothing
+        }
+
+        @Override
+        public void set(final long value) {
+            // keeps nothing
+        }
+    }
+}
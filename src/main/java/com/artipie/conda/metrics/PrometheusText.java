@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+/**
+ * Renders {@link InMemoryMetrics} in Prometheus text exposition format. Metrics are appended
+ * to one string builder, nothing is allocated per metric. Histogram buckets are rendered
+ * cumulatively with `le` label as Prometheus expects.
+ * @since 0.6
+ */
+public final class PrometheusText implements InMemoryMetrics.Visitor {
+
+    /**
+     * Output.
+     */
+    private final StringBuilder out;
+
+    /**
+     * Name of the last rendered metric.
+     */
+    private String last;
+
+    /**
+     * Ctor.
+     * @param out Output
+     */
+    public PrometheusText(final StringBuilder out) {
+        this.out = out;
+        this.last = "";
+    }
+
+    /**
+     * Renders all metrics of the registry.
+     * @param metrics Metrics registry
+     * @return Prometheus text
+     */
+    public static String render(final InMemoryMetrics metrics) {
+        final StringBuilder res = new StringBuilder(4096);
+        metrics.accept(new PrometheusText(res));
+        return res.toString();
+    }
+
+    @Override
+    public void counter(final MetricId id, final long value) {
+        this.type(id, "counter");
+        this.sample(id, "", "", 0).append(value).append('\n');
+    }
+
+    @Override
+    public void gauge(final MetricId id, final long value) {
+        this.type(id, "gauge");
+        this.sample(id, "", "", 0).append(value).append('\n');
+    }
+
+    @Override
+    public void histogram(final MetricId id, final LongHistogram histogram) {
+        this.type(id, "histogram");
+        long cumulative = 0;
+        for (int idx = 0; idx < histogram.bounds(); idx = idx + 1) {
+            cumulative = cumulative + histogram.count(idx);
+            this.sample(id, "_bucket", "le", histogram.bound(idx))
+                .append(cumulative).append('\n');
+        }
+        cumulative = cumulative + histogram.count(histogram.bounds());
+        this.sample(id, "_bucket", "le", -1).append(cumulative).append('\n');
+        this.sample(id, "_sum", "", 0).append(histogram.sum()).append('\n');
+        this.sample(id, "_count", "", 0).append(cumulative).append('\n');
+    }
+
+    /**
+     * Appends type line if metric name differs from the previous one.
+     * @param id Metric id
+     * @param type Metric type
+     */
+    private void type(final MetricId id, final String type) {
+        if (!id.name().equals(this.last)) {
+            this.out.append("# TYPE ").append(id.name()).append(' ').append(type).append('\n');
+            this.last = id.name();
+        }
+    }
+
+    /**
+     * Appends sample name and labels, value should be appended after.
+     * @param id Metric id
+     * @param suffix Metric name suffix
+     * @param extra Extra label name, empty if absent
+     * @param bound Extra label value, negative for `+Inf`
+     * @return Output
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private StringBuilder sample(final MetricId id, final String suffix, final String extra,
+        final long bound) {
+        this.out.append(id.name()).append(suffix);
+        if (id.size() > 0 || !extra.isEmpty()) {
+            this.out.append('{');
+            for (int idx = 0; idx < id.size(); idx = idx + 1) {
+                if (idx > 0) {
+                    this.out.append(',');
+                }
+                this.out.append(id.label(idx)).append("=\"");
+                this.escaped(id.value(idx));
+                this.out.append('"');
+            }
+            if (!extra.isEmpty()) {
+                if (id.size() > 0) {
+                    this.out.append(',');
+                }
+                this.out.append(extra).append("=\"");
+                if (bound < 0) {
+                    this.out.append("+Inf");
+                } else {
+                    this.out.append(bound);
+                }
+                this.out.append('"');
+            }
+            this.out.append('}');
+        }
+        return this.out.append(' ');
+    }
+
+    /**
+     * Appends label value escaping backslash, double quote and line feed.
+     * @param value Label value
+     */
+    private void escaped(final String value) {
+        for (int idx = 0; idx < value.length(); idx = idx + 1) {
+            final char chr = value.charAt(idx);
+            if (chr == '\\' || chr == '"') {
+                this.out.append('\\').append(chr);
+            } else if (chr == '\n') {
+                this.out.append("\\n");
+            } else {
+                this.out.append(chr);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+
+/**
+ * Conda adapter metrics.
+ *
+ * @since 0.6
+ */
+package com.artipie.conda.metrics;
@@ -0,0 +1,42 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Exporter which keeps finished traces in memory.
+ * @since 0.6
+ */
+public final class InMemoryTraces implements TraceExporter {
+
+    /**
+     * Finished traces.
+     */
+    private final Collection<Trace> traces;
+
+    /**
+     * Ctor.
+     */
+    public InMemoryTraces() {
+        this.traces = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void export(final Trace trace) {
+        this.traces.add(trace);
+    }
+
+    /**
+     * Finished traces in export order.
+     * @return Traces
+     */
+    public List<Trace> traces() {
+        return new ArrayList<>(this.traces);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import com.artipie.asto.ArtipieIOException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exporter which renders each trace as OpenTelemetry OTLP/JSON `ExportTraceServiceRequest`
+ * and passes it to the sink, for example to post it to collector `/v1/traces` endpoint.
+ * The request is rendered as the root server span with stages as its child spans.
+ * @since 0.6
+ */
+public final class OtlpJsonTraces implements TraceExporter {
+
+    /**
+     * Span kind internal.
+     */
+    private static final int INTERNAL = 1;
+
+    /**
+     * Span kind server.
+     */
+    private static final int SERVER = 2;
+
+    /**
+     * Status code error.
+     */
+    private static final int ERROR = 2;
+
+    /**
+     * Json factory.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Service name.
+     */
+    private final String service;
+
+    /**
+     * Sink to pass rendered json to.
+     */
+    private final Consumer<String> sink;
+
+    /**
+     * Ctor.
+     * @param service Service name
+     * @param sink Sink to pass rendered json to
+     */
+    public OtlpJsonTraces(final String service, final Consumer<String> sink) {
+        this.service = service;
+        this.sink = sink;
+    }
+
+    @Override
+    public void export(final Trace trace) {
+        final StringWriter res = new StringWriter();
+        try (JsonGenerator gen = OtlpJsonTraces.FACTORY.createGenerator(res)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("resourceSpans");
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("resource");
+            OtlpJsonTraces.attributes(gen, "service.name", this.service);
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("scopeSpans");
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("scope");
+            gen.writeStringField("name", "com.artipie.conda");
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("spans");
+            final String root = OtlpJsonTraces.spanId();
+            final long epoch = TimeUnit.MILLISECONDS.toNanos(trace.epoch());
+            OtlpJsonTraces.span(
+                gen, trace.id(), root, "",
+                new Span(trace.name(), 0, trace.duration(), trace.failed()), epoch
+            );
+            OtlpJsonTraces.attributes(gen, "conda.target", trace.target());
+            gen.writeEndObject();
+            for (final Span span : trace.spans()) {
+                OtlpJsonTraces.span(gen, trace.id(), OtlpJsonTraces.spanId(), root, span, epoch);
+                gen.writeNumberField("kind", OtlpJsonTraces.INTERNAL);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+        this.sink.accept(res.toString());
+    }
+
+    /**
+     * Writes span fields, the span object is left open to add more fields.
+     * @param gen Json generator
+     * @param trace Trace id
+     * @param id Span id
+     * @param parent Parent span id, empty for the root span
+     * @param span Span
+     * @param epoch Trace start in nanoseconds since epoch
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.UseObjectForClearerAPI")
+    private static void span(final JsonGenerator gen, final String trace, final String id,
+        final String parent, final Span span, final long epoch) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("traceId", trace);
+        gen.writeStringField("spanId", id);
+        if (parent.isEmpty()) {
+            gen.writeNumberField("kind", OtlpJsonTraces.SERVER);
+        } else {
+            gen.writeStringField("parentSpanId", parent);
+        }
+        gen.writeStringField("name", span.name());
+        gen.writeStringField("startTimeUnixNano", String.valueOf(epoch + span.start()));
+        gen.writeStringField(
+            "endTimeUnixNano", String.valueOf(epoch + span.start() + span.duration())
+        );
+        if (span.failed()) {
+            gen.writeObjectFieldStart("status");
+            gen.writeNumberField("code", OtlpJsonTraces.ERROR);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes attributes list with one string attribute.
+     * @param gen Json generator
+     * @param key Attribute key
+     * @param value Attribute value
+     * @throws IOException On error
+     */
+    private static void attributes(final JsonGenerator gen, final String key,
+        final String value) throws IOException {
+        gen.writeArrayFieldStart("attributes");
+        gen.writeStartObject();
+        gen.writeStringField("key", key);
+        gen.writeObjectFieldStart("value");
+        gen.writeStringField("stringValue", value);
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndArray();
+    }
+
+    /**
+     * Random span id.
+     * @return Span id, 16 hex characters
+     */
+    private static String spanId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import com.jcabi.log.Logger;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Exporter which logs stages breakdown of the requests slower than the threshold.
+ * @since 0.6
+ */
+public final class SlowTraceLog implements TraceExporter {
+
+    /**
+     * Threshold in nanoseconds.
+     */
+    private final long threshold;
+
+    /**
+     * Log.
+     */
+    private final Consumer<String> log;
+
+    /**
+     * Ctor.
+     * @param threshold Threshold
+     */
+    public SlowTraceLog(final Duration threshold) {
+        this(
+            threshold,
+            line -> Logger.warn(SlowTraceLog.class, "Slow request %s", line)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param threshold Threshold
+     * @param log Log to write breakdown lines to
+     */
+    public SlowTraceLog(final Duration threshold, final Consumer<String> log) {
+        this.threshold = threshold.toNanos();
+        this.log = log;
+    }
+
+    @Override
+    public void export(final Trace trace) {
+        if (trace.duration() >= this.threshold) {
+            this.log.accept(trace.breakdown());
+        }
+    }
+}
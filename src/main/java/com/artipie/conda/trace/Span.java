@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+/**
+ * Timed stage of the traced request.
+ * @since 0.6
+ */
+public final class Span {
+
+    /**
+     * Stage name.
+     */
+    private final String name;
+
+    /**
+     * Stage start in nanoseconds since the trace start.
+     */
+    private final long start;
+
+    /**
+     * Stage duration in nanoseconds.
+     */
+    private final long duration;
+
+    /**
+     * Whether the stage failed.
+     */
+    private final boolean failed;
+
+    /**
+     * Ctor.
+     * @param name Stage name
+     * @param start Stage start in nanoseconds since the trace start
+     * @param duration Stage duration in nanoseconds
+     * @param failed Whether the stage failed
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Span(final String name, final long start, final long duration,
+        final boolean failed) {
+        this.name = name;
+        this.start = start;
+        this.duration = duration;
+        this.failed = failed;
+    }
+
+    /**
+     * Stage name.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Stage start in nanoseconds since the trace start.
+     * @return Start offset
+     */
+    public long start() {
+        return this.start;
+    }
+
+    /**
+     * Stage duration in nanoseconds.
+     * @return Duration
+     */
+    public long duration() {
+        return this.duration;
+    }
+
+    /**
+     * Whether the stage failed.
+     * @return True if failed
+     */
+    public boolean failed() {
+        return this.failed;
+    }
+}
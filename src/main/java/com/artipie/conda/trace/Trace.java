@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Trace of one request: the request is split into stages, each stage is recorded as
+ * {@link Span} with its timing. Trace is passed to exporter when the request completes.
+ * @since 0.6
+ */
+public final class Trace {
+
+    /**
+     * Trace id, 32 hex characters.
+     */
+    private final String id;
+
+    /**
+     * Request name.
+     */
+    private final String name;
+
+    /**
+     * Request target, for example package key.
+     */
+    private final String target;
+
+    /**
+     * Trace start in milliseconds since epoch.
+     */
+    private final long epoch;
+
+    /**
+     * Trace start in nanoseconds of {@link System#nanoTime()}.
+     */
+    private final long start;
+
+    /**
+     * Recorded spans.
+     */
+    private final List<Span> spans;
+
+    /**
+     * Trace duration in nanoseconds, negative until the trace is finished.
+     */
+    private final AtomicLong took;
+
+    /**
+     * Whether the request failed.
+     */
+    private final AtomicBoolean failed;
+
+    /**
+     * Exporter.
+     */
+    private final TraceExporter exporter;
+
+    /**
+     * Ctor.
+     * @param name Request name
+     * @param target Request target
+     * @param exporter Exporter to pass the trace to when it is finished
+     */
+    public Trace(final String name, final String target, final TraceExporter exporter) {
+        this.id = String.format(
+            "%016x%016x",
+            ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong()
+        );
+        this.name = name;
+        this.target = target;
+        this.epoch = System.currentTimeMillis();
+        this.start = System.nanoTime();
+        this.spans = Collections.synchronizedList(new ArrayList<>(10));
+        this.took = new AtomicLong(-1);
+        this.failed = new AtomicBoolean();
+        this.exporter = exporter;
+    }
+
+    /**
+     * Runs the whole request, the trace is finished and exported when action completes.
+     * @param action Request action
+     * @param <T> Result type
+     * @return Action result
+     */
+    public <T> CompletionStage<T> traced(final Supplier<CompletionStage<T>> action) {
+        return action.get().whenComplete(
+            (res, err) -> {
+                this.failed.set(err != null);
+                if (this.took.compareAndSet(-1, System.nanoTime() - this.start)) {
+                    this.exporter.export(this);
+                }
+            }
+        );
+    }
+
+    /**
+     * Runs request stage recording it as a span.
+     * @param stage Stage name
+     * @param action Stage action
+     * @param <T> Result type
+     * @return Action result
+     */
+    public <T> CompletionStage<T> span(final String stage,
+        final Supplier<CompletionStage<T>> action) {
+        final long begin = System.nanoTime();
+        return action.get().whenComplete(
+            (res, err) -> {
+                final long end = System.nanoTime();
+                this.spans.add(new Span(stage, begin - this.start, end - begin, err != null));
+            }
+        );
+    }
+
+    /**
+     * Trace id.
+     * @return Id, 32 hex characters
+     */
+    public String id() {
+        return this.id;
+    }
+
+    /**
+     * Request name.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Request target.
+     * @return Target
+     */
+    public String target() {
+        return this.target;
+    }
+
+    /**
+     * Trace start in milliseconds since epoch.
+     * @return Start time
+     */
+    public long epoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Trace duration in nanoseconds.
+     * @return Duration, negative if the trace is not finished
+     */
+    public long duration() {
+        return this.took.get();
+    }
+
+    /**
+     * Whether the request failed.
+     * @return True if failed
+     */
+    public boolean failed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Recorded spans in completion order.
+     * @return Spans
+     */
+    public List<Span> spans() {
+        synchronized (this.spans) {
+            return new ArrayList<>(this.spans);
+        }
+    }
+
+    /**
+     * Stages breakdown, for example `upload linux-64/a.conda 512ms: save=500ms, merge=12ms`.
+     * @return Human readable breakdown
+     */
+    public String breakdown() {
+        final StringBuilder res = new StringBuilder(64)
+            .append(this.name).append(' ').append(this.target).append(' ')
+            .append(TimeUnit.NANOSECONDS.toMillis(this.duration())).append("ms");
+        if (this.failed()) {
+            res.append(" (failed)");
+        }
+        res.append(':');
+        final List<Span> all = this.spans();
+        for (int idx = 0; idx < all.size(); idx = idx + 1) {
+            if (idx > 0) {
+                res.append(',');
+            }
+            final Span span = all.get(idx);
+            res.append(' ').append(span.name()).append('=')
+                .append(TimeUnit.NANOSECONDS.toMillis(span.duration())).append("ms");
+            if (span.failed()) {
+                res.append(" (failed)");
+            }
+        }
+        return res.toString();
+    }
+}
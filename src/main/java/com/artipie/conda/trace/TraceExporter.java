@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exporter of the finished traces.
+ * @since 0.6
+ */
+public interface TraceExporter {
+
+    /**
+     * Exporter which ignores all traces.
+     */
+    TraceExporter NOP = trace -> { };
+
+    /**
+     * Exports finished trace.
+     * @param trace Trace
+     */
+    void export(Trace trace);
+
+    /**
+     * Exports traces to all the exporters.
+     * @since 0.6
+     */
+    final class All implements TraceExporter {
+
+        /**
+         * Exporters.
+         */
+        private final List<TraceExporter> exporters;
+
+        /**
+         * Ctor.
+         * @param exporters Exporters
+         */
+        public All(final TraceExporter... exporters) {
+            this.exporters = Arrays.asList(exporters);
+        }
+
+        @Override
+        public void export(final Trace trace) {
+            for (final TraceExporter exporter : this.exporters) {
+                exporter.export(trace);
+            }
+        }
+    }
+}
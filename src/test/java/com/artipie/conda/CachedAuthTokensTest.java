@@ -4,7 +4,9 @@
  */
 package com.artipie.conda;
 
-import com.google.common.cache.Cache;
+import com.artipie.conda.metrics.Metrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.cache.CacheBuilder;
 import java.time.Duration;
 import java.time.Instant;
@@ -14,6 +16,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
@@ -26,7 +29,7 @@ import org.junit.jupiter.api.Test;
  * @since 0.5
  * @checkstyle MagicNumberCheck (500 lines)
  */
-@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
 class CachedAuthTokensTest {
 
     /**
@@ -36,8 +39,7 @@ class CachedAuthTokensTest {
 
     @BeforeEach
     void init() {
-        this.cache = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES)
-            .softValues().build();
+        this.cache = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
     }
 
     @Test
@@ -138,6 +140,169 @@ class CachedAuthTokensTest {
         );
     }
 
+    @Test
+    void findsGeneratedFromCache() {
+        final CachedAuthTokens tokens = new CachedAuthTokens(this.cache, new FakeAuthTokens());
+        final AuthTokens.TokenItem item = tokens.generate("Janette", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.find("Janette").toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
+    @Test
+    void findsFromOriginWhenEvictedFromCache() {
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem("05", "ZeroFive", Instant.MAX);
+        this.cache.put(item.token(), item);
+        final AuthTokens.TokenItem other =
+            new AuthTokens.TokenItem("06", "ZeroFive", Instant.MAX);
+        final CachedAuthTokens tokens =
+            new CachedAuthTokens(this.cache, new FakeAuthTokens(other));
+        this.cache.invalidate(item.token());
+        MatcherAssert.assertThat(
+            tokens.find(item.userName()).toCompletableFuture().join().get(),
+            new IsEqual<>(other)
+        );
+    }
+
+    @Test
+    void findsTokenAddedToSuppliedCache() {
+        final CachedAuthTokens tokens = new CachedAuthTokens(this.cache, new FakeAuthTokens());
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem("07", "ZeroSeven", Instant.MAX);
+        this.cache.put(item.token(), item);
+        MatcherAssert.assertThat(
+            tokens.find(item.userName()).toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
+    @Test
+    void remembersUnknownToken() {
+        final List<AuthTokens.TokenItem> origin = new ArrayList<>(1);
+        origin.add(new AuthTokens.TokenItem("07", "ZeroSeven", Instant.MAX));
+        final CachedAuthTokens tokens =
+            new CachedAuthTokens(this.cache, new FakeAuthTokens(origin));
+        tokens.get("08").toCompletableFuture().join();
+        origin.add(new AuthTokens.TokenItem("08", "ZeroEight", Instant.MAX));
+        MatcherAssert.assertThat(
+            tokens.get("08").toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void forgetsUnknownTokenWhenGenerated() {
+        final List<AuthTokens.TokenItem> origin = new ArrayList<>(1);
+        origin.add(new AuthTokens.TokenItem("09", "ZeroNine", Instant.MAX));
+        final CachedAuthTokens tokens =
+            new CachedAuthTokens(this.cache, new FakeAuthTokens(origin));
+        tokens.get("abc123").toCompletableFuture().join();
+        final AuthTokens.TokenItem item = tokens.generate("Janette", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.get("abc123").toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
+    @Test
+    void recordsStatsByDefault() {
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem("10", "OneZero", Instant.MAX);
+        final CachedAuthTokens tokens = new CachedAuthTokens(new FakeAuthTokens(item));
+        tokens.get(item.token()).toCompletableFuture().join();
+        tokens.get(item.token()).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.stats().hitCount(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void expiresCachedTokenWhenTokenExpires() {
+        final AtomicLong nanos = new AtomicLong();
+        final Cache<String, AuthTokens.TokenItem> tokens = Caffeine.newBuilder()
+            .ticker(nanos::get)
+            .executor(Runnable::run)
+            .expireAfter(new CachedAuthTokens.TokenExpiry())
+            .build();
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem(
+            "11", "OneOne", Instant.now().plus(Duration.ofHours(1))
+        );
+        tokens.put(item.token(), item);
+        nanos.set(Duration.ofMinutes(59).toNanos());
+        MatcherAssert.assertThat(
+            "Token was evicted before it expired",
+            tokens.getIfPresent(item.token()),
+            new IsEqual<>(item)
+        );
+        nanos.set(Duration.ofMinutes(61).toNanos());
+        MatcherAssert.assertThat(
+            "Token was not evicted when it expired",
+            tokens.getIfPresent(item.token()),
+            new IsNull<>()
+        );
+    }
+
+    @Test
+    void refreshesTokenAheadOfExpiry() {
+        final List<AuthTokens.TokenItem> origin = new ArrayList<>(1);
+        origin.add(
+            new AuthTokens.TokenItem("12", "OneTwo", Instant.now().plus(Duration.ofMinutes(5)))
+        );
+        final CachedAuthTokens tokens = new CachedAuthTokens(
+            new FakeAuthTokens(origin), Duration.ofMinutes(10), Metrics.NOP
+        );
+        tokens.get("12").toCompletableFuture().join();
+        final AuthTokens.TokenItem renewed =
+            new AuthTokens.TokenItem("12", "OneTwo", Instant.now().plus(Duration.ofDays(1)));
+        origin.set(0, renewed);
+        tokens.get("12").toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Token was not refreshed ahead of expiry",
+            tokens.get("12").toCompletableFuture().join().get(),
+            new IsEqual<>(renewed)
+        );
+        MatcherAssert.assertThat(
+            "Refreshed token was not served from cache",
+            tokens.stats().hitCount(),
+            new IsEqual<>(2L)
+        );
+    }
+
+    @Test
+    void doesNotRefreshTokenFarFromExpiry() {
+        final List<AuthTokens.TokenItem> origin = new ArrayList<>(1);
+        final AuthTokens.TokenItem item =
+            new AuthTokens.TokenItem("13", "OneThree", Instant.now().plus(Duration.ofHours(1)));
+        origin.add(item);
+        final CachedAuthTokens tokens = new CachedAuthTokens(
+            new FakeAuthTokens(origin), Duration.ofMinutes(10), Metrics.NOP
+        );
+        tokens.get("13").toCompletableFuture().join();
+        origin.set(
+            0, new AuthTokens.TokenItem("13", "OneThree", Instant.now().plus(Duration.ofDays(1)))
+        );
+        MatcherAssert.assertThat(
+            tokens.get("13").toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void getsFromGuavaCache() {
+        final com.google.common.cache.Cache<String, AuthTokens.TokenItem> guava =
+            CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem("14", "OneFour", Instant.MAX);
+        guava.put(item.token(), item);
+        MatcherAssert.assertThat(
+            new CachedAuthTokens(guava, new FakeAuthTokens()).get(item.token())
+                .toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
     /**
      * Fake implementation of {@link AuthTokens}.
      * @since 0.5
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.http.auth.Authentication;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CachedAuthentication}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class CachedAuthenticationTest {
+
+    /**
+     * Origin calls counter.
+     */
+    private AtomicInteger calls;
+
+    /**
+     * Counting origin authentication.
+     */
+    private Authentication origin;
+
+    @BeforeEach
+    void init() {
+        this.calls = new AtomicInteger();
+        this.origin = (name, pass) -> {
+            this.calls.incrementAndGet();
+            Optional<Authentication.User> res = Optional.empty();
+            if ("alice".equals(name) && "secret".equals(pass)) {
+                res = Optional.of(new Authentication.User(name));
+            }
+            return res;
+        };
+    }
+
+    @Test
+    void authenticatesFromCache() {
+        final CachedAuthentication auth = new CachedAuthentication(this.origin);
+        auth.user("alice", "secret");
+        MatcherAssert.assertThat(
+            "User was not authenticated",
+            auth.user("alice", "secret"),
+            new IsEqual<>(Optional.of(new Authentication.User("alice")))
+        );
+        MatcherAssert.assertThat(
+            "Origin was called more than once",
+            this.calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void doesNotCacheFailedAuthentication() {
+        final CachedAuthentication auth = new CachedAuthentication(this.origin);
+        auth.user("alice", "wrong");
+        MatcherAssert.assertThat(
+            "User should not be authenticated",
+            auth.user("alice", "wrong").isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Failed authentication should reach origin each time",
+            this.calls.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void doesNotAuthenticateWithOtherPassword() {
+        final CachedAuthentication auth = new CachedAuthentication(this.origin);
+        auth.user("alice", "secret");
+        MatcherAssert.assertThat(
+            auth.user("alice", "other").isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void invalidatesUser() {
+        final CachedAuthentication auth = new CachedAuthentication(
+            Caffeine.newBuilder().build(), this.origin
+        );
+        auth.user("alice", "secret");
+        auth.invalidate("alice");
+        auth.user("alice", "secret");
+        MatcherAssert.assertThat(
+            this.calls.get(),
+            new IsEqual<>(2)
+        );
+    }
+}
@@ -78,6 +78,38 @@ class CondaRepodataAppendTest {
         );
     }
 
+    @Test
+    void appendsPackagesFromIteratorAsFromList() throws IOException, JSONException {
+        final ByteArrayOutputStream list = new ByteArrayOutputStream();
+        try (InputStream input = new TestResource("repodata.json").asInputStream()) {
+            new CondaRepodata.Append(input, list).perform(
+                Collections.singletonList(
+                    new CondaRepodata.PackageItem(
+                        new TestResource("7zip-19.00-h59b6b97_2.conda").asInputStream(),
+                        "7zip-19.00-h59b6b97_2.conda", "7zip-sha256", "7zip-md5", 123L
+                    )
+                )
+            );
+        }
+        final ByteArrayOutputStream iterator = new ByteArrayOutputStream();
+        try (InputStream input = new TestResource("repodata.json").asInputStream()) {
+            new CondaRepodata.Append(input, iterator).perform(
+                Collections.singletonList(
+                    new CondaRepodata.PackageItem(
+                        new TestResource("7zip-19.00-h59b6b97_2.conda").asInputStream(),
+                        "7zip-19.00-h59b6b97_2.conda", "7zip-sha256", "7zip-md5", 123L
+                    )
+                ).iterator(),
+                0
+            );
+        }
+        JSONAssert.assertEquals(
+            list.toString(StandardCharsets.UTF_8.name()),
+            iterator.toString(StandardCharsets.UTF_8.name()),
+            true
+        );
+    }
+
     @Test
     void doesNothingIfItemsAreEmpty() throws IOException, JSONException {
         final ByteArrayOutputStream res = new ByteArrayOutputStream();
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import com.artipie.conda.meta.UnsortedRepodataException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.json.JSONException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+/**
+ * Test for {@link MultiRepodata.Streaming}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MultiRepodataStreamingTest {
+
+    /**
+     * First repodata, sorted by file name.
+     */
+    private static final String FIRST = String.join(
+        "",
+        "{\"info\":{\"subdir\":\"noarch\"},",
+        "\"packages\":{\"a-1-0.tar.bz2\":{\"v\":1},\"c-1-0.tar.bz2\":{\"v\":1}},",
+        "\"packages.conda\":{\"x-1-0.conda\":{\"v\":1}},",
+        "\"repodata_version\":1}"
+    );
+
+    /**
+     * Second repodata, sorted by file name.
+     */
+    private static final String SECOND = String.join(
+        "",
+        "{\"packages\":{\"b-1-0.tar.bz2\":{\"v\":2},\"c-1-0.tar.bz2\":{\"v\":2},",
+        "\"d-1-0.tar.bz2\":{\"v\":2,\"depends\":[\"a\"]}},",
+        "\"packages.conda\":{\"w-1-0.conda\":{\"v\":2},\"x-1-0.conda\":{\"v\":2}}}"
+    );
+
+    /**
+     * Merge result.
+     */
+    private static final String RESULT = String.join(
+        "",
+        "{\"packages\":{\"a-1-0.tar.bz2\":{\"v\":1},\"b-1-0.tar.bz2\":{\"v\":2},",
+        "\"c-1-0.tar.bz2\":{\"v\":1},\"d-1-0.tar.bz2\":{\"v\":2,\"depends\":[\"a\"]}},",
+        "\"packages.conda\":{\"w-1-0.conda\":{\"v\":2},\"x-1-0.conda\":{\"v\":1}}}"
+    );
+
+    @Test
+    void mergesSortedInputs() throws UnsupportedEncodingException {
+        MatcherAssert.assertThat(
+            MultiRepodataStreamingTest.merged(
+                new MultiRepodata.Streaming(true),
+                MultiRepodataStreamingTest.FIRST, MultiRepodataStreamingTest.SECOND
+            ),
+            Matchers.equalTo(MultiRepodataStreamingTest.RESULT)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void mergesEachTimeFromScratch(final boolean sorted)
+        throws UnsupportedEncodingException, JSONException {
+        final MultiRepodata merge = new MultiRepodata.Streaming(sorted);
+        MultiRepodataStreamingTest.merged(
+            merge, MultiRepodataStreamingTest.FIRST, MultiRepodataStreamingTest.SECOND
+        );
+        JSONAssert.assertEquals(
+            MultiRepodataStreamingTest.RESULT,
+            MultiRepodataStreamingTest.merged(
+                merge, MultiRepodataStreamingTest.FIRST, MultiRepodataStreamingTest.SECOND
+            ),
+            true
+        );
+    }
+
+    @Test
+    void keepsFirstPackageOfUnsortedInputs()
+        throws UnsupportedEncodingException, JSONException {
+        JSONAssert.assertEquals(
+            MultiRepodataStreamingTest.RESULT,
+            MultiRepodataStreamingTest.merged(
+                new MultiRepodata.Streaming(),
+                String.join(
+                    "",
+                    "{\"packages.conda\":{\"x-1-0.conda\":{\"v\":1}},",
+                    "\"packages\":{\"c-1-0.tar.bz2\":{\"v\":1},\"a-1-0.tar.bz2\":{\"v\":1}}}"
+                ),
+                String.join(
+                    "",
+                    "{\"packages\":{\"d-1-0.tar.bz2\":{\"v\":2,\"depends\":[\"a\"]},",
+                    "\"c-1-0.tar.bz2\":{\"v\":2},\"b-1-0.tar.bz2\":{\"v\":2}},",
+                    "\"removed\":[\"e-1-0.tar.bz2\"],",
+                    "\"packages.conda\":{\"x-1-0.conda\":{\"v\":2},\"w-1-0.conda\":{\"v\":2}}}"
+                )
+            ),
+            true
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void mergesObjectsInTheOrderOfInputs(final boolean sorted)
+        throws UnsupportedEncodingException {
+        MatcherAssert.assertThat(
+            MultiRepodataStreamingTest.merged(
+                new MultiRepodata.Streaming(sorted),
+                "{\"packages.conda\":{\"w-1-0.conda\":{}},\"packages\":{\"a-1-0.tar.bz2\":{}}}",
+                "{\"packages.conda\":{\"x-1-0.conda\":{}},\"packages\":{\"b-1-0.tar.bz2\":{}}}"
+            ),
+            Matchers.equalTo(
+                String.join(
+                    "",
+                    "{\"packages.conda\":{\"w-1-0.conda\":{},\"x-1-0.conda\":{}},",
+                    "\"packages\":{\"a-1-0.tar.bz2\":{},\"b-1-0.tar.bz2\":{}}}"
+                )
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void deletesObjectsMetBeforeTheirTurn(final boolean sorted) throws IOException {
+        final Set<Path> before = MultiRepodataStreamingTest.spilled();
+        MultiRepodataStreamingTest.merged(
+            new MultiRepodata.Streaming(sorted),
+            "{\"packages.conda\":{\"x-1-0.conda\":{}},\"packages\":{\"a-1-0.tar.bz2\":{}}}",
+            "{\"packages.conda\":{\"w-1-0.conda\":{}}}"
+        );
+        MatcherAssert.assertThat(
+            MultiRepodataStreamingTest.spilled(),
+            Matchers.equalTo(before)
+        );
+    }
+
+    @Test
+    void writesEmptyPackagesForNoInputs() throws UnsupportedEncodingException {
+        MatcherAssert.assertThat(
+            MultiRepodataStreamingTest.merged(new MultiRepodata.Streaming(true)),
+            Matchers.equalTo("{\"packages\":{},\"packages.conda\":{}}")
+        );
+    }
+
+    @Test
+    void failsOnUnsortedInputInSortedMode() {
+        Assertions.assertThrows(
+            UnsortedRepodataException.class,
+            () -> MultiRepodataStreamingTest.merged(
+                new MultiRepodata.Streaming(true),
+                MultiRepodataStreamingTest.FIRST,
+                "{\"packages\":{\"b-1-0.tar.bz2\":{},\"a-1-0.tar.bz2\":{}}}"
+            )
+        );
+    }
+
+    /**
+     * Temporary files of the objects met before their turn.
+     * @return Files
+     * @throws IOException On error
+     */
+    private static Set<Path> spilled() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("packages"))
+                .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Merges repodata.
+     * @param merge Merge to use
+     * @param inputs Repodata to merge
+     * @return Merged repodata
+     * @throws UnsupportedEncodingException On error
+     */
+    private static String merged(final MultiRepodata merge, final String... inputs)
+        throws UnsupportedEncodingException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        merge.merge(
+            Arrays.stream(inputs)
+                .<InputStream>map(
+                    json -> new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))
+                )
+                .collect(Collectors.toList()),
+            out
+        );
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+}
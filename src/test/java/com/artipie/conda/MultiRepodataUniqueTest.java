@@ -81,6 +81,31 @@ class MultiRepodataUniqueTest {
         );
     }
 
+    @Test
+    void mergesEachTimeFromScratch() throws UnsupportedEncodingException, JSONException {
+        final MultiRepodata merge = new MultiRepodata.Unique();
+        merge.merge(
+            new ListOf<InputStream>(this.resourceStream("exludesDupl_input1.json")),
+            new ByteArrayOutputStream()
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        merge.merge(
+            new ListOf<InputStream>(
+                this.resourceStream("exludesDupl_input1.json"),
+                this.resourceStream("exludesDupl_input2.json"),
+                this.resourceStream("exludesDupl_input3.json")
+            ), out
+        );
+        JSONAssert.assertEquals(
+            out.toString(StandardCharsets.UTF_8.name()),
+            new String(
+                new TestResource("MultiRepodataUniqueTest/exludesDupl_res.json").asBytes(),
+                StandardCharsets.UTF_8
+            ),
+            true
+        );
+    }
+
     private InputStream resourceStream(final String name) {
         return new TestResource(String.format("MultiRepodataUniqueTest/%s", name))
             .asInputStream();
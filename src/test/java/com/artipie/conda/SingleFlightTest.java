@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SingleFlight}.
+ * @since 0.6
+ */
+class SingleFlightTest {
+
+    @Test
+    void sharesOperationInFlight() {
+        final SingleFlight<String, String> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<String> origin = new CompletableFuture<>();
+        final CompletionStage<String> first = flight.call(
+            "key", () -> {
+                calls.incrementAndGet();
+                return origin;
+            }
+        );
+        final CompletionStage<String> second = flight.call(
+            "key", () -> {
+                calls.incrementAndGet();
+                return origin;
+            }
+        );
+        origin.complete("value");
+        MatcherAssert.assertThat(
+            "Operation should be started once",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Both calls should get the value",
+            first.toCompletableFuture().join() + second.toCompletableFuture().join(),
+            new IsEqual<>("valuevalue")
+        );
+    }
+
+    @Test
+    void startsNewOperationWhenPreviousCompleted() {
+        final SingleFlight<String, Integer> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        flight.call("one", () -> CompletableFuture.completedFuture(calls.incrementAndGet()))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            flight.call("one", () -> CompletableFuture.completedFuture(calls.incrementAndGet()))
+                .toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+    }
+}
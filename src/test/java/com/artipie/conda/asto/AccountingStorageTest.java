@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.metrics.InMemoryMetrics;
+import com.artipie.conda.metrics.LongHistogram;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AccountingStorage}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AccountingStorageTest {
+
+    @Test
+    void countsOperationsAndBytes() {
+        final StorageAccount.InMemory account = new StorageAccount.InMemory();
+        final Storage asto = new AccountingStorage(new InMemoryStorage(), account);
+        final Key key = new Key.From("linux-64/repodata.json");
+        asto.save(key, new Content.From("{\"packages\":{}}".getBytes(StandardCharsets.UTF_8)))
+            .join();
+        asto.exists(key).join();
+        new PublisherAs(asto.value(key).join()).bytes().toCompletableFuture().join();
+        asto.move(key, new Key.From("noarch/repodata.json")).join();
+        MatcherAssert.assertThat(
+            "Wrong operations count",
+            account.operations(),
+            new IsEqual<>(4L)
+        );
+        MatcherAssert.assertThat(
+            "Wrong save bytes",
+            account.bytes("save"),
+            new IsEqual<>(15L)
+        );
+        MatcherAssert.assertThat(
+            "Wrong value bytes",
+            account.bytes("value"),
+            new IsEqual<>(15L)
+        );
+        MatcherAssert.assertThat(
+            "Wrong exists count",
+            account.operations("exists"),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void checksBudget() {
+        final StorageAccount.InMemory account = new StorageAccount.InMemory();
+        final Storage asto = new AccountingStorage(new InMemoryStorage(), account);
+        asto.exists(new Key.From("any")).join();
+        asto.exists(new Key.From("other")).join();
+        MatcherAssert.assertThat(
+            "Operations did not fit the budget",
+            account,
+            new StorageBudget(2, 0)
+        );
+        MatcherAssert.assertThat(
+            "Operations fit too small budget",
+            account,
+            new IsNot<>(new StorageBudget(1, 0))
+        );
+    }
+
+    @Test
+    void recordsDurationsWithRoute() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        new AccountingStorage(new InMemoryStorage(), new StorageAccount.Metered(metrics, "upload"))
+            .exists(new Key.From("any")).join();
+        MatcherAssert.assertThat(
+            ((LongHistogram) metrics.histogram(
+                "conda_storage_op_duration_nanoseconds", "route", "upload", "op", "exists"
+            )).count(),
+            new IsEqual<>(1L)
+        );
+    }
+}
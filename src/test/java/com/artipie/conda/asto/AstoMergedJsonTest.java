@@ -4,16 +4,20 @@
  */
 package com.artipie.conda.asto;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import com.artipie.conda.metrics.Metrics;
 import java.nio.charset.StandardCharsets;
 import javax.json.Json;
 import javax.json.JsonObject;
 import org.cactoos.map.MapEntry;
 import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.json.JSONException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +26,7 @@ import org.skyscreamer.jsonassert.JSONAssert;
 /**
  * Test for {@link AstoMergedJson}.
  * @since 0.4
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class AstoMergedJsonTest {
@@ -31,6 +36,24 @@ class AstoMergedJsonTest {
      */
     private static final Key.From KEY = new Key.From("repodata.json");
 
+    /**
+     * Repodata with packages not sorted by file name.
+     */
+    private static final byte[] UNSORTED = String.join(
+        "",
+        "{\"packages\":{\"c-1-0.tar.bz2\":{\"v\":1},\"a-1-0.tar.bz2\":{\"v\":1}},",
+        "\"packages.conda\":{}}"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Sorted repodata with merged package.
+     */
+    private static final String MERGED = String.join(
+        "",
+        "{\"packages\":{\"a-1-0.tar.bz2\":{\"v\":1},\"b-1-0.tar.bz2\":{\"v\":2},",
+        "\"c-1-0.tar.bz2\":{\"v\":1}},\"packages.conda\":{}}"
+    );
+
     /**
      * Test storage.
      */
@@ -81,6 +104,41 @@ class AstoMergedJsonTest {
         );
     }
 
+    @Test
+    void mergesIntoSortedRepodataInSortedMode() {
+        this.asto.save(
+            AstoMergedJsonTest.KEY, new Content.From(AstoMergedJsonTest.UNSORTED)
+        ).join();
+        final AstoMergedJson json =
+            new AstoMergedJson(this.asto, AstoMergedJsonTest.KEY, Metrics.NOP, true);
+        json.sort().toCompletableFuture().join();
+        json.merge(
+            new MapOf<String, JsonObject>(
+                new MapEntry<>("b-1-0.tar.bz2", Json.createObjectBuilder().add("v", 2).build())
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.getRepodata(),
+            Matchers.equalTo(AstoMergedJsonTest.MERGED)
+        );
+    }
+
+    @Test
+    void sortsUnsortedRepodataOnFirstMergeInSortedMode() {
+        this.asto.save(
+            AstoMergedJsonTest.KEY, new Content.From(AstoMergedJsonTest.UNSORTED)
+        ).join();
+        new AstoMergedJson(this.asto, AstoMergedJsonTest.KEY, Metrics.NOP, true).merge(
+            new MapOf<String, JsonObject>(
+                new MapEntry<>("b-1-0.tar.bz2", Json.createObjectBuilder().add("v", 2).build())
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.getRepodata(),
+            Matchers.equalTo(AstoMergedJsonTest.MERGED)
+        );
+    }
+
     private String getRepodata() {
         return new PublisherAs(
             this.asto.value(AstoMergedJsonTest.KEY).toCompletableFuture().join()
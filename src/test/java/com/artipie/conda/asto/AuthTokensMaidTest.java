@@ -4,14 +4,20 @@
  */
 package com.artipie.conda.asto;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import com.artipie.conda.AuthTokens;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.collection.IsEmptyCollection;
+import org.hamcrest.core.IsEqual;
 import org.json.JSONException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,9 +26,19 @@ import org.skyscreamer.jsonassert.JSONAssert;
 /**
  * Test for {@link AuthTokensMaid}.
  * @since 0.5
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class AuthTokensMaidTest {
 
+    /**
+     * Tokens json without expired tokens.
+     */
+    private static final byte[] VALID =
+        "{\"tokens\":{\"abc123\":{\"name\":\"alice\",\"expire\":4108568400000}}}"
+            .getBytes(StandardCharsets.UTF_8);
+
     /**
      * Test storage.
      */
@@ -56,6 +72,87 @@ class AuthTokensMaidTest {
         );
     }
 
+    @Test
+    void returnsRemovedTokensCount() {
+        new TestResource("AuthTokensMaidTest/tokens.json").saveTo(this.asto, AstoAuthTokens.TKNS);
+        MatcherAssert.assertThat(
+            new AuthTokensMaid(this.asto).removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void doesNotRewriteTokensWithoutExpired() {
+        final AtomicInteger saves = new AtomicInteger();
+        final AuthTokensMaid maid = new AuthTokensMaid(this.counted(saves), Duration.ofDays(1));
+        this.asto.save(AstoAuthTokens.TKNS, new Content.From(AuthTokensMaidTest.VALID)).join();
+        maid.clean().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Clean should not remove anything",
+            maid.removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            "Tokens should not be rewritten",
+            saves.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void removesUntrackedTokensExpiredBeforeResync() {
+        final AuthTokensMaid maid = new AuthTokensMaid(this.asto, Duration.ofDays(1));
+        this.asto.save(AstoAuthTokens.TKNS, new Content.From(AuthTokensMaidTest.VALID)).join();
+        maid.clean().toCompletableFuture().join();
+        new TestResource("AuthTokensMaidTest/tokens.json").saveTo(this.asto, AstoAuthTokens.TKNS);
+        MatcherAssert.assertThat(
+            maid.removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void doesNotRewriteTokensRemovedWithTracked() {
+        final AtomicInteger saves = new AtomicInteger();
+        final AuthTokensMaid maid = new AuthTokensMaid(this.counted(saves), Duration.ofDays(1));
+        this.asto.save(AstoAuthTokens.TKNS, new Content.From(AuthTokensMaidTest.VALID)).join();
+        maid.clean().toCompletableFuture().join();
+        final AuthTokens tokens = maid.tracked(new AstoAuthTokens(this.asto));
+        final String token = tokens.generate("bob", Duration.ofDays(-1))
+            .toCompletableFuture().join().token();
+        tokens.remove(token).toCompletableFuture().join();
+        maid.clean().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            saves.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void resyncsIndexWithStorage() {
+        final AuthTokensMaid maid = new AuthTokensMaid(this.asto, Duration.ZERO);
+        this.asto.save(AstoAuthTokens.TKNS, new Content.From(AuthTokensMaidTest.VALID)).join();
+        maid.clean().toCompletableFuture().join();
+        new TestResource("AuthTokensMaidTest/tokens.json").saveTo(this.asto, AstoAuthTokens.TKNS);
+        MatcherAssert.assertThat(
+            maid.removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void indexesTrackedTokens() {
+        final AuthTokensMaid maid = new AuthTokensMaid(this.asto, Duration.ofDays(1));
+        this.asto.save(AstoAuthTokens.TKNS, new Content.From(AuthTokensMaidTest.VALID)).join();
+        maid.clean().toCompletableFuture().join();
+        maid.tracked(new AstoAuthTokens(this.asto))
+            .generate("bob", Duration.ofDays(-1)).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            maid.removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+
     @Test
     void doesNothingIfTokensDoNotExists() {
         new AuthTokensMaid(this.asto).clean().toCompletableFuture().join();
@@ -64,4 +161,19 @@ class AuthTokensMaidTest {
             new IsEmptyCollection<>()
         );
     }
+
+    /**
+     * Test storage, which counts saves.
+     * @param saves Saves counter
+     * @return Storage
+     */
+    private Storage counted(final AtomicInteger saves) {
+        return new Storage.Wrap(this.asto) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                saves.incrementAndGet();
+                return super.save(key, content);
+            }
+        };
+    }
 }
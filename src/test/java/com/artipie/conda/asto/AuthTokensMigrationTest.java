@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.conda.AuthTokens;
+import java.time.Instant;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.collection.IsEmptyCollection;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AuthTokensMigration}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AuthTokensMigrationTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void movesValidTokensToShardedLayout() {
+        new TestResource("AuthTokensMigrationTest/tokens.json")
+            .saveTo(this.asto, AstoAuthTokens.TKNS);
+        MatcherAssert.assertThat(
+            "Should migrate one valid token",
+            new AuthTokensMigration(this.asto).migrate().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Legacy tokens file was not removed",
+            this.asto.exists(AstoAuthTokens.TKNS).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Migrated token was not found",
+            new ShardedAuthTokens(this.asto).get("abc123").toCompletableFuture().join().get(),
+            new IsEqual<>(
+                new AuthTokens.TokenItem(
+                    "abc123", "alice", Instant.ofEpochMilli(4_108_568_400_000L)
+                )
+            )
+        );
+    }
+
+    @Test
+    void doesNothingIfTokensDoNotExists() {
+        MatcherAssert.assertThat(
+            "Should migrate nothing",
+            new AuthTokensMigration(this.asto).migrate().toCompletableFuture().join(),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            "Storage should stay empty",
+            this.asto.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+}
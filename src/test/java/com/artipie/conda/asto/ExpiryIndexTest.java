@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.conda.AuthTokens;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ExpiryIndex}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class ExpiryIndexTest {
+
+    @Test
+    void countsExpiredTokens() {
+        final ExpiryIndex index = new ExpiryIndex();
+        index.replace(
+            Arrays.asList(
+                new AuthTokens.TokenItem("a", "alice", Instant.ofEpochMilli(100)),
+                new AuthTokens.TokenItem("b", "bob", Instant.ofEpochMilli(100)),
+                new AuthTokens.TokenItem("c", "carl", Instant.ofEpochMilli(200)),
+                new AuthTokens.TokenItem("d", "dan", Instant.ofEpochMilli(300))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Tokens expired before 250 millis",
+            index.expired(Instant.ofEpochMilli(250)),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Tokens expired before 100 millis",
+            index.expired(Instant.ofEpochMilli(100)),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            "All indexed tokens",
+            index.size(),
+            new IsEqual<>(4)
+        );
+    }
+
+    @Test
+    void addsTokens() {
+        final ExpiryIndex index = new ExpiryIndex();
+        index.replace(
+            Collections.singletonList(
+                new AuthTokens.TokenItem("a", "alice", Instant.ofEpochMilli(100))
+            )
+        );
+        index.add(new AuthTokens.TokenItem("b", "bob", Instant.ofEpochMilli(100)));
+        MatcherAssert.assertThat(
+            index.expired(Instant.ofEpochMilli(500)),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void replacesIndexedTokens() {
+        final ExpiryIndex index = new ExpiryIndex();
+        index.replace(
+            Collections.singletonList(
+                new AuthTokens.TokenItem("a", "alice", Instant.ofEpochMilli(100))
+            )
+        );
+        index.replace(Collections.emptyList());
+        MatcherAssert.assertThat(
+            index.expired(Instant.ofEpochMilli(500)),
+            new IsEqual<>(0)
+        );
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RepodataMigration}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class RepodataMigrationTest {
+
+    /**
+     * Repodata with packages not sorted by file name.
+     */
+    private static final String UNSORTED = String.join(
+        "",
+        "{\"packages\":{\"c-1-0.tar.bz2\":{},\"a-1-0.tar.bz2\":{}},",
+        "\"packages.conda\":{\"y-1-0.conda\":{},\"x-1-0.conda\":{}}}"
+    );
+
+    /**
+     * Repodata with packages sorted by file name.
+     */
+    private static final String SORTED = String.join(
+        "",
+        "{\"packages\":{\"a-1-0.tar.bz2\":{},\"c-1-0.tar.bz2\":{}},",
+        "\"packages.conda\":{\"x-1-0.conda\":{},\"y-1-0.conda\":{}}}"
+    );
+
+    @Test
+    void sortsRepodataOfEachSubdir() {
+        final Storage asto = new InMemoryStorage();
+        final Key linux = new Key.From("linux-64", "repodata.json");
+        final Key noarch = new Key.From("noarch", "repodata.json");
+        final Key other = new Key.From("noarch", "current_repodata.json");
+        for (final Key key : new Key[] {linux, noarch, other}) {
+            asto.save(
+                key,
+                new Content.From(RepodataMigrationTest.UNSORTED.getBytes(StandardCharsets.UTF_8))
+            ).join();
+        }
+        MatcherAssert.assertThat(
+            "Two repodata files should be sorted",
+            new RepodataMigration(asto).migrate().toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+        final BlockingStorage blocking = new BlockingStorage(asto);
+        MatcherAssert.assertThat(
+            "Linux repodata should be sorted",
+            new String(blocking.value(linux), StandardCharsets.UTF_8),
+            new IsEqual<>(RepodataMigrationTest.SORTED)
+        );
+        MatcherAssert.assertThat(
+            "Noarch repodata should be sorted",
+            new String(blocking.value(noarch), StandardCharsets.UTF_8),
+            new IsEqual<>(RepodataMigrationTest.SORTED)
+        );
+        MatcherAssert.assertThat(
+            "Other files should not be changed",
+            new String(blocking.value(other), StandardCharsets.UTF_8),
+            new IsEqual<>(RepodataMigrationTest.UNSORTED)
+        );
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.AuthTokens;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.collection.IsEmptyCollection;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ShardedAuthTokens}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
+class ShardedAuthTokensTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void returnsEmptyIfTokensDoNotExist() {
+        MatcherAssert.assertThat(
+            new ShardedAuthTokens(this.asto).get("abc000").toCompletableFuture()
+                .join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void returnsEmptyForInvalidToken() {
+        MatcherAssert.assertThat(
+            new ShardedAuthTokens(this.asto).get("../.tokens.json").toCompletableFuture()
+                .join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void generatesAndGetsToken() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        final AuthTokens.TokenItem item = tokens.generate("alice", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Token was not stored in sharded item",
+            this.asto.exists(
+                new Key.From(
+                    ".tokens", item.token().substring(0, 2),
+                    String.format("%s.json", item.token())
+                )
+            ).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Token was not found",
+            tokens.get(item.token()).toCompletableFuture().join().get(),
+            new IsEqual<>(
+                new AuthTokens.TokenItem(
+                    item.token(), "alice", Instant.ofEpochMilli(item.validUntil().toEpochMilli())
+                )
+            )
+        );
+    }
+
+    @Test
+    void findsTokenByUsername() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        tokens.generate("bob", Duration.ofDays(2)).toCompletableFuture().join();
+        final AuthTokens.TokenItem item = tokens.generate("alice", Duration.ofDays(3))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.find("alice").toCompletableFuture().join().get().token(),
+            new IsEqual<>(item.token())
+        );
+    }
+
+    @Test
+    void doesNotFindTokenOfUserWithLongerName() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        tokens.generate("alice", Duration.ofDays(1)).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Token of user with longer name was found",
+            tokens.find("ali").toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+        final AuthTokens.TokenItem item = tokens.generate("ali", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Token of user with the name prefix was not found",
+            tokens.find("ali").toCompletableFuture().join().get().token(),
+            new IsEqual<>(item.token())
+        );
+    }
+
+    @Test
+    void returnsEmptyWhenExpired() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        final AuthTokens.TokenItem item = new AuthTokens.TokenItem(
+            "xyz098", "John", Instant.ofEpochMilli(1_516_376_429_792L)
+        );
+        tokens.save(item).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Expired token was returned by token",
+            tokens.get(item.token()).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Expired token was returned by username",
+            tokens.find(item.userName()).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void removesToken() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        final AuthTokens.TokenItem item = tokens.generate("Jane", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Should return true when token removed",
+            tokens.remove(item.token()).toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Token items were not removed from storage",
+            this.asto.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void returnsFalseIfTokenNotFound() {
+        MatcherAssert.assertThat(
+            new ShardedAuthTokens(this.asto).remove("any").toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void removesExpiredTokens() {
+        final ShardedAuthTokens tokens = new ShardedAuthTokens(this.asto);
+        tokens.save(
+            new AuthTokens.TokenItem("xyz098", "John", Instant.ofEpochMilli(1_516_376_429_792L))
+        ).toCompletableFuture().join();
+        final AuthTokens.TokenItem valid = tokens.generate("John", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Should return count of removed tokens",
+            tokens.removeExpired().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Expired token items were not removed from storage",
+            this.asto.list(Key.ROOT).join().stream().map(Key::string)
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(
+                String.format(
+                    ".tokens/%s/%s.json", valid.token().substring(0, 2), valid.token()
+                ),
+                String.format(".tokens-users/Sm9obg/%s", valid.token())
+            )
+        );
+    }
+
+    @Test
+    void removesIndexItemsOfAbsentTokens() {
+        final Key stale = new Key.From(".tokens-users/Sm9obg/abc123");
+        this.asto.save(stale, Content.EMPTY).join();
+        new ShardedAuthTokens(this.asto).removeExpired().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.exists(stale).join(),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.AuthTokens;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SignedAuthTokens}.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
+class SignedAuthTokensTest {
+
+    /**
+     * Test secret.
+     */
+    private static final byte[] SECRET = "top-secret".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void generatesAndGetsToken() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final AuthTokens.TokenItem item = tokens.generate("alice", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET).get(item.token())
+                .toCompletableFuture().join().get(),
+            new IsEqual<>(item)
+        );
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final String token = tokens.generate("bob", Duration.ofDays(1))
+            .toCompletableFuture().join().token();
+        final String tampered = String.format("x%s", token.substring(1));
+        MatcherAssert.assertThat(
+            "Tampered token should not pass signature check",
+            tokens.signed(tampered),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Tampered token should not be found",
+            tokens.get(tampered).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        final String token = new SignedAuthTokens(
+            this.asto, "another".getBytes(StandardCharsets.UTF_8)
+        ).generate("bob", Duration.ofDays(1)).toCompletableFuture().join().token();
+        MatcherAssert.assertThat(
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET).get(token)
+                .toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        MatcherAssert.assertThat(
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET).get("abc123")
+                .toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final String token = tokens.generate("jane", Duration.ofDays(-1))
+            .toCompletableFuture().join().token();
+        MatcherAssert.assertThat(
+            tokens.get(token).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void removesToken() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final String token = tokens.generate("john", Duration.ofDays(1))
+            .toCompletableFuture().join().token();
+        MatcherAssert.assertThat(
+            "Token was not removed",
+            tokens.remove(token).toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Removed token should not be found",
+            tokens.get(token).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Revocation was not saved",
+            this.asto.exists(
+                new Key.From(SignedAuthTokens.REVOKED, token.substring(token.lastIndexOf('.') + 1))
+            ).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void doesNotRemoveUnsignedToken() {
+        MatcherAssert.assertThat(
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET).remove("abc.123")
+                .toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void syncsTokensRevokedByAnotherInstance() {
+        final SignedAuthTokens first =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final SignedAuthTokens second =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final String token = first.generate("ann", Duration.ofDays(1))
+            .toCompletableFuture().join().token();
+        MatcherAssert.assertThat(
+            "Token should be valid before removal",
+            second.get(token).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(true)
+        );
+        first.remove(token).toCompletableFuture().join();
+        second.sync().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Token should be revoked after sync",
+            second.get(token).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsConcurrentRevocations() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final List<String> removed = IntStream.range(0, 20).mapToObj(
+            num -> tokens.generate(String.format("user%d", num), Duration.ofDays(1))
+                .toCompletableFuture().join().token()
+        ).collect(Collectors.toList());
+        CompletableFuture.allOf(
+            removed.stream().map(
+                token -> new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET)
+                    .remove(token).toCompletableFuture()
+            ).toArray(CompletableFuture<?>[]::new)
+        ).join();
+        final SignedAuthTokens other =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        MatcherAssert.assertThat(
+            removed.stream().filter(
+                token -> other.get(token).toCompletableFuture().join().isPresent()
+            ).collect(Collectors.toList()),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void readsLegacyRevocationList() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        final AuthTokens.TokenItem item = tokens.generate("ann", Duration.ofDays(1))
+            .toCompletableFuture().join();
+        this.asto.save(
+            SignedAuthTokens.LIST,
+            new Content.From(
+                String.format(
+                    "{\"revoked\":{\"%s\":%d}}",
+                    item.token().substring(item.token().lastIndexOf('.') + 1),
+                    item.validUntil().toEpochMilli()
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            tokens.get(item.token()).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void deletesRevocationsOfExpiredTokens() {
+        final Key expired = new Key.From(SignedAuthTokens.REVOKED, "expired");
+        this.asto.save(
+            expired, new Content.From("1505739175210".getBytes(StandardCharsets.US_ASCII))
+        ).join();
+        new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET).sync()
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.exists(expired).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotFindTokensByUserName() {
+        final SignedAuthTokens tokens =
+            new SignedAuthTokens(this.asto, SignedAuthTokensTest.SECRET);
+        tokens.generate("alice", Duration.ofDays(1)).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.find("alice").toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+
+/**
+ * Matcher to check that storage account fits the budget of storage operations and
+ * transferred bytes, use it with {@link AccountingStorage} to catch regressions in
+ * storage efficiency.
+ * @since 0.6
+ */
+public final class StorageBudget extends TypeSafeMatcher<StorageAccount.InMemory> {
+
+    /**
+     * Max count of the operations.
+     */
+    private final long operations;
+
+    /**
+     * Max count of the transferred bytes.
+     */
+    private final long bytes;
+
+    /**
+     * Ctor.
+     * @param operations Max count of the operations
+     * @param bytes Max count of the transferred bytes
+     */
+    public StorageBudget(final long operations, final long bytes) {
+        this.operations = operations;
+        this.bytes = bytes;
+    }
+
+    @Override
+    public void describeTo(final Description description) {
+        description.appendText(
+            String.format(
+                "at most %d storage operations and %d bytes", this.operations, this.bytes
+            )
+        );
+    }
+
+    @Override
+    public boolean matchesSafely(final StorageAccount.InMemory account) {
+        return account.operations() <= this.operations && account.bytes() <= this.bytes;
+    }
+
+    @Override
+    public void describeMismatchSafely(final StorageAccount.InMemory account,
+        final Description description) {
+        description.appendText(account.toString());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.asto;
+
+import com.artipie.conda.AuthTokens;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TokensJson}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class TokensJsonTest {
+
+    @Test
+    void readsTokens() {
+        MatcherAssert.assertThat(
+            new TokensJson(
+                new ByteArrayInputStream(
+                    String.join(
+                        "",
+                        "{\"tokens\":{",
+                        "\"abc123\":{\"name\":\"alice\",\"expire\":1505739175210},",
+                        "\"xyz098\":{\"name\":\"bob\",\"expire\":4102444800000}",
+                        "}}"
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            ).items(),
+            Matchers.contains(
+                new AuthTokens.TokenItem(
+                    "abc123", "alice", Instant.ofEpochMilli(1_505_739_175_210L)
+                ),
+                new AuthTokens.TokenItem("xyz098", "bob", Instant.ofEpochMilli(4_102_444_800_000L))
+            )
+        );
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.asto.Key;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link CondaPath}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class CondaPathTest {
+
+    @Test
+    void parsesTokenizedPackagePath() {
+        final CondaPath path = new CondaPath(
+            "GET /t/abc123/linux-64/example-0.1-0.tar.bz2 HTTP/1.1"
+        );
+        MatcherAssert.assertThat(
+            "Token is not parsed",
+            path.token(),
+            new IsEqual<>(Optional.of("abc123"))
+        );
+        MatcherAssert.assertThat(
+            "Subdir is not parsed",
+            path.subdir(),
+            new IsEqual<>(Optional.of("linux-64"))
+        );
+        MatcherAssert.assertThat(
+            "File name is not parsed",
+            path.filename(),
+            new IsEqual<>(Optional.of("example-0.1-0.tar.bz2"))
+        );
+        MatcherAssert.assertThat(
+            "Key is not parsed",
+            path.key().map(Key::string),
+            new IsEqual<>(Optional.of("linux-64/example-0.1-0.tar.bz2"))
+        );
+        MatcherAssert.assertThat(
+            "Package extension is not recognized",
+            path.pkg(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/linux-64/repodata.json",
+        "/any",
+        "/tokens/abc/repodata.json",
+        "/t/abc"
+    })
+    void doesNotParseTokenIfAbsent(final String uri) {
+        MatcherAssert.assertThat(
+            new CondaPath(String.format("GET %s HTTP/1.1", uri)).token().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotParseFileFromSingleSegment() {
+        final CondaPath path = new CondaPath("POST /example.conda HTTP/1.1");
+        MatcherAssert.assertThat(
+            "Key should be absent",
+            path.key().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Package extension is not recognized",
+            path.pkg(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void checksPrefixesAndParts() {
+        final CondaPath path = new CondaPath("POST /stage/alice/package/1.0 HTTP/1.1");
+        MatcherAssert.assertThat(
+            "Prefix is not found",
+            path.startsWith("/commit", "/stage"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Part is not found",
+            path.contains("release", "package"),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.SliceSimple;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CondaRouter}.
+ * @since 0.6
+ */
+class CondaRouterTest {
+
+    @Test
+    void routesToFirstMatchingRouteOfMethod() {
+        MatcherAssert.assertThat(
+            CondaRouterTest.router(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(RqMethod.POST, "/linux-64/example.conda")
+            )
+        );
+    }
+
+    @Test
+    void routesByMethod() {
+        MatcherAssert.assertThat(
+            CondaRouterTest.router(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/linux-64/example.conda")
+            )
+        );
+    }
+
+    @Test
+    void passesParsedPathToTarget() {
+        MatcherAssert.assertThat(
+            CondaRouterTest.router(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.ACCEPTED),
+                new RequestLine(RqMethod.PUT, "/t/abc/linux-64/example.conda")
+            )
+        );
+    }
+
+    @Test
+    void returnsNotFoundIfNoRouteMatches() {
+        MatcherAssert.assertThat(
+            CondaRouterTest.router(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.DELETE, "/linux-64/example.conda")
+            )
+        );
+    }
+
+    /**
+     * Test router.
+     * @return Router
+     */
+    private static CondaRouter router() {
+        return new CondaRouter(
+            new CondaRouter.Route(
+                "created", RqMethod.POST,
+                CondaPath::pkg,
+                path -> new SliceSimple(new RsWithStatus(RsStatus.CREATED))
+            ),
+            new CondaRouter.Route(
+                "conflict", RqMethod.POST,
+                path -> true,
+                path -> new SliceSimple(new RsWithStatus(RsStatus.CONFLICT))
+            ),
+            new CondaRouter.Route(
+                "ok", RqMethod.GET,
+                CondaPath::pkg,
+                path -> new SliceSimple(StandardRs.OK)
+            ),
+            new CondaRouter.Route(
+                "token", RqMethod.PUT,
+                path -> path.token().isPresent(),
+                path -> new SliceSimple(
+                    new RsWithStatus(
+                        path.token().filter("abc"::equals).map(tkn -> RsStatus.ACCEPTED)
+                            .orElse(RsStatus.BAD_REQUEST)
+                    )
+                )
+            )
+        );
+    }
+}
@@ -8,6 +8,8 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
 import com.artipie.http.headers.ContentDisposition;
 import com.artipie.http.headers.ContentLength;
 import com.artipie.http.hm.RsHasBody;
@@ -15,8 +17,12 @@ import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -80,4 +86,41 @@ class DownloadRepodataSliceTest {
             )
         );
     }
+
+    @Test
+    void sharesRepodataReadBetweenConcurrentRequests() {
+        final byte[] bytes = "repodata".getBytes();
+        final Key key = new Key.From("noarch/repodata.json");
+        this.asto.save(key, new Content.From(bytes)).join();
+        final CompletableFuture<Boolean> gate = new CompletableFuture<>();
+        final AtomicInteger reads = new AtomicInteger();
+        final DownloadRepodataSlice slice = new DownloadRepodataSlice(
+            new Storage.Wrap(this.asto) {
+                @Override
+                public CompletableFuture<Boolean> exists(final Key item) {
+                    return gate.thenCompose(nothing -> super.exists(item));
+                }
+
+                @Override
+                public CompletableFuture<Content> value(final Key item) {
+                    reads.incrementAndGet();
+                    return super.value(item);
+                }
+            }
+        );
+        final String line = new RequestLine(RqMethod.GET, "/noarch/repodata.json").toString();
+        final Response first = slice.response(line, Headers.EMPTY, Content.EMPTY);
+        final Response second = slice.response(line, Headers.EMPTY, Content.EMPTY);
+        gate.complete(true);
+        MatcherAssert.assertThat(
+            "Both responses have repodata",
+            Arrays.asList(first, second),
+            Matchers.everyItem(new RsHasBody(bytes))
+        );
+        MatcherAssert.assertThat(
+            "Repodata was read once",
+            reads.get(),
+            new IsEqual<>(1)
+        );
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.conda.metrics.InMemoryMetrics;
+import com.artipie.conda.metrics.LongHistogram;
+import com.artipie.conda.metrics.MetricId;
+import com.artipie.http.Headers;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.slice.SliceSimple;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MeteredSlice}.
+ * @since 0.6
+ */
+class MeteredSliceTest {
+
+    @Test
+    void recordsRouteMetrics() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        new MeteredSlice(
+            new SliceSimple(
+                new RsFull(
+                    RsStatus.OK, Headers.EMPTY,
+                    new Content.From("hello".getBytes(StandardCharsets.UTF_8))
+                )
+            ),
+            metrics, "repodata"
+        ).response("GET /linux-64/repodata.json HTTP/1.1", Headers.EMPTY, Content.EMPTY)
+            .send((status, headers, body) -> new PublisherAs(body).bytes().thenApply(b -> null))
+            .toCompletableFuture().join();
+        final Map<MetricId, Long> counters = new HashMap<>();
+        final Map<MetricId, Long> sums = new HashMap<>();
+        metrics.accept(
+            new InMemoryMetrics.Visitor() {
+                @Override
+                public void counter(final MetricId id, final long value) {
+                    counters.put(id, value);
+                }
+
+                @Override
+                public void gauge(final MetricId id, final long value) {
+                    throw new IllegalStateException("No gauges expected");
+                }
+
+                @Override
+                public void histogram(final MetricId id, final LongHistogram histogram) {
+                    sums.put(id, histogram.sum());
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            "Request was not counted",
+            counters.get(
+                new MetricId("conda_http_requests_total", "route", "repodata", "status", "200")
+            ),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Response bytes were not recorded",
+            sums.get(new MetricId("conda_http_response_bytes", "route", "repodata")),
+            new IsEqual<>(5L)
+        );
+        MatcherAssert.assertThat(
+            "Request duration was not recorded",
+            sums.containsKey(
+                new MetricId("conda_http_request_duration_nanoseconds", "route", "repodata")
+            ),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.conda.AuthTokens;
+import com.artipie.conda.metrics.InMemoryMetrics;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.headers.Authorization;
+import com.artipie.http.headers.ContentLength;
+import com.artipie.http.headers.ContentType;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetricsSlice}.
+ * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MetricsSliceTest {
+
+    @Test
+    void returnsMetricsInPrometheusFormat() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.counter("conda_http_requests_total", "route", "repodata", "status", "200")
+            .inc();
+        final String body = String.join(
+            "\n",
+            "# TYPE conda_http_requests_total counter",
+            "conda_http_requests_total{route=\"repodata\",status=\"200\"} 1",
+            ""
+        );
+        MatcherAssert.assertThat(
+            new MetricsSlice(metrics),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new ContentType("text/plain; version=0.0.4; charset=utf-8"),
+                        new ContentLength(body.getBytes(StandardCharsets.UTF_8).length)
+                    ),
+                    new RsHasBody(body, StandardCharsets.UTF_8)
+                ),
+                new RequestLine(RqMethod.GET, "/.metrics")
+            )
+        );
+    }
+
+    @Test
+    void exposesMetricsOfCondaSliceToAuthenticatedUser() {
+        final String name = "alice";
+        final String pswd = "123";
+        final Slice slice = new CondaSlice(
+            new InMemoryStorage(), (user, action) -> name.equals(user.name()),
+            new Authentication.Single(name, pswd), AuthTokens.ANONYMOUS, "http://any",
+            Duration.ofDays(1), new InMemoryMetrics()
+        );
+        MatcherAssert.assertThat(
+            "Metrics are exposed to anonymous user",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAUTHORIZED),
+                new RequestLine(RqMethod.GET, "/.metrics")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Metrics are not exposed to authenticated user",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/.metrics"),
+                new Headers.From(new Authorization.Basic(name, pswd)),
+                Content.EMPTY
+            )
+        );
+    }
+}
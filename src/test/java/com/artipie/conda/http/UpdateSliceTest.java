@@ -10,6 +10,12 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import com.artipie.conda.asto.AccountingStorage;
+import com.artipie.conda.asto.StorageAccount;
+import com.artipie.conda.asto.StorageBudget;
+import com.artipie.conda.metrics.Metrics;
+import com.artipie.conda.trace.InMemoryTraces;
+import com.artipie.conda.trace.Span;
 import com.artipie.http.Headers;
 import com.artipie.http.headers.ContentType;
 import com.artipie.http.hm.RsHasStatus;
@@ -20,6 +26,8 @@ import com.artipie.http.rs.RsStatus;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.json.JSONException;
@@ -33,6 +41,7 @@ import org.skyscreamer.jsonassert.JSONAssert;
  * Test for {@link UpdateSlice}.
  * @since 0.4
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class UpdateSliceTest {
@@ -127,6 +136,57 @@ class UpdateSliceTest {
         );
     }
 
+    @Test
+    void tracesUploadStages() throws IOException {
+        final String name = "7zip-19.00-h59b6b97_2.conda";
+        final InMemoryTraces traces = new InMemoryTraces();
+        MatcherAssert.assertThat(
+            "Slice returned 201 CREATED",
+            new UpdateSlice(this.asto, Metrics.NOP, traces),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(RqMethod.POST, String.format("/linux-64/%s", name)),
+                UpdateSliceTest.HEADERS,
+                new Content.From(this.body(new TestResource(name).asBytes()))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Upload stages were not traced",
+            traces.traces().get(0).spans().stream().map(Span::name)
+                .collect(Collectors.toList()),
+            new IsEqual<>(
+                Arrays.asList(
+                    "exists_package", "exists_upload", "save", "info", "md5", "sha256",
+                    "merge", "move"
+                )
+            )
+        );
+    }
+
+    @Test
+    void uploadFitsStorageBudget() throws IOException {
+        final String name = "7zip-19.00-h59b6b97_2.conda";
+        final byte[] pkg = new TestResource(name).asBytes();
+        final StorageAccount.InMemory account = new StorageAccount.InMemory();
+        MatcherAssert.assertThat(
+            "Slice returned 201 CREATED",
+            new UpdateSlice(new AccountingStorage(this.asto, account)),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(RqMethod.POST, String.format("/linux-64/%s", name)),
+                UpdateSliceTest.HEADERS,
+                new Content.From(this.body(pkg))
+            )
+        );
+        // two existence checks, save to temp location, three package reads for metadata and
+        // checksums, repodata existence check and save, move to the repository
+        MatcherAssert.assertThat(
+            "Upload to empty repository exceeded storage budget",
+            account,
+            new StorageBudget(9, 4L * pkg.length + 1024)
+        );
+    }
+
     @Test
     void returnsBadRequestIfRequestLineIsIncorrect() {
         MatcherAssert.assertThat(
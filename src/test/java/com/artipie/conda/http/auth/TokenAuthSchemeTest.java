@@ -81,6 +81,33 @@ class TokenAuthSchemeTest {
         );
     }
 
+    @Test
+    void doesNotAuthenticateTokenRejectedByCheck() {
+        MatcherAssert.assertThat(
+            new TokenAuthScheme(
+                token -> {
+                    throw new IllegalStateException("Authentication should not be called");
+                },
+                token -> false
+            ).authenticate(
+                new Headers.From(new Authorization.Token(TokenAuthSchemeTest.TKN)),
+                "GET /ignored HTTP/1.1"
+            ).toCompletableFuture().join().user().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void authenticatesTokenAcceptedByCheck() {
+        MatcherAssert.assertThat(
+            new TokenAuthScheme(new TestTokenAuth(), TokenAuthSchemeTest.TKN::equals).authenticate(
+                Headers.EMPTY,
+                String.format("GET /t/%s/my-repo/repodata.json HTTP/1.1", TokenAuthSchemeTest.TKN)
+            ).toCompletableFuture().join().user().isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
     /**
      * Test token auth.
      * @since 0.5
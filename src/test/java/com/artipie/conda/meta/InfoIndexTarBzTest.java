@@ -6,6 +6,9 @@ package com.artipie.conda.meta;
 
 import com.artipie.asto.test.TestResource;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.json.Json;
+import javax.json.JsonObject;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
@@ -14,6 +17,7 @@ import org.skyscreamer.jsonassert.JSONAssert;
  * Test for {@link InfoIndex.TarBz}.
  * @since 0.2
  */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class InfoIndexTarBzTest {
 
     @Test
@@ -54,4 +58,27 @@ class InfoIndexTarBzTest {
         );
     }
 
+    @Test
+    void adaptsJsonToMetaByDefault() throws IOException, JSONException {
+        final JsonObject json = Json.createObjectBuilder()
+            .add("name", "any").add("build_number", 1).build();
+        final InfoIndex index = () -> json;
+        JSONAssert.assertEquals(
+            "{\"name\":\"any\",\"build_number\":1,\"size\":2}",
+            index.meta().with("size", 2).toString(),
+            true
+        );
+    }
+
+    @Test
+    void serializesJsonToRawByDefault() throws IOException, JSONException {
+        final JsonObject json = Json.createObjectBuilder()
+            .add("name", "any").add("depends", Json.createArrayBuilder().add("python")).build();
+        final InfoIndex index = () -> json;
+        JSONAssert.assertEquals(
+            json.toString(),
+            new String(index.raw(), StandardCharsets.UTF_8),
+            true
+        );
+    }
 }
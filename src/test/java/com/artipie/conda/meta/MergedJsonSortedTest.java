@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.asto.misc.UncheckedIOFunc;
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MergedJson.Sorted}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MergedJsonSortedTest {
+
+    @Test
+    void joinsEntriesIntoSortedPackages() throws IOException {
+        MatcherAssert.assertThat(
+            MergedJsonSortedTest.merged(
+                Optional.of(
+                    String.join(
+                        "",
+                        "{\"info\":{\"subdir\":\"linux-64\"},",
+                        "\"packages\":{\"a-1-0.tar.bz2\":{\"v\":1},\"c-1-0.tar.bz2\":{\"v\":1},",
+                        "\"e-1-0.tar.bz2\":{\"v\":1}},",
+                        "\"packages.conda\":{\"x-1-0.conda\":{\"v\":1}},",
+                        "\"repodata_version\":1}"
+                    )
+                ),
+                new MapOf<String, JsonObject>(
+                    MergedJsonSortedTest.item("f-1-0.tar.bz2", 2),
+                    MergedJsonSortedTest.item("c-1-0.tar.bz2", 2),
+                    MergedJsonSortedTest.item("b-1-0.tar.bz2", 2),
+                    MergedJsonSortedTest.item("w-1-0.conda", 2)
+                )
+            ),
+            Matchers.equalTo(
+                String.join(
+                    "",
+                    "{\"info\":{\"subdir\":\"linux-64\"},",
+                    "\"packages\":{\"a-1-0.tar.bz2\":{\"v\":1},\"b-1-0.tar.bz2\":{\"v\":2},",
+                    "\"c-1-0.tar.bz2\":{\"v\":2},\"e-1-0.tar.bz2\":{\"v\":1},",
+                    "\"f-1-0.tar.bz2\":{\"v\":2}},",
+                    "\"packages.conda\":{\"w-1-0.conda\":{\"v\":2},\"x-1-0.conda\":{\"v\":1}},",
+                    "\"repodata_version\":1}"
+                )
+            )
+        );
+    }
+
+    @Test
+    void writesSamePackagesInSameOrder() throws IOException {
+        final String first = MergedJsonSortedTest.merged(
+            Optional.of(
+                MergedJsonSortedTest.merged(
+                    Optional.empty(),
+                    new MapOf<String, JsonObject>(
+                        MergedJsonSortedTest.item("b-1-0.tar.bz2", 1),
+                        MergedJsonSortedTest.item("y-1-0.conda", 1)
+                    )
+                )
+            ),
+            new MapOf<String, JsonObject>(
+                MergedJsonSortedTest.item("a-1-0.tar.bz2", 1),
+                MergedJsonSortedTest.item("z-1-0.conda", 1)
+            )
+        );
+        final String second = MergedJsonSortedTest.merged(
+            Optional.of(
+                MergedJsonSortedTest.merged(
+                    Optional.empty(),
+                    new MapOf<String, JsonObject>(
+                        MergedJsonSortedTest.item("z-1-0.conda", 1),
+                        MergedJsonSortedTest.item("a-1-0.tar.bz2", 1)
+                    )
+                )
+            ),
+            new MapOf<String, JsonObject>(
+                MergedJsonSortedTest.item("y-1-0.conda", 1),
+                MergedJsonSortedTest.item("b-1-0.tar.bz2", 1)
+            )
+        );
+        MatcherAssert.assertThat(first, Matchers.equalTo(second));
+    }
+
+    @Test
+    void addsPackagesObjects() throws IOException {
+        MatcherAssert.assertThat(
+            MergedJsonSortedTest.merged(
+                Optional.of("{\"info\":{}}"),
+                new MapOf<String, JsonObject>(MergedJsonSortedTest.item("a-1-0.conda", 1))
+            ),
+            Matchers.equalTo(
+                "{\"info\":{},\"packages\":{},\"packages.conda\":{\"a-1-0.conda\":{\"v\":1}}}"
+            )
+        );
+    }
+
+    @Test
+    void failsOnUnsortedPackages() {
+        Assertions.assertThrows(
+            UnsortedRepodataException.class,
+            () -> MergedJsonSortedTest.merged(
+                Optional.of(
+                    "{\"packages\":{\"b-1-0.tar.bz2\":{},\"a-1-0.tar.bz2\":{}}}"
+                ),
+                new MapOf<String, JsonObject>(MergedJsonSortedTest.item("c-1-0.tar.bz2", 1))
+            )
+        );
+    }
+
+    /**
+     * Merges items with sorted merge.
+     * @param input Existing repodata
+     * @param items Items to merge
+     * @return Merged repodata
+     * @throws IOException On error
+     */
+    private static String merged(final Optional<String> input,
+        final MapOf<String, JsonObject> items) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final JsonFactory factory = new JsonFactory();
+        new MergedJson.Sorted(
+            factory.createGenerator(res),
+            input.map(new UncheckedIOFunc<>(factory::createParser))
+        ).merge(items);
+        return res.toString(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Package item.
+     * @param filename File name
+     * @param version Metadata version
+     * @return Item
+     */
+    private static MapEntry<String, JsonObject> item(final String filename, final int version) {
+        return new MapEntry<>(filename, Json.createObjectBuilder().add("v", version).build());
+    }
+}
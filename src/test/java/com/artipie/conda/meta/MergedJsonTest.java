@@ -10,11 +10,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javax.json.Json;
 import javax.json.JsonObject;
 import org.cactoos.map.MapEntry;
 import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -24,6 +28,7 @@ import org.skyscreamer.jsonassert.JSONAssert;
 /**
  * Test for {@link MergedJson.Jackson}.
  * @since 0.2
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.UseObjectForClearerAPI"})
 class MergedJsonTest {
@@ -177,6 +182,18 @@ class MergedJsonTest {
         );
     }
 
+    @Test
+    void adaptsEntriesToMapByDefault() throws IOException {
+        final Map<String, JsonObject> res = new HashMap<>();
+        final MergedJson merge = res::putAll;
+        final Map<String, JsonObject> items = new MapOf<>(
+            this.packageItem("decorator-4.2.1-py27_0.tar.bz2", "decorator-tar.json"),
+            this.packageItem("notebook-6.1.1-py38_0.conda", "notebook-conda.json")
+        );
+        merge.merge(new MergedJson.FromMap(items));
+        MatcherAssert.assertThat(res, new IsEqual<>(items));
+    }
+
     private MapEntry<String, JsonObject> packageItem(final String filename, final String resourse) {
         return new MapEntry<String, JsonObject>(
             filename,
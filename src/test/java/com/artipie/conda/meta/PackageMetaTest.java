@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.artipie.ArtipieException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.json.Json;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.json.JSONException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+/**
+ * Test for {@link PackageMeta}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class PackageMetaTest {
+
+    /**
+     * Package index.json.
+     */
+    private static final String INDEX = String.join(
+        "\n",
+        "{",
+        "  \"name\": \"abc\",",
+        "  \"version\": \"0.1\",",
+        "  \"build\": \"py_0\",",
+        "  \"build_number\": 0,",
+        "  \"noarch\": null,",
+        "  \"depends\": [\"python >=3.6\"],",
+        "  \"license\": \"MIT License\",",
+        "  \"summary\": \"Escaped \\\" quote } and \\\\\",",
+        "  \"timestamp\": 1617275040865",
+        "}",
+        ""
+    );
+
+    /**
+     * Package index.json with size and checksums.
+     */
+    private static final String META = String.join(
+        "",
+        "{\"name\":\"abc\",\"version\":\"0.1\",\"build\":\"py_0\",\"build_number\":0,",
+        "\"noarch\":null,\"depends\":[\"python >=3.6\"],\"license\":\"MIT License\",",
+        "\"summary\":\"Escaped \\\" quote } and \\\\\",\"timestamp\":1617275040865,",
+        "\"size\":123,\"md5\":\"a1\",\"sha256\":\"b\\\"2\"}"
+    );
+
+    @Test
+    void splicesFieldsIntoRawJson() throws IOException {
+        MatcherAssert.assertThat(
+            PackageMetaTest.written(
+                new PackageMeta.Raw(PackageMetaTest.INDEX.getBytes(StandardCharsets.UTF_8))
+                    .with("size", 123L).with("md5", "a1").with("sha256", "b\"2")
+            ),
+            Matchers.is(PackageMetaTest.META)
+        );
+    }
+
+    @Test
+    void writesTreeWithAddedFields() throws IOException {
+        MatcherAssert.assertThat(
+            PackageMetaTest.written(
+                new PackageMeta.Tree(PackageMetaTest.INDEX)
+                    .with("size", 123L).with("md5", "a1").with("sha256", "b\"2")
+            ),
+            Matchers.is(PackageMetaTest.META)
+        );
+    }
+
+    @Test
+    void splicesIntoEmptyObject() {
+        MatcherAssert.assertThat(
+            new PackageMeta.Raw(" { }\n".getBytes(StandardCharsets.UTF_8))
+                .with("size", 1L).with("md5", "x").toString(),
+            Matchers.is("{\"size\":1,\"md5\":\"x\"}")
+        );
+    }
+
+    @Test
+    void replacesExistingField() throws JSONException {
+        JSONAssert.assertEquals(
+            "{\"name\":\"abc\",\"size\":2}",
+            new PackageMeta.Raw(
+                "{\"name\": \"abc\", \"size\": 1}".getBytes(StandardCharsets.UTF_8)
+            ).with("size", 2L).toString(),
+            true
+        );
+    }
+
+    @Test
+    void doesNotChangeOriginal() {
+        final PackageMeta meta = new PackageMeta.Raw(
+            PackageMetaTest.INDEX.getBytes(StandardCharsets.UTF_8)
+        );
+        meta.with("sha256", "ff");
+        MatcherAssert.assertThat(
+            meta.toString(),
+            Matchers.not(Matchers.containsString("sha256"))
+        );
+    }
+
+    @Test
+    void adaptsJsonObject() throws JSONException {
+        final PackageMeta meta = new PackageMeta.Raw(
+            PackageMetaTest.INDEX.getBytes(StandardCharsets.UTF_8)
+        );
+        JSONAssert.assertEquals(
+            meta.toString(),
+            new PackageMeta.Tree(meta.json()).toString(),
+            true
+        );
+    }
+
+    @Test
+    void convertsNestedJsonObject() throws JSONException {
+        JSONAssert.assertEquals(
+            "{\"a\":{\"b\":[1.5,true,false,null,\"c\"]}}",
+            new PackageMeta.Tree(
+                Json.createObjectBuilder().add(
+                    "a",
+                    Json.createObjectBuilder().add(
+                        "b",
+                        Json.createArrayBuilder().add(1.5).add(true).add(false).addNull()
+                            .add("c")
+                    )
+                ).build()
+            ).toString(),
+            true
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1]", "{\"a\":1} {}", "", "{\"a\":"})
+    void failsOnInvalidRawJson(final String json) {
+        Assertions.assertThrows(
+            ArtipieException.class,
+            () -> new PackageMeta.Raw(json.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    /**
+     * Writes metadata with the generator.
+     * @param meta Package metadata
+     * @return Written json
+     * @throws IOException On error
+     */
+    private static String written(final PackageMeta meta) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final JsonGenerator gen = new JsonFactory().createGenerator(out);
+        meta.write(gen);
+        gen.close();
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+}
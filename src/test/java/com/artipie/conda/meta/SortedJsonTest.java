@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link SortedJson}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SortedJsonTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 40, SortedJson.BUDGET})
+    void sortsPackages(final long budget) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final JsonFactory factory = new JsonFactory();
+        new SortedJson(
+            factory.createGenerator(res),
+            factory.createParser(
+                String.join(
+                    "\n",
+                    "{",
+                    "  \"info\": {\"subdir\": \"noarch\", \"b\": [2, 1]},",
+                    "  \"packages\": {",
+                    "    \"c-1-0.tar.bz2\": {\"depends\": [\"z\", \"a\"]},",
+                    "    \"a-1-0.tar.bz2\": {\"name\": \"a\"},",
+                    "    \"b-1-0.tar.bz2\": {}",
+                    "  },",
+                    "  \"packages.conda\": {",
+                    "    \"y-1-0.conda\": {}, \"x-1-0.conda\": {\"size\": 1}",
+                    "  },",
+                    "  \"repodata_version\": 1",
+                    "}"
+                )
+            ),
+            budget
+        ).sort();
+        MatcherAssert.assertThat(
+            res.toString(StandardCharsets.UTF_8.name()),
+            Matchers.equalTo(
+                String.join(
+                    "",
+                    "{\"info\":{\"subdir\":\"noarch\",\"b\":[2,1]},",
+                    "\"packages\":{\"a-1-0.tar.bz2\":{\"name\":\"a\"},\"b-1-0.tar.bz2\":{},",
+                    "\"c-1-0.tar.bz2\":{\"depends\":[\"z\",\"a\"]}},",
+                    "\"packages.conda\":{\"x-1-0.conda\":{\"size\":1},\"y-1-0.conda\":{}},",
+                    "\"repodata_version\":1}"
+                )
+            )
+        );
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.meta;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+/**
+ * Test for {@link SpilledEntries}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SpilledEntriesTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 60, Long.MAX_VALUE})
+    void writesLastAddedEntriesInOrder(final long budget, final @TempDir Path dir)
+        throws IOException, JSONException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (SpilledEntries entries = new SpilledEntries(dir, budget)) {
+            entries.add("c-1.0-0.tar.bz2", SpilledEntriesTest.json("c", 1));
+            entries.add("a-1.0-0.conda", SpilledEntriesTest.json("a", 1));
+            entries.add("b-1.0-0.tar.bz2", SpilledEntriesTest.json("b", 1));
+            entries.add("c-1.0-0.tar.bz2", SpilledEntriesTest.json("c", 2));
+            entries.add("a-1.0-0.tar.bz2", SpilledEntriesTest.json("a", 1));
+            MatcherAssert.assertThat(
+                "Counts distinct file names",
+                entries.size(),
+                Matchers.is(4)
+            );
+            final JsonFactory factory = new JsonFactory();
+            new MergedJson.Jackson(factory.createGenerator(res), Optional.empty()).merge(entries);
+        }
+        final String json = res.toString(StandardCharsets.UTF_8.name());
+        JSONAssert.assertEquals(
+            String.join(
+                "",
+                "{\"packages\":{",
+                "\"a-1.0-0.tar.bz2\":{\"name\":\"a\",\"build_number\":1},",
+                "\"b-1.0-0.tar.bz2\":{\"name\":\"b\",\"build_number\":1},",
+                "\"c-1.0-0.tar.bz2\":{\"name\":\"c\",\"build_number\":2}},",
+                "\"packages.conda\":{",
+                "\"a-1.0-0.conda\":{\"name\":\"a\",\"build_number\":1}}}"
+            ),
+            json,
+            true
+        );
+        MatcherAssert.assertThat(
+            "Writes entries sorted by file name",
+            json.indexOf("a-1.0-0.tar.bz2") < json.indexOf("b-1.0-0.tar.bz2")
+                && json.indexOf("b-1.0-0.tar.bz2") < json.indexOf("c-1.0-0.tar.bz2"),
+            Matchers.is(true)
+        );
+    }
+
+    @Test
+    void checksFileNames(final @TempDir Path dir) throws IOException {
+        try (SpilledEntries entries = new SpilledEntries(dir, 0)) {
+            entries.add("x-1.0-0.conda", SpilledEntriesTest.json("x", 0));
+            MatcherAssert.assertThat(
+                entries.contains("x-1.0-0.conda") && !entries.contains("y-1.0-0.conda"),
+                Matchers.is(true)
+            );
+        }
+    }
+
+    @Test
+    void deletesRunsOnClose(final @TempDir Path dir) throws IOException {
+        final SpilledEntries entries = new SpilledEntries(dir, 0);
+        entries.add("x-1.0-0.conda", SpilledEntriesTest.json("x", 0));
+        entries.add("y-1.0-0.tar.bz2", SpilledEntriesTest.json("y", 0));
+        try (Stream<Path> files = Files.list(dir)) {
+            MatcherAssert.assertThat(
+                "Spills entries over the budget",
+                files.count(),
+                Matchers.greaterThan(0L)
+            );
+        }
+        entries.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            MatcherAssert.assertThat(
+                "Deletes runs",
+                files.count(),
+                Matchers.is(0L)
+            );
+        }
+    }
+
+    /**
+     * Package metadata.
+     * @param name Package name
+     * @param build Build number
+     * @return Metadata json
+     */
+    private static JsonObject json(final String name, final int build) {
+        return Json.createObjectBuilder().add("name", name).add("build_number", build).build();
+    }
+}
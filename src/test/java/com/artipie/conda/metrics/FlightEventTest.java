@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link FlightEvent}.
+ * @since 0.6
+ */
+class FlightEventTest {
+
+    @Test
+    void returnsNopWhenNotRecorded() {
+        final FlightEvent event = new FlightEvent(
+            "com.artipie.conda.TestNotRecorded", "Not recorded",
+            Collections.singletonList("subdir"), Collections.singletonList("entries")
+        );
+        final FlightEvent.Started started = event.begin();
+        started.set("subdir", "linux-64").set("entries", 1).commit();
+        MatcherAssert.assertThat(started, new IsSame<>(FlightEvent.Started.NOP));
+    }
+
+    @Test
+    void beginsEventWhenRecorded() throws Exception {
+        final Class<?> recording = FlightEventTest.recording();
+        final FlightEvent event = new FlightEvent(
+            "com.artipie.conda.TestRecorded", "Recorded",
+            Collections.singletonList("subdir"), Arrays.asList("entriesIn", "entriesOut")
+        );
+        final Object rec = recording.getConstructor().newInstance();
+        recording.getMethod("enable", String.class)
+            .invoke(rec, "com.artipie.conda.TestRecorded");
+        recording.getMethod("start").invoke(rec);
+        try {
+            MatcherAssert.assertThat(
+                "Event is not enabled",
+                event.enabled(),
+                new IsEqual<>(true)
+            );
+            final FlightEvent.Started started = event.begin();
+            started.set("subdir", "noarch").set("entriesIn", 2).set("entriesOut", 1).commit();
+            MatcherAssert.assertThat(
+                "Event is not started",
+                started,
+                new IsNot<>(new IsSame<>(FlightEvent.Started.NOP))
+            );
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> event.begin().set("unknown", 1)
+            );
+        } finally {
+            recording.getMethod("close").invoke(rec);
+        }
+    }
+
+    /**
+     * Flight recorder recording class, test is skipped if JVM has no flight recorder.
+     * @return Recording class
+     */
+    private static Class<?> recording() {
+        Class<?> res = null;
+        try {
+            res = Class.forName("jdk.jfr.Recording");
+        } catch (final ClassNotFoundException ex) {
+            Assumptions.assumeTrue(false, "Flight recorder is not available");
+        }
+        return res;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link InMemoryMetrics}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class InMemoryMetricsTest {
+
+    @Test
+    void returnsSameMetricForSameId() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        MatcherAssert.assertThat(
+            metrics.counter("requests", "route", "repodata"),
+            new IsSame<>(metrics.counter("requests", "route", "repodata"))
+        );
+    }
+
+    @Test
+    void visitsCounters() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.counter("requests", "route", "repodata").inc();
+        metrics.counter("requests", "route", "repodata").add(2);
+        metrics.counter("requests", "route", "upload").inc();
+        final Map<MetricId, Long> res = new HashMap<>();
+        metrics.accept(
+            new InMemoryMetrics.Visitor() {
+                @Override
+                public void counter(final MetricId id, final long value) {
+                    res.put(id, value);
+                }
+
+                @Override
+                public void gauge(final MetricId id, final long value) {
+                    throw new IllegalStateException("No gauges expected");
+                }
+
+                @Override
+                public void histogram(final MetricId id, final LongHistogram histogram) {
+                    throw new IllegalStateException("No histograms expected");
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            "Wrong repodata requests count",
+            res.get(new MetricId("requests", "route", "repodata")),
+            new IsEqual<>(3L)
+        );
+        MatcherAssert.assertThat(
+            "Wrong upload requests count",
+            res.get(new MetricId("requests", "route", "upload")),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void recordsTimedAction() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.histogram("merge").timed(() -> CompletableFuture.completedFuture(1))
+            .toCompletableFuture().join();
+        final Map<MetricId, Long> res = new HashMap<>();
+        metrics.accept(
+            new InMemoryMetrics.Visitor() {
+                @Override
+                public void counter(final MetricId id, final long value) {
+                    throw new IllegalStateException("No counters expected");
+                }
+
+                @Override
+                public void gauge(final MetricId id, final long value) {
+                    throw new IllegalStateException("No gauges expected");
+                }
+
+                @Override
+                public void histogram(final MetricId id, final LongHistogram histogram) {
+                    res.put(id, histogram.count());
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            res.get(new MetricId("merge")),
+            new IsEqual<>(1L)
+        );
+    }
+}
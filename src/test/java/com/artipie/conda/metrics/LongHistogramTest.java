@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LongHistogram}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class LongHistogramTest {
+
+    @Test
+    void recordsValuesToBuckets() {
+        final LongHistogram hist = new LongHistogram(10, 100);
+        hist.record(5);
+        hist.record(10);
+        hist.record(50);
+        hist.record(1000);
+        MatcherAssert.assertThat(
+            "Values less or equal to the first bound",
+            hist.count(0),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Values in the second bucket",
+            hist.count(1),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Values in the overflow bucket",
+            hist.count(2),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Count of all values",
+            hist.count(),
+            new IsEqual<>(4L)
+        );
+        MatcherAssert.assertThat(
+            "Sum of all values",
+            hist.sum(),
+            new IsEqual<>(1065L)
+        );
+    }
+
+    @Test
+    void hasDefaultBounds() {
+        final LongHistogram hist = new LongHistogram();
+        MatcherAssert.assertThat(
+            "Wrong count of the default bounds",
+            hist.bounds(),
+            new IsEqual<>(27)
+        );
+        MatcherAssert.assertThat(
+            "Wrong last default bound",
+            hist.bound(hist.bounds() - 1),
+            new IsEqual<>(50_000_000_000L)
+        );
+    }
+}
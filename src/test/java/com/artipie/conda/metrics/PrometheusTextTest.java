@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.metrics;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PrometheusText}.
+ * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class PrometheusTextTest {
+
+    @Test
+    void rendersCountersAndGauges() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.counter("requests", "route", "upload").inc();
+        metrics.counter("requests", "route", "repodata").add(3);
+        metrics.gauge("tokens").set(7);
+        MatcherAssert.assertThat(
+            PrometheusText.render(metrics),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "# TYPE requests counter",
+                    "requests{route=\"repodata\"} 3",
+                    "requests{route=\"upload\"} 1",
+                    "# TYPE tokens gauge",
+                    "tokens 7",
+                    ""
+                )
+            )
+        );
+    }
+
+    @Test
+    void rendersCumulativeHistogram() {
+        final LongHistogram histogram = new LongHistogram(10, 100);
+        histogram.record(5);
+        histogram.record(50);
+        histogram.record(70);
+        histogram.record(500);
+        final StringBuilder res = new StringBuilder();
+        new PrometheusText(res).histogram(new MetricId("duration", "op", "save"), histogram);
+        MatcherAssert.assertThat(
+            res.toString(),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "# TYPE duration histogram",
+                    "duration_bucket{op=\"save\",le=\"10\"} 1",
+                    "duration_bucket{op=\"save\",le=\"100\"} 3",
+                    "duration_bucket{op=\"save\",le=\"+Inf\"} 4",
+                    "duration_sum{op=\"save\"} 625",
+                    "duration_count{op=\"save\"} 4",
+                    ""
+                )
+            )
+        );
+    }
+
+    @Test
+    void escapesLabelValues() {
+        final InMemoryMetrics metrics = new InMemoryMetrics();
+        metrics.gauge("size", "subdir", "a\"b\\c\nd").set(1);
+        MatcherAssert.assertThat(
+            PrometheusText.render(metrics),
+            new IsEqual<>("# TYPE size gauge\nsize{subdir=\"a\\\"b\\\\c\\nd\"} 1\n")
+        );
+    }
+}
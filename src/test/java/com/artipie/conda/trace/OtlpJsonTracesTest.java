@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+/**
+ * Test for {@link OtlpJsonTraces}.
+ * @since 0.6
+ */
+class OtlpJsonTracesTest {
+
+    @Test
+    void rendersTraceAsRootAndChildSpans() throws JSONException {
+        final List<String> sink = new ArrayList<>(1);
+        final Trace trace = new Trace(
+            "upload", "linux-64/a.conda", new OtlpJsonTraces("conda", sink::add)
+        );
+        trace.traced(() -> trace.span("save", () -> CompletableFuture.completedFuture(1)))
+            .toCompletableFuture().join();
+        JSONAssert.assertEquals(
+            String.join(
+                "",
+                "{\"resourceSpans\":[{",
+                "\"resource\":{\"attributes\":[",
+                "{\"key\":\"service.name\",\"value\":{\"stringValue\":\"conda\"}}]},",
+                "\"scopeSpans\":[{\"scope\":{\"name\":\"com.artipie.conda\"},\"spans\":[",
+                String.format("{\"traceId\":\"%s\",\"name\":\"upload\",\"kind\":2,", trace.id()),
+                "\"attributes\":[{\"key\":\"conda.target\",",
+                "\"value\":{\"stringValue\":\"linux-64/a.conda\"}}]},",
+                String.format("{\"traceId\":\"%s\",\"name\":\"save\",\"kind\":1}", trace.id()),
+                "]}]}]}"
+            ),
+            sink.get(0),
+            false
+        );
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SlowTraceLog}.
+ * @since 0.6
+ */
+class SlowTraceLogTest {
+
+    @Test
+    void logsSlowRequests() {
+        final List<String> log = new ArrayList<>(1);
+        final Trace trace = new Trace(
+            "upload", "linux-64/a.conda", new SlowTraceLog(Duration.ZERO, log::add)
+        );
+        trace.traced(() -> trace.span("save", () -> CompletableFuture.completedFuture(1)))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            log,
+            Matchers.contains(
+                Matchers.matchesPattern("upload linux-64/a.conda \\d+ms: save=\\d+ms")
+            )
+        );
+    }
+
+    @Test
+    void skipsFastRequests() {
+        final List<String> log = new ArrayList<>(1);
+        final Trace trace = new Trace(
+            "upload", "linux-64/a.conda", new SlowTraceLog(Duration.ofHours(1), log::add)
+        );
+        trace.traced(() -> CompletableFuture.completedFuture(1)).toCompletableFuture().join();
+        MatcherAssert.assertThat(log.isEmpty(), new IsEqual<>(true));
+    }
+}
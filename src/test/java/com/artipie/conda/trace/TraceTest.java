@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/conda-adapter/LICENSE
+ */
+package com.artipie.conda.trace;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Trace}.
+ * @since 0.6
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class TraceTest {
+
+    @Test
+    void recordsSpansAndExportsOnce() {
+        final InMemoryTraces traces = new InMemoryTraces();
+        final Trace trace = new Trace("upload", "linux-64/a.conda", traces);
+        trace.traced(
+            () -> trace.span("save", () -> CompletableFuture.completedFuture(1))
+                .thenCompose(
+                    one -> trace.span("merge", () -> CompletableFuture.completedFuture(one + 1))
+                )
+        ).toCompletableFuture().join();
+        trace.traced(() -> CompletableFuture.completedFuture(0)).toCompletableFuture().join();
+        final List<Span> spans = trace.spans();
+        MatcherAssert.assertThat(
+            "Trace was not exported once",
+            traces.traces().size(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Wrong first span",
+            spans.get(0).name(),
+            new IsEqual<>("save")
+        );
+        MatcherAssert.assertThat(
+            "Wrong second span",
+            spans.get(1).name(),
+            new IsEqual<>("merge")
+        );
+        MatcherAssert.assertThat(
+            "Trace duration is not set",
+            trace.duration(),
+            Matchers.greaterThanOrEqualTo(0L)
+        );
+    }
+
+    @Test
+    void marksFailedStages() {
+        final InMemoryTraces traces = new InMemoryTraces();
+        final Trace trace = new Trace("upload", "noarch/b.tar.bz2", traces);
+        final CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Error"));
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> trace.traced(() -> trace.span("save", () -> failed))
+                .toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Span is not failed",
+            trace.spans().get(0).failed(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Trace is not failed",
+            trace.failed(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            trace.breakdown(),
+            Matchers.allOf(
+                Matchers.startsWith("upload noarch/b.tar.bz2 "),
+                Matchers.containsString("(failed): save=")
+            )
+        );
+    }
+}